@@ -0,0 +1,59 @@
+package io.github.pwszpl.mongo.benchmark;
+
+import io.github.pwszpl.mongo.parser.MongoSearchEngineParser;
+import io.github.pwszpl.mongo.parser.ParseException;
+import io.github.pwszpl.mongo.search.batch.BatchTranslator;
+import io.github.pwszpl.mongo.search.transform.FiltersTransformer;
+import org.bson.conversions.Bson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Translation of 10 000 saved queries one by one and with BatchTranslator running in common fork-join pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchBenchmark {
+    private static final String[] names = {"equality", "smallAnd", "deepNest", "predicates30", "matches", "dates"};
+
+    private final List<String> queries = new ArrayList<>();
+    private final BatchTranslator<Bson> translator = new BatchTranslator<>(new FiltersTransformer());
+
+    @Setup
+    public void setUp(){
+        for(int i=0;i<10000;i++){
+            queries.add(QueryCorpus.get(names[i % names.length]));
+        }
+    }
+
+    @Benchmark
+    public Object sequential() throws ParseException {
+        List<Object> results = new ArrayList<>(queries.size());
+        for(String query : queries){
+            results.add(new MongoSearchEngineParser(new StringReader(query)).parse());
+        }
+        return results;
+    }
+
+    @Benchmark
+    public Object batch(){
+        return translator.translate(queries);
+    }
+}
@@ -0,0 +1,55 @@
+package io.github.pwszpl.mongo.benchmark;
+
+import io.github.pwszpl.mongo.parser.MongoSearchEngineParser;
+import io.github.pwszpl.mongo.parser.ParseException;
+import io.github.pwszpl.mongo.search.cache.TranslationCache;
+import io.github.pwszpl.mongo.search.transform.FiltersTransformer;
+import org.bson.conversions.Bson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Translation of queries differing only in literal values - shape cache hit compared with parsing each query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheBenchmark {
+    @Param({"equality", "smallAnd", "predicates30", "in1000"})
+    public String queryName;
+
+    private final String[] queries = new String[16];
+    private int next;
+    private final TranslationCache<Bson> cache = new TranslationCache<>(new FiltersTransformer(), 100);
+
+    @Setup
+    public void setUp() {
+        String query = QueryCorpus.get(queryName);
+        // the same shape with different literals
+        for(int i=0;i<queries.length;i++) queries[i] = query.replace("0", String.valueOf(i % 10));
+    }
+
+    @Benchmark
+    public Object cached() throws ParseException {
+        return cache.translate(queries[next++ & 15]);
+    }
+
+    @Benchmark
+    public Object parse() throws ParseException {
+        return new MongoSearchEngineParser(queries[next++ & 15]).parse();
+    }
+}
@@ -0,0 +1,67 @@
+package io.github.pwszpl.mongo.benchmark;
+
+import com.mongodb.client.model.Filters;
+import io.github.pwszpl.mongo.search.transform.FunctionsMapping;
+import io.github.pwszpl.mongo.search.util.MethodDispatcher;
+import io.github.pwszpl.mongo.search.util.ReflectionUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Call of Filters method by reflective lookup (ReflectionUtil) compared to MethodDispatcher table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DispatchBenchmark {
+    private Map<String, List<Method>> methods;
+    private MethodDispatcher dispatcher;
+    private List<Object> eqParams;
+    private List<Object> inParams;
+
+    @Setup
+    public void setUp() {
+        methods = Arrays.stream(Filters.class.getDeclaredMethods()).collect(Collectors.groupingBy(Method::getName));
+        dispatcher = new MethodDispatcher(Filters.class, FunctionsMapping::getFiltersFunction);
+        eqParams = Arrays.asList("field", 100);
+        inParams = Arrays.asList("field", Arrays.asList("a", "b", "c"));
+    }
+
+    @Benchmark
+    public Object reflectionEq() {
+        return ReflectionUtil.findAppropriateMethodAndCall("eq", eqParams, methods);
+    }
+
+    @Benchmark
+    public Object dispatcherEq() {
+        return dispatcher.call(FunctionsMapping.EQ, eqParams);
+    }
+
+    @Benchmark
+    public Object reflectionIn() {
+        return ReflectionUtil.findAppropriateMethodAndCall("in", inParams, methods);
+    }
+
+    @Benchmark
+    public Object dispatcherIn() {
+        return dispatcher.call(FunctionsMapping.IN, inParams);
+    }
+}
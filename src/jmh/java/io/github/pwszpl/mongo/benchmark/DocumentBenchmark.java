@@ -0,0 +1,53 @@
+package io.github.pwszpl.mongo.benchmark;
+
+import io.github.pwszpl.mongo.parser.MongoSearchEngineParser;
+import io.github.pwszpl.mongo.parser.ParseException;
+import io.github.pwszpl.mongo.search.ast.QueryNode;
+import io.github.pwszpl.mongo.search.transform.CriteriaTransformer;
+import io.github.pwszpl.mongo.search.transform.DocumentTransformer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spring query document of parsed tree created from Criteria chain compared to document written by DocumentTransformer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DocumentBenchmark {
+    @Param({"equality", "smallAnd", "deepNest", "predicates30", "in1000", "matches", "dates"})
+    public String queryName;
+
+    private final CriteriaTransformer criteria = new CriteriaTransformer();
+    private final DocumentTransformer document = new DocumentTransformer();
+    private QueryNode tree;
+
+    @Setup
+    public void setUp() throws ParseException {
+        tree = new MongoSearchEngineParser(QueryCorpus.get(queryName)).parseTree();
+    }
+
+    @Benchmark
+    public Object criteriaObject(){
+        return tree.accept(criteria).getCriteriaObject();
+    }
+
+    @Benchmark
+    public Object document(){
+        return tree.accept(document);
+    }
+}
@@ -0,0 +1,61 @@
+package io.github.pwszpl.mongo.benchmark;
+
+import io.github.pwszpl.mongo.search.util.LiteralDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Literal decoding - LiteralDecoder compared with JDK parsing of padded ISO strings used before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LiteralBenchmark {
+    public String integer = "1048576";
+    public String real = "-1234.5678";
+    public String timestamp = "2022-01-01T10:00:00";
+
+    @Benchmark
+    public Object integerDecoder() {
+        return LiteralDecoder.decodeInteger(integer);
+    }
+
+    @Benchmark
+    public Object integerJdk() {
+        return Integer.valueOf(integer);
+    }
+
+    @Benchmark
+    public Object realDecoder() {
+        return LiteralDecoder.decodeReal(real);
+    }
+
+    @Benchmark
+    public Object realJdk() {
+        return Double.valueOf(real);
+    }
+
+    @Benchmark
+    public Object timestampDecoder() {
+        return LiteralDecoder.decodeTimestamp(timestamp);
+    }
+
+    @Benchmark
+    public Object timestampJdk() {
+        return Date.from(Instant.parse(timestamp + ".00Z"));
+    }
+}
@@ -0,0 +1,62 @@
+package io.github.pwszpl.mongo.benchmark;
+
+import io.github.pwszpl.mongo.parser.MongoSearchEngineParser;
+import io.github.pwszpl.mongo.parser.ParseException;
+import io.github.pwszpl.mongo.search.metrics.TranslationListener;
+import io.github.pwszpl.mongo.search.metrics.TranslationMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of translation listener - default NOOP listener compared with listener receiving metrics of each query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsBenchmark {
+    @Param({"equality", "predicates30", "in1000"})
+    public String queryName;
+
+    private String query;
+    private final MongoSearchEngineParser noopParser = new MongoSearchEngineParser("");
+    private final MongoSearchEngineParser measuredParser = new MongoSearchEngineParser("");
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        query = QueryCorpus.get(queryName);
+        noopParser.setTranslationListener(TranslationListener.NOOP);
+        measuredParser.setTranslationListener(new TranslationListener() {
+            @Override
+            public void onTranslated(TranslationMetrics metrics) {
+                blackhole.consume(metrics);
+            }
+        });
+    }
+
+    @Benchmark
+    public Object parseNoopListener() throws ParseException {
+        noopParser.ReInit(query);
+        return noopParser.parse();
+    }
+
+    @Benchmark
+    public Object parseMeasured() throws ParseException {
+        measuredParser.ReInit(query);
+        return measuredParser.parse();
+    }
+}
@@ -0,0 +1,87 @@
+package io.github.pwszpl.mongo.benchmark;
+
+import io.github.pwszpl.mongo.parser.MongoSearchEngineParser;
+import io.github.pwszpl.mongo.parser.ParseException;
+import io.github.pwszpl.mongo.search.ast.QueryNode;
+import io.github.pwszpl.mongo.search.transform.CriteriaTransformer;
+import io.github.pwszpl.mongo.search.transform.FiltersTransformer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full translation of query (parsing and transformation) in each parser mode, as well as parsing and transformation alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+    @Param({"equality", "smallAnd", "deepNest", "predicates30", "in1000", "matches", "dates"})
+    public String queryName;
+
+    private String query;
+    private QueryNode tree;
+    private final MongoSearchEngineParser reusedParser = new MongoSearchEngineParser("");
+
+    @Setup
+    public void setUp() throws ParseException {
+        query = QueryCorpus.get(queryName);
+        tree = new MongoSearchEngineParser(new StringReader(query)).parseTree();
+    }
+
+    @Benchmark
+    public Object parseBson() throws ParseException {
+        MongoSearchEngineParser parser = new MongoSearchEngineParser(new StringReader(query));
+        parser.setBSONMode();
+        return parser.parse();
+    }
+
+    @Benchmark
+    public Object parseBsonReused() throws ParseException {
+        reusedParser.ReInit(query);
+        return reusedParser.parse();
+    }
+
+    @Benchmark
+    public Object parseCriteria() throws ParseException {
+        MongoSearchEngineParser parser = new MongoSearchEngineParser(new StringReader(query));
+        parser.setCriteraMode();
+        return parser.parse();
+    }
+
+    @Benchmark
+    public Object parseBsonDocument() throws ParseException {
+        MongoSearchEngineParser parser = new MongoSearchEngineParser(new StringReader(query));
+        parser.setBsonDocumentMode();
+        return parser.parse();
+    }
+
+    @Benchmark
+    public Object parseTree() throws ParseException {
+        return new MongoSearchEngineParser(new StringReader(query)).parseTree();
+    }
+
+    @Benchmark
+    public Object transformBson() {
+        return tree.accept(new FiltersTransformer());
+    }
+
+    @Benchmark
+    public Object transformCriteria() {
+        return tree.accept(new CriteriaTransformer());
+    }
+}
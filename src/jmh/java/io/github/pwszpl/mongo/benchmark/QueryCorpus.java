@@ -0,0 +1,62 @@
+package io.github.pwszpl.mongo.benchmark;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Queries used by benchmarks, resembling filters written in search UI.
+ */
+public class QueryCorpus {
+    private static final Map<String, String> queries = new LinkedHashMap<>();
+    static {
+        queries.put("equality", "customer.name='John Smith'");
+        queries.put("smallAnd", "status='active' and price>10.5 and quantity<=100");
+        queries.put("deepNest", deepNest(6));
+        queries.put("predicates30", predicates(30));
+        queries.put("in1000", inList(1000));
+        queries.put("matches", "items matches (sku='abc-123' and qty=5) and exists(items) = true and size(items) = 3");
+        queries.put("dates", "created>=2022-01-01 and created<2022-02-01T12:30:00 and updated<>2021-12-31T23:59:59 and mod(version,2) = 1");
+    }
+
+    public static String get(String name){
+        String query = queries.get(name);
+        if(query == null) throw new IllegalArgumentException(String.format("Unknown query '%s'.", name));
+        return query;
+    }
+
+    /**
+     * Nested groups alternating and/or operators, e.g. (a=0 or (a=1 and (...)))
+     */
+    private static String deepNest(int depth){
+        String query = String.format("f%d.x=%d", depth, depth);
+        for(int i=depth-1;i>=0;i--){
+            String operator = i % 2 == 0 ? "or" : "and";
+            query = String.format("(f%d.x=%d %s f%d.y='v%d' %s %s)", i, i, operator, i, i, operator, query);
+        }
+        return query;
+    }
+
+    private static String predicates(int count){
+        StringBuilder query = new StringBuilder();
+        for(int i=0;i<count;i++){
+            if(i > 0) query.append(i % 3 == 0 ? " or " : " and ");
+            switch (i % 5){
+                case 0: query.append("field").append(i).append("='value").append(i).append('\''); break;
+                case 1: query.append("field").append(i).append(">").append(i); break;
+                case 2: query.append("field").append(i).append("<=").append(i).append(".5"); break;
+                case 3: query.append("field").append(i).append(" in ('a' 'b' 'c')"); break;
+                default: query.append("exists(field").append(i).append(") = true"); break;
+            }
+        }
+        return query.toString();
+    }
+
+    private static String inList(int size){
+        StringBuilder query = new StringBuilder("customerId in (");
+        for(int i=0;i<size;i++){
+            if(i > 0) query.append(' ');
+            query.append(100000 + i);
+        }
+        return query.append(')').toString();
+    }
+}
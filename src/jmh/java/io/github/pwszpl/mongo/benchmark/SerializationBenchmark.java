@@ -0,0 +1,53 @@
+package io.github.pwszpl.mongo.benchmark;
+
+import io.github.pwszpl.mongo.parser.MongoSearchEngineParser;
+import io.github.pwszpl.mongo.parser.ParseException;
+import io.github.pwszpl.mongo.search.serialization.QuerySerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading query tree from serialized form compared with parsing query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+    @Param({"smallAnd", "predicates30", "in1000", "dates"})
+    public String queryName;
+
+    private String query;
+    private byte[] serialized;
+    private final MongoSearchEngineParser parser = new MongoSearchEngineParser("");
+
+    @Setup
+    public void setUp() throws ParseException {
+        query = QueryCorpus.get(queryName);
+        serialized = QuerySerializer.serialize(new MongoSearchEngineParser(query).parseTree());
+    }
+
+    @Benchmark
+    public Object parseTree() throws ParseException {
+        parser.ReInit(query);
+        return parser.parseTree();
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return QuerySerializer.deserialize(serialized);
+    }
+}
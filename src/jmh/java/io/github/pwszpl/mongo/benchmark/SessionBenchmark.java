@@ -0,0 +1,66 @@
+package io.github.pwszpl.mongo.benchmark;
+
+import io.github.pwszpl.mongo.parser.MongoSearchEngineParser;
+import io.github.pwszpl.mongo.parser.ParseException;
+import io.github.pwszpl.mongo.search.ast.QueryNode;
+import io.github.pwszpl.mongo.search.session.ParsingSession;
+import io.github.pwszpl.mongo.search.transform.FiltersTransformer;
+import org.bson.conversions.Bson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation of query typed in search box - parsing session reading only edited tokens and conditions
+ * compared with parsing whole query after each keystroke.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionBenchmark {
+    @Param({"smallAnd", "predicates30", "matches"})
+    public String queryName;
+
+    private String query;
+    private String edited;
+    private int offset;
+    private final ParsingSession<Bson> session = new ParsingSession<>(new FiltersTransformer());
+    private final MongoSearchEngineParser parser = new MongoSearchEngineParser("");
+
+    @Setup
+    public void setUp() {
+        query = QueryCorpus.get(queryName);
+        // character typed into string literal closest to the middle of query and removed again
+        int quote = query.indexOf('\'', query.length() / 2);
+        offset = (quote < 0 ? query.indexOf('\'') : quote) + 1;
+        edited = query.substring(0, offset) + "1" + query.substring(offset);
+        session.setQuery(query);
+    }
+
+    @Benchmark
+    public Object sessionEdit() {
+        session.edit(offset, 0, "1");
+        return session.edit(offset, 1, "").getTree();
+    }
+
+    @Benchmark
+    public Object fullParse() throws ParseException {
+        parser.ReInit(edited);
+        QueryNode tree = parser.parseTree();
+        parser.ReInit(query);
+        return parser.parseTree() != tree;
+    }
+}
@@ -0,0 +1,64 @@
+package io.github.pwszpl.mongo.benchmark;
+
+import io.github.pwszpl.mongo.parser.MongoSearchEngineParserConstants;
+import io.github.pwszpl.mongo.parser.MongoSearchEngineParserTokenManager;
+import io.github.pwszpl.mongo.parser.SimpleCharStream;
+import io.github.pwszpl.mongo.parser.Token;
+import io.github.pwszpl.mongo.search.util.CharSequenceStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lexing of query by generated token manager alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenManagerBenchmark {
+    @Param({"equality", "smallAnd", "deepNest", "predicates30", "in1000", "matches", "dates"})
+    public String queryName;
+
+    private String query;
+    private final CharSequenceStream stream = new CharSequenceStream();
+    private final MongoSearchEngineParserTokenManager reusedTokenManager = new MongoSearchEngineParserTokenManager(stream);
+
+    @Setup
+    public void setUp() {
+        query = QueryCorpus.get(queryName);
+    }
+
+    @Benchmark
+    public void tokenize(Blackhole blackhole) {
+        MongoSearchEngineParserTokenManager tokenManager = new MongoSearchEngineParserTokenManager(new SimpleCharStream(new StringReader(query)));
+        Token token;
+        while((token = tokenManager.getNextToken()).kind != MongoSearchEngineParserConstants.EOF){
+            blackhole.consume(token);
+        }
+    }
+
+    @Benchmark
+    public void tokenizeReused(Blackhole blackhole) {
+        stream.reset(query);
+        reusedTokenManager.ReInit(stream);
+        Token token;
+        while((token = reusedTokenManager.getNextToken()).kind != MongoSearchEngineParserConstants.EOF){
+            blackhole.consume(token);
+        }
+    }
+}
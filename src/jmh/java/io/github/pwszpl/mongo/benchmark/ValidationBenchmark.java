@@ -0,0 +1,67 @@
+package io.github.pwszpl.mongo.benchmark;
+
+import io.github.pwszpl.mongo.parser.MongoSearchEngineParser;
+import io.github.pwszpl.mongo.parser.ParseException;
+import io.github.pwszpl.mongo.search.validation.QueryValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Syntax check of valid query and of query with error at its end - QueryValidator compared with translating
+ * query by new parser and catching ParseException.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidationBenchmark {
+    @Param({"smallAnd", "predicates30", "in1000"})
+    public String queryName;
+
+    private String query;
+    private String invalid;
+    private final QueryValidator validator = new QueryValidator();
+
+    @Setup
+    public void setUp() {
+        query = QueryCorpus.get(queryName);
+        invalid = query + " and";
+    }
+
+    @Benchmark
+    public Object validateValid() {
+        return validator.validate(query);
+    }
+
+    @Benchmark
+    public Object validateInvalid() {
+        return validator.validate(invalid);
+    }
+
+    @Benchmark
+    public Object parseValid() throws ParseException {
+        return new MongoSearchEngineParser(query).parse();
+    }
+
+    @Benchmark
+    public Object parseInvalid() {
+        try {
+            return new MongoSearchEngineParser(invalid).parse();
+        } catch (ParseException e) {
+            return e.getMessage();
+        }
+    }
+}
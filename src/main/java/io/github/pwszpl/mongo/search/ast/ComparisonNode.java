@@ -0,0 +1,52 @@
+package io.github.pwszpl.mongo.search.ast;
+
+import io.github.pwszpl.mongo.search.transform.FunctionsMapping;
+
+import java.util.Objects;
+
+/**
+ * Comparison of field with single value (=, <>, >, >=, <, <=).
+ * Value is either literal or QueryParameter placeholder.
+ */
+public final class ComparisonNode implements QueryNode {
+    private final FunctionsMapping operator;
+    private final String field;
+    private final Object value;
+
+    public ComparisonNode(FunctionsMapping operator, String field, Object value){
+        this.operator = operator;
+        this.field = field;
+        this.value = value;
+    }
+
+    @Override
+    public FunctionsMapping getOperator() {
+        return operator;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    @Override
+    public <R> R accept(QueryVisitor<R> visitor) {
+        return visitor.visitComparison(this);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ComparisonNode)) return false;
+        ComparisonNode that = (ComparisonNode) o;
+        return operator == that.operator && field.equals(that.field) && Objects.equals(value, that.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(operator, field, value);
+    }
+}
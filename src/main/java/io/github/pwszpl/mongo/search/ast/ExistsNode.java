@@ -0,0 +1,49 @@
+package io.github.pwszpl.mongo.search.ast;
+
+import io.github.pwszpl.mongo.search.transform.FunctionsMapping;
+
+import java.util.Objects;
+
+/**
+ * Check if field exists (exists(field) = true/false).
+ */
+public final class ExistsNode implements QueryNode {
+    private final String field;
+    private final boolean exists;
+
+    public ExistsNode(String field, boolean exists){
+        this.field = field;
+        this.exists = exists;
+    }
+
+    @Override
+    public FunctionsMapping getOperator() {
+        return FunctionsMapping.EXISTS;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public boolean isExists() {
+        return exists;
+    }
+
+    @Override
+    public <R> R accept(QueryVisitor<R> visitor) {
+        return visitor.visitExists(this);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ExistsNode)) return false;
+        ExistsNode that = (ExistsNode) o;
+        return field.equals(that.field) && exists == that.exists;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getOperator(), field, exists);
+    }
+}
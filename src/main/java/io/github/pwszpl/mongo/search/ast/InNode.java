@@ -0,0 +1,55 @@
+package io.github.pwszpl.mongo.search.ast;
+
+import io.github.pwszpl.mongo.search.transform.FunctionsMapping;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Comparison of field with list of values (IN, NIN, ALL).
+ * Values are either literals or QueryParameter placeholders.
+ */
+public final class InNode implements QueryNode {
+    private final FunctionsMapping operator;
+    private final String field;
+    private final List<Object> values;
+
+    public InNode(FunctionsMapping operator, String field, List<Object> values){
+        this.operator = operator;
+        this.field = field;
+        this.values = Collections.unmodifiableList(new ArrayList<>(values));
+    }
+
+    @Override
+    public FunctionsMapping getOperator() {
+        return operator;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public List<Object> getValues() {
+        return values;
+    }
+
+    @Override
+    public <R> R accept(QueryVisitor<R> visitor) {
+        return visitor.visitIn(this);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof InNode)) return false;
+        InNode that = (InNode) o;
+        return operator == that.operator && field.equals(that.field) && values.equals(that.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(operator, field, values);
+    }
+}
@@ -0,0 +1,21 @@
+package io.github.pwszpl.mongo.search.ast;
+
+/**
+ * Syntax of LIKE pattern literal.
+ */
+public enum LikeMode {
+    /**
+     * Pattern is regular expression passed to MongoDB as is (default).
+     */
+    REGEX,
+    /**
+     * Pattern uses SQL wildcards: % matches any sequence of characters, _ matches single character,
+     * backslash escapes next character. Pattern is translated to anchored, case-sensitive regular expression,
+     * so MongoDB can use index bounds for its literal prefix. Pattern without wildcards is translated to equality.
+     */
+    SQL,
+    /**
+     * As SQL, additionally literal prefix of pattern is added as explicit $gte/$lt range on the same field.
+     */
+    SQL_WITH_PREFIX_RANGE
+}
@@ -0,0 +1,50 @@
+package io.github.pwszpl.mongo.search.ast;
+
+import io.github.pwszpl.mongo.search.transform.FunctionsMapping;
+
+import java.util.Objects;
+
+/**
+ * Match of field with regular expression (field like '.*abc').
+ * Pattern is either literal or QueryParameter placeholder.
+ */
+public final class LikeNode implements QueryNode {
+    private final String field;
+    private final Object pattern;
+
+    public LikeNode(String field, Object pattern){
+        this.field = field;
+        this.pattern = pattern;
+    }
+
+    @Override
+    public FunctionsMapping getOperator() {
+        return FunctionsMapping.LIKE;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public Object getPattern() {
+        return pattern;
+    }
+
+    @Override
+    public <R> R accept(QueryVisitor<R> visitor) {
+        return visitor.visitLike(this);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LikeNode)) return false;
+        LikeNode that = (LikeNode) o;
+        return field.equals(that.field) && Objects.equals(pattern, that.pattern);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getOperator(), field, pattern);
+    }
+}
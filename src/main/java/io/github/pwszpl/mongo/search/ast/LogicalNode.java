@@ -0,0 +1,48 @@
+package io.github.pwszpl.mongo.search.ast;
+
+import io.github.pwszpl.mongo.search.transform.FunctionsMapping;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * AND/OR/NOR operator applied to list of conditions.
+ */
+public final class LogicalNode implements QueryNode {
+    private final FunctionsMapping operator;
+    private final List<QueryNode> children;
+
+    public LogicalNode(FunctionsMapping operator, List<QueryNode> children){
+        this.operator = operator;
+        this.children = Collections.unmodifiableList(new ArrayList<>(children));
+    }
+
+    @Override
+    public FunctionsMapping getOperator() {
+        return operator;
+    }
+
+    public List<QueryNode> getChildren() {
+        return children;
+    }
+
+    @Override
+    public <R> R accept(QueryVisitor<R> visitor) {
+        return visitor.visitLogical(this);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LogicalNode)) return false;
+        LogicalNode that = (LogicalNode) o;
+        return operator == that.operator && children.equals(that.children);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(operator, children);
+    }
+}
@@ -0,0 +1,52 @@
+package io.github.pwszpl.mongo.search.ast;
+
+import io.github.pwszpl.mongo.search.transform.FunctionsMapping;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Match of array element with all of given conditions (field matches (a = 1 and b = 2)).
+ */
+public final class MatchesNode implements QueryNode {
+    private final String field;
+    private final List<QueryNode> conditions;
+
+    public MatchesNode(String field, List<QueryNode> conditions){
+        this.field = field;
+        this.conditions = Collections.unmodifiableList(new ArrayList<>(conditions));
+    }
+
+    @Override
+    public FunctionsMapping getOperator() {
+        return FunctionsMapping.MATCHES;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public List<QueryNode> getConditions() {
+        return conditions;
+    }
+
+    @Override
+    public <R> R accept(QueryVisitor<R> visitor) {
+        return visitor.visitMatches(this);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MatchesNode)) return false;
+        MatchesNode that = (MatchesNode) o;
+        return field.equals(that.field) && conditions.equals(that.conditions);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getOperator(), field, conditions);
+    }
+}
@@ -0,0 +1,55 @@
+package io.github.pwszpl.mongo.search.ast;
+
+import io.github.pwszpl.mongo.search.transform.FunctionsMapping;
+
+import java.util.Objects;
+
+/**
+ * Modulo check of field value (mod(field, divisor) = remainder).
+ */
+public final class ModNode implements QueryNode {
+    private final String field;
+    private final Number divisor;
+    private final Number remainder;
+
+    public ModNode(String field, Number divisor, Number remainder){
+        this.field = field;
+        this.divisor = divisor;
+        this.remainder = remainder;
+    }
+
+    @Override
+    public FunctionsMapping getOperator() {
+        return FunctionsMapping.MOD;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public Number getDivisor() {
+        return divisor;
+    }
+
+    public Number getRemainder() {
+        return remainder;
+    }
+
+    @Override
+    public <R> R accept(QueryVisitor<R> visitor) {
+        return visitor.visitMod(this);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ModNode)) return false;
+        ModNode that = (ModNode) o;
+        return field.equals(that.field) && divisor.equals(that.divisor) && remainder.equals(that.remainder);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getOperator(), field, divisor, remainder);
+    }
+}
@@ -0,0 +1,42 @@
+package io.github.pwszpl.mongo.search.ast;
+
+import io.github.pwszpl.mongo.search.transform.FunctionsMapping;
+
+import java.util.Objects;
+
+/**
+ * Negation of single condition (not(exists(field) = true)).
+ */
+public final class NotNode implements QueryNode {
+    private final QueryNode child;
+
+    public NotNode(QueryNode child){
+        this.child = child;
+    }
+
+    @Override
+    public FunctionsMapping getOperator() {
+        return FunctionsMapping.NOT;
+    }
+
+    public QueryNode getChild() {
+        return child;
+    }
+
+    @Override
+    public <R> R accept(QueryVisitor<R> visitor) {
+        return visitor.visitNot(this);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof NotNode)) return false;
+        return child.equals(((NotNode) o).child);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getOperator(), child);
+    }
+}
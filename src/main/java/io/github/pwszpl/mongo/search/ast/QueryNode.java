@@ -0,0 +1,15 @@
+package io.github.pwszpl.mongo.search.ast;
+
+import io.github.pwszpl.mongo.search.transform.FunctionsMapping;
+
+/**
+ * Immutable node of parsed query tree.
+ */
+public interface QueryNode {
+    /**
+     * @return function represented by this node
+     */
+    FunctionsMapping getOperator();
+
+    <R> R accept(QueryVisitor<R> visitor);
+}
@@ -0,0 +1,154 @@
+package io.github.pwszpl.mongo.search.ast;
+
+import io.github.pwszpl.mongo.parser.MongoSearchEngineParserConstants;
+import io.github.pwszpl.mongo.parser.Token;
+import io.github.pwszpl.mongo.search.transform.FunctionsMapping;
+import io.github.pwszpl.mongo.search.transform.QueryParameter;
+import io.github.pwszpl.mongo.search.transform.TransformToken;
+import io.github.pwszpl.mongo.search.util.LikePatterns;
+import io.github.pwszpl.mongo.search.util.LiteralDecoder;
+import io.github.pwszpl.mongo.search.util.StringUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Creates query tree nodes from tokens matched by MongoSearchEngineParser.
+ */
+public class QueryNodeFactory {
+    /**
+     * Creates single node for chain of AND/OR/NOR operands. Operands being AND/OR nodes of the same operator
+     * (e.g. parenthesised groups) are merged into created node, as these operators are associative.
+     */
+    public static QueryNode logical(Token operator, List<QueryNode> operands){
+        FunctionsMapping mapping = getMapping(operator);
+        if(mapping == FunctionsMapping.NOR){
+            return new LogicalNode(mapping, operands);
+        }
+        List<QueryNode> children = new ArrayList<>(operands.size());
+        for(QueryNode operand : operands){
+            if(operand.getOperator() == mapping && operand instanceof LogicalNode){
+                children.addAll(((LogicalNode) operand).getChildren());
+            } else {
+                children.add(operand);
+            }
+        }
+        return new LogicalNode(mapping, children);
+    }
+
+    public static QueryNode comparison(Token operator, Token field, Token value){
+        return new ComparisonNode(getMapping(operator), field.image, getValue(value));
+    }
+
+    public static QueryNode in(Token operator, Token field, List<Token> values){
+        List<Object> list = new ArrayList<>(values.size());
+        for(Token value : values){
+            list.add(getValue(value));
+        }
+        return new InNode(getMapping(operator), field.image, list);
+    }
+
+    public static QueryNode exists(Token notOperator, Token field, Token value){
+        return not(notOperator, new ExistsNode(field.image, (Boolean) getValue(value)));
+    }
+
+    public static QueryNode type(Token notOperator, Token field, Token value){
+        return not(notOperator, new TypeNode(field.image, (String) getValue(value)));
+    }
+
+    public static QueryNode size(Token notOperator, Token field, Token value){
+        Object size = getValue(value);
+        if(!(size instanceof Integer)){
+            throw new RuntimeException(String.format("Array size '%s' is out of range.", value.image));
+        }
+        return not(notOperator, new SizeNode(field.image, (Integer) size));
+    }
+
+    public static SortField sortField(Token field, Token direction){
+        return new SortField(field.image, direction == null || direction.kind != MongoSearchEngineParserConstants.DESC);
+    }
+
+    /**
+     * @return value of LIMIT or OFFSET clause
+     */
+    public static Integer count(Token value){
+        Object count = getValue(value);
+        if(!(count instanceof Integer)){
+            throw new RuntimeException(String.format("Limit or offset '%s' is out of range.", value.image));
+        }
+        return (Integer) count;
+    }
+
+    public static QueryNode mod(Token notOperator, Token field, Token divisor, Token remainder){
+        return not(notOperator, new ModNode(field.image, (Number) getValue(divisor), (Number) getValue(remainder)));
+    }
+
+    public static QueryNode like(Token field, Token value){
+        return like(field, value, LikeMode.REGEX);
+    }
+
+    /**
+     * Creates LIKE node for pattern in given syntax. SQL pattern is translated to anchored regular expression,
+     * or equality if it has no wildcards. Bound parameters are always used as regular expressions.
+     */
+    public static QueryNode like(Token field, Token value, LikeMode mode){
+        Object pattern = getValue(value);
+        if(mode == LikeMode.REGEX || !(pattern instanceof String)){
+            return new LikeNode(field.image, pattern);
+        }
+        String sqlPattern = (String) pattern;
+        if(!LikePatterns.hasWildcards(sqlPattern)){
+            return new ComparisonNode(FunctionsMapping.EQ, field.image, LikePatterns.literalPrefix(sqlPattern));
+        }
+        LikeNode like = new LikeNode(field.image, LikePatterns.toRegex(sqlPattern));
+        String prefix = LikePatterns.literalPrefix(sqlPattern);
+        if(mode != LikeMode.SQL_WITH_PREFIX_RANGE || prefix.isEmpty()){
+            return like;
+        }
+        String upperBound = LikePatterns.prefixUpperBound(prefix);
+        QueryNode range = upperBound == null
+                ? new ComparisonNode(FunctionsMapping.GE, field.image, prefix)
+                : new RangeNode(field.image, FunctionsMapping.GE, prefix, FunctionsMapping.LT, upperBound);
+        return new LogicalNode(FunctionsMapping.AND, Arrays.asList(like, range));
+    }
+
+    public static QueryNode matches(Token field, List<QueryNode> conditions){
+        return new MatchesNode(field.image, conditions);
+    }
+
+    private static QueryNode not(Token notOperator, QueryNode node){
+        return notOperator == null ? node : new NotNode(node);
+    }
+
+    private static FunctionsMapping getMapping(Token token){
+        if(token instanceof TransformToken){
+            return ((TransformToken) token).getMapping();
+        }
+        throw new RuntimeException(String.format("Token '%s' is not supported for transform operation.", token.image));
+    }
+
+    /**
+     * Converts literal token to Java object. Spring Data mapping token is converted to QueryParameter placeholder.
+     */
+    public static Object getValue(Token token){
+        switch(token.kind){
+            case MongoSearchEngineParserConstants.SPRING_TOKEN:
+                return new QueryParameter(token.image);
+            case MongoSearchEngineParserConstants.STRING_LITERAL:
+                return StringUtil.unquote(token.image);
+            case MongoSearchEngineParserConstants.R_NUMBER:
+                return LiteralDecoder.decodeReal(token.image);
+            case MongoSearchEngineParserConstants.INT_NUMBER:
+                return LiteralDecoder.decodeInteger(token.image);
+            case MongoSearchEngineParserConstants.BOOLEAN:
+                return Boolean.valueOf(token.image);
+            case MongoSearchEngineParserConstants.DATE:
+                return LiteralDecoder.decodeDate(token.image);
+            case MongoSearchEngineParserConstants.TIMESTAMP:
+                return LiteralDecoder.decodeTimestamp(token.image);
+            default:
+                return token.image;
+        }
+    }
+}
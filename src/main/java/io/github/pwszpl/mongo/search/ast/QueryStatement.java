@@ -0,0 +1,59 @@
+package io.github.pwszpl.mongo.search.ast;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Query with optional SELECT, ORDER BY and LIMIT/OFFSET clauses - filter tree with projected fields, sort fields,
+ * limit and number of skipped documents.
+ */
+public final class QueryStatement {
+    private final List<String> projection;
+    private final QueryNode filter;
+    private final List<SortField> sort;
+    private final Integer limit;
+    private final Integer skip;
+
+    public QueryStatement(List<String> projection, QueryNode filter, List<SortField> sort, Integer limit, Integer skip){
+        this.projection = Collections.unmodifiableList(projection);
+        this.filter = filter;
+        this.sort = Collections.unmodifiableList(sort);
+        this.limit = limit;
+        this.skip = skip;
+    }
+
+    /**
+     * @return fields of SELECT clause, empty when whole documents are selected
+     */
+    public List<String> getProjection() {
+        return projection;
+    }
+
+    /**
+     * @return filter tree, null when statement has no filter and matches all documents
+     */
+    public QueryNode getFilter() {
+        return filter;
+    }
+
+    /**
+     * @return fields of ORDER BY clause, empty when statement isn't sorted
+     */
+    public List<SortField> getSort() {
+        return sort;
+    }
+
+    /**
+     * @return value of LIMIT clause, null when statement has no limit
+     */
+    public Integer getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return value of OFFSET clause, null when statement has no offset
+     */
+    public Integer getSkip() {
+        return skip;
+    }
+}
@@ -0,0 +1,29 @@
+package io.github.pwszpl.mongo.search.ast;
+
+/**
+ * Visitor of parsed query tree. Implemented by transformers producing Bson/Criteria objects.
+ * @param <R> type of visit result
+ */
+public interface QueryVisitor<R> {
+    R visitLogical(LogicalNode node);
+
+    R visitComparison(ComparisonNode node);
+
+    R visitRange(RangeNode node);
+
+    R visitIn(InNode node);
+
+    R visitExists(ExistsNode node);
+
+    R visitType(TypeNode node);
+
+    R visitSize(SizeNode node);
+
+    R visitMod(ModNode node);
+
+    R visitLike(LikeNode node);
+
+    R visitMatches(MatchesNode node);
+
+    R visitNot(NotNode node);
+}
@@ -0,0 +1,73 @@
+package io.github.pwszpl.mongo.search.ast;
+
+import io.github.pwszpl.mongo.search.transform.FunctionsMapping;
+
+import java.util.Objects;
+
+/**
+ * Lower and upper bound of single field checked in one condition (e.g. {price: {$gt: 10, $lt: 50}}).
+ * Created by QueryOptimizer from conjunction of comparisons, which is why AND is reported as its operator.
+ */
+public final class RangeNode implements QueryNode {
+    private final String field;
+    private final FunctionsMapping lowerOperator;
+    private final Object lowerBound;
+    private final FunctionsMapping upperOperator;
+    private final Object upperBound;
+
+    /**
+     * @param lowerOperator GT or GE
+     * @param upperOperator LT or LE
+     */
+    public RangeNode(String field, FunctionsMapping lowerOperator, Object lowerBound, FunctionsMapping upperOperator, Object upperBound){
+        this.field = field;
+        this.lowerOperator = lowerOperator;
+        this.lowerBound = lowerBound;
+        this.upperOperator = upperOperator;
+        this.upperBound = upperBound;
+    }
+
+    @Override
+    public FunctionsMapping getOperator() {
+        return FunctionsMapping.AND;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public FunctionsMapping getLowerOperator() {
+        return lowerOperator;
+    }
+
+    public Object getLowerBound() {
+        return lowerBound;
+    }
+
+    public FunctionsMapping getUpperOperator() {
+        return upperOperator;
+    }
+
+    public Object getUpperBound() {
+        return upperBound;
+    }
+
+    @Override
+    public <R> R accept(QueryVisitor<R> visitor) {
+        return visitor.visitRange(this);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RangeNode)) return false;
+        RangeNode that = (RangeNode) o;
+        return field.equals(that.field) && lowerOperator == that.lowerOperator && Objects.equals(lowerBound, that.lowerBound)
+                && upperOperator == that.upperOperator && Objects.equals(upperBound, that.upperBound);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(field, lowerOperator, lowerBound, upperOperator, upperBound);
+    }
+}
@@ -0,0 +1,49 @@
+package io.github.pwszpl.mongo.search.ast;
+
+import io.github.pwszpl.mongo.search.transform.FunctionsMapping;
+
+import java.util.Objects;
+
+/**
+ * Check of array field size (size(field) = 3).
+ */
+public final class SizeNode implements QueryNode {
+    private final String field;
+    private final int size;
+
+    public SizeNode(String field, int size){
+        this.field = field;
+        this.size = size;
+    }
+
+    @Override
+    public FunctionsMapping getOperator() {
+        return FunctionsMapping.SIZE;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public <R> R accept(QueryVisitor<R> visitor) {
+        return visitor.visitSize(this);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SizeNode)) return false;
+        SizeNode that = (SizeNode) o;
+        return field.equals(that.field) && size == that.size;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getOperator(), field, size);
+    }
+}
@@ -0,0 +1,42 @@
+package io.github.pwszpl.mongo.search.ast;
+
+import java.util.Objects;
+
+/**
+ * Field of ORDER BY clause with its direction.
+ */
+public final class SortField {
+    private final String field;
+    private final boolean ascending;
+
+    public SortField(String field, boolean ascending){
+        this.field = field;
+        this.ascending = ascending;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SortField)) return false;
+        SortField that = (SortField) o;
+        return field.equals(that.field) && ascending == that.ascending;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(field, ascending);
+    }
+
+    @Override
+    public String toString() {
+        return field + (ascending ? " ASC" : " DESC");
+    }
+}
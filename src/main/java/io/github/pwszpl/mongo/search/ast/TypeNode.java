@@ -0,0 +1,49 @@
+package io.github.pwszpl.mongo.search.ast;
+
+import io.github.pwszpl.mongo.search.transform.FunctionsMapping;
+
+import java.util.Objects;
+
+/**
+ * Check of field BSON type (type(field) = 'string').
+ */
+public final class TypeNode implements QueryNode {
+    private final String field;
+    private final String type;
+
+    public TypeNode(String field, String type){
+        this.field = field;
+        this.type = type;
+    }
+
+    @Override
+    public FunctionsMapping getOperator() {
+        return FunctionsMapping.TYPE;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    @Override
+    public <R> R accept(QueryVisitor<R> visitor) {
+        return visitor.visitType(this);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TypeNode)) return false;
+        TypeNode that = (TypeNode) o;
+        return field.equals(that.field) && Objects.equals(type, that.type);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getOperator(), field, type);
+    }
+}
@@ -0,0 +1,116 @@
+package io.github.pwszpl.mongo.search.batch;
+
+import io.github.pwszpl.mongo.parser.MongoSearchEngineParser;
+import io.github.pwszpl.mongo.parser.ParseException;
+import io.github.pwszpl.mongo.parser.TokenMgrError;
+import io.github.pwszpl.mongo.search.ast.LikeMode;
+import io.github.pwszpl.mongo.search.limits.QueryLimits;
+import io.github.pwszpl.mongo.search.transform.QueryTransformer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Translates many queries in parallel, either in common fork-join pool or with supplied executor.
+ * Each worker thread reuses its own parser instance. Queries which can't be translated (including null queries and
+ * queries nested too deep for thread stack) don't abort the batch, their errors are returned in results.
+ * Instances are thread safe, transformer is shared by all workers (transformers of this library are immutable).
+ */
+public class BatchTranslator<R> {
+    private static final ThreadLocal<MongoSearchEngineParser> parsers = ThreadLocal.withInitial(() -> new MongoSearchEngineParser(""));
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final QueryTransformer<R> transformer;
+    private final LikeMode likeMode;
+    private final QueryLimits limits;
+    private final ExecutorService executor;
+
+    /**
+     * Creates translator running in common fork-join pool.
+     */
+    public BatchTranslator(QueryTransformer<R> transformer){
+        this(transformer, null);
+    }
+
+    /**
+     * @param executor executor running translation, batch is split into chunks of similar size
+     */
+    public BatchTranslator(QueryTransformer<R> transformer, ExecutorService executor){
+        this(transformer, LikeMode.REGEX, QueryLimits.NONE, executor);
+    }
+
+    /**
+     * @param limits complexity limits of each query, e.g. nesting depth limit protecting workers from deeply nested queries
+     * @param executor executor running translation, null for common fork-join pool
+     */
+    public BatchTranslator(QueryTransformer<R> transformer, LikeMode likeMode, QueryLimits limits, ExecutorService executor){
+        this.transformer = transformer;
+        this.likeMode = likeMode;
+        this.limits = limits;
+        this.executor = executor;
+    }
+
+    public List<TranslationResult<R>> translate(Stream<String> queries){
+        return translate(queries.collect(Collectors.toList()));
+    }
+
+    /**
+     * @return results in order of queries
+     */
+    @SuppressWarnings("unchecked")
+    public List<TranslationResult<R>> translate(Collection<String> queries){
+        List<String> list = queries instanceof List ? (List<String>) queries : new ArrayList<>(queries);
+        TranslationResult<R>[] results = new TranslationResult[list.size()];
+        if(executor == null){
+            IntStream.range(0, list.size()).parallel().forEach(i -> results[i] = translate(i, list.get(i)));
+        } else {
+            translateInExecutor(list, results);
+        }
+        return Arrays.asList(results);
+    }
+
+    private void translateInExecutor(List<String> queries, TranslationResult<R>[] results){
+        int chunks = Math.min(queries.size(), Runtime.getRuntime().availableProcessors() * CHUNKS_PER_THREAD);
+        List<Future<?>> futures = new ArrayList<>(chunks);
+        for(int chunk=0;chunk<chunks;chunk++){
+            int from = (int) ((long) chunk * queries.size() / chunks);
+            int to = (int) ((long) (chunk + 1) * queries.size() / chunks);
+            futures.add(executor.submit(() -> {
+                for(int i=from;i<to;i++){
+                    results[i] = translate(i, queries.get(i));
+                }
+            }));
+        }
+        try {
+            for(Future<?> future : futures){
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private TranslationResult<R> translate(int index, String query){
+        // parser of worker thread is shared by all translators, so it's configured for each query
+        MongoSearchEngineParser parser = parsers.get();
+        try {
+            parser.setLikeMode(likeMode);
+            parser.setQueryLimits(limits);
+            parser.ReInit(query);
+            return TranslationResult.success(index, query, parser.parseTree().accept(transformer));
+        } catch (ParseException | TokenMgrError | RuntimeException | StackOverflowError e) {
+            return TranslationResult.failure(index, query, e);
+        }
+    }
+}
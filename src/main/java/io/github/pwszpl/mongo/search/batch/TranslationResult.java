@@ -0,0 +1,55 @@
+package io.github.pwszpl.mongo.search.batch;
+
+/**
+ * Result of translation of single query in batch - translated object or error thrown by parser or transformer.
+ */
+public class TranslationResult<R> {
+    private final int index;
+    private final String query;
+    private final R result;
+    private final Throwable error;
+
+    private TranslationResult(int index, String query, R result, Throwable error){
+        this.index = index;
+        this.query = query;
+        this.result = result;
+        this.error = error;
+    }
+
+    static <R> TranslationResult<R> success(int index, String query, R result){
+        return new TranslationResult<>(index, query, result, null);
+    }
+
+    static <R> TranslationResult<R> failure(int index, String query, Throwable error){
+        return new TranslationResult<>(index, query, null, error);
+    }
+
+    /**
+     * @return position of query in translated batch
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    /**
+     * @return translated query, null if translation failed
+     */
+    public R getResult() {
+        return result;
+    }
+
+    /**
+     * @return ParseException, TokenMgrError, RuntimeException or StackOverflowError thrown during translation, null if translation succeeded
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    public boolean isSuccessful() {
+        return error == null;
+    }
+}
@@ -0,0 +1,69 @@
+package io.github.pwszpl.mongo.search.cache;
+
+/**
+ * Snapshot of translation cache counters.
+ */
+public final class CacheStatistics {
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long bypasses;
+    private final int size;
+
+    CacheStatistics(long hits, long misses, long evictions, long bypasses, int size){
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.bypasses = bypasses;
+        this.size = size;
+    }
+
+    /**
+     * @return number of queries translated with cached shape
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return number of queries whose shape was parsed
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return number of shapes removed from full cache
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return number of queries parsed directly, as they contain Spring Data mapping tokens
+     */
+    public long getBypasses() {
+        return bypasses;
+    }
+
+    /**
+     * @return number of cached shapes
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return hits divided by hits and misses, 0 when cache wasn't used
+     */
+    public double getHitRatio() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CacheStatistics{hits=%d, misses=%d, evictions=%d, bypasses=%d, size=%d}",
+                hits, misses, evictions, bypasses, size);
+    }
+}
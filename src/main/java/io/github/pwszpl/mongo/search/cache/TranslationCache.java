@@ -0,0 +1,187 @@
+package io.github.pwszpl.mongo.search.cache;
+
+import io.github.pwszpl.mongo.parser.MongoSearchEngineParser;
+import io.github.pwszpl.mongo.parser.MongoSearchEngineParserTokenManager;
+import io.github.pwszpl.mongo.parser.ParseException;
+import io.github.pwszpl.mongo.parser.Token;
+import io.github.pwszpl.mongo.parser.TokenMgrError;
+import io.github.pwszpl.mongo.search.ast.LikeMode;
+import io.github.pwszpl.mongo.search.ast.QueryNode;
+import io.github.pwszpl.mongo.search.ast.QueryNodeFactory;
+import io.github.pwszpl.mongo.search.transform.QueryParameter;
+import io.github.pwszpl.mongo.search.transform.QueryTransformer;
+import io.github.pwszpl.mongo.search.util.CharSequenceStream;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import static io.github.pwszpl.mongo.parser.MongoSearchEngineParserConstants.*;
+
+/**
+ * Bounded cache of query shapes - queries differing only in literal values, e.g. customerId = 123 and
+ * customerId = 456, share one parsed tree. Query is only lexed, literals compared with fields and literals of
+ * IN/NIN/ALL lists are lifted out as parameters (customerId = ?0) and shape tree is transformed with their values bound.
+ * Literals of functions and LIKE patterns are part of shape. Least recently used shape is evicted when cache is full.
+ * <p>
+ * Translation result and errors are the same as of parse() method. Queries containing Spring Data mapping tokens are
+ * parsed without cache. Cache is thread safe.
+ */
+public class TranslationCache<R> {
+    private final QueryTransformer<R> transformer;
+    private final LikeMode likeMode;
+    private final Map<String, QueryNode> shapes;
+    private final ThreadLocal<ShapeLexer> lexers = ThreadLocal.withInitial(ShapeLexer::new);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder bypasses = new LongAdder();
+
+    public TranslationCache(QueryTransformer<R> transformer, int maxSize){
+        this(transformer, LikeMode.REGEX, maxSize);
+    }
+
+    public TranslationCache(QueryTransformer<R> transformer, LikeMode likeMode, int maxSize){
+        this.transformer = transformer;
+        this.likeMode = likeMode;
+        this.shapes = new LinkedHashMap<String, QueryNode>(16, 0.75f, true){
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, QueryNode> eldest) {
+                if(size() <= maxSize) return false;
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    public R translate(CharSequence query) throws ParseException {
+        Shape shape;
+        try {
+            shape = lexers.get().shape(query);
+        } catch (TokenMgrError e) {
+            // parser reports syntax errors preceding invalid characters first
+            parse(query);
+            throw e;
+        }
+        if(shape == null){
+            bypasses.increment();
+            return parse(query).accept(transformer);
+        }
+        QueryNode tree;
+        synchronized (shapes){
+            tree = shapes.get(shape.key);
+        }
+        if(tree == null){
+            misses.increment();
+            try {
+                tree = parse(shape.key);
+            } catch (ParseException e) {
+                // reported at position of original query
+                parse(query);
+                throw e;
+            }
+            synchronized (shapes){
+                shapes.put(shape.key, tree);
+            }
+        } else {
+            hits.increment();
+        }
+        return tree.accept(transformer.withBinding(QueryParameter.bindingOf(shape.values())));
+    }
+
+    public CacheStatistics getStatistics(){
+        int size;
+        synchronized (shapes){
+            size = shapes.size();
+        }
+        return new CacheStatistics(hits.sum(), misses.sum(), evictions.sum(), bypasses.sum(), size);
+    }
+
+    public void clear(){
+        synchronized (shapes){
+            shapes.clear();
+        }
+    }
+
+    private QueryNode parse(CharSequence query) throws ParseException {
+        MongoSearchEngineParser parser = new MongoSearchEngineParser(query);
+        parser.setLikeMode(likeMode);
+        return parser.parseTree();
+    }
+
+    private static final class Shape {
+        private final String key;
+        private final Token[] literals;
+
+        private Shape(String key, Token[] literals){
+            this.key = key;
+            this.literals = literals;
+        }
+
+        // literals are decoded once shape is known to be valid, so syntax errors are reported before invalid values
+        private Object[] values(){
+            Object[] values = new Object[literals.length];
+            for(int i=0;i<literals.length;i++) values[i] = QueryNodeFactory.getValue(literals[i]);
+            return values;
+        }
+    }
+
+    /**
+     * Lexer of shapes reused by each thread.
+     */
+    private static final class ShapeLexer {
+        private final CharSequenceStream stream = new CharSequenceStream();
+        private final MongoSearchEngineParserTokenManager tokens = new MongoSearchEngineParserTokenManager(stream);
+        private final StringBuilder key = new StringBuilder();
+        private final List<Token> literals = new ArrayList<>();
+
+        /**
+         * @return shape of query, null when query contains Spring Data mapping token
+         */
+        private Shape shape(CharSequence query){
+            stream.reset(query);
+            tokens.ReInit(stream);
+            key.setLength(0);
+            literals.clear();
+            int previous = EOF;
+            int beforePrevious = EOF;
+            // literal list of IN/NIN/ALL or conditions of MATCHES are read
+            boolean inList = false;
+            boolean inMatches = false;
+            for(Token token = tokens.getNextToken(); token.kind != EOF; token = tokens.getNextToken()){
+                if(token.kind == SPRING_TOKEN) return null;
+                if(key.length() > 0) key.append(' ');
+                if(isLifted(token.kind, previous, beforePrevious, inList, inMatches)){
+                    key.append('?').append(literals.size());
+                    literals.add(token);
+                } else {
+                    key.append(token.image);
+                }
+                if(token.kind == L_PAR){
+                    inList = previous == IN || previous == NIN || previous == ALL;
+                    inMatches = previous == MATCHES;
+                } else if(token.kind == R_PAR){
+                    inList = false;
+                    inMatches = false;
+                }
+                beforePrevious = previous;
+                previous = token.kind;
+            }
+            return new Shape(key.toString(), literals.toArray(new Token[0]));
+        }
+
+        // only literals at positions accepting Spring Data mapping token are lifted
+        private static boolean isLifted(int kind, int previous, int beforePrevious, boolean inList, boolean inMatches){
+            boolean scalar = kind == INT_NUMBER || kind == R_NUMBER || kind == STRING_LITERAL;
+            if(inList) return scalar;
+            if(beforePrevious != OBJ_FIELD || !isComparison(previous)) return false;
+            return scalar || (!inMatches && (kind == DATE || kind == TIMESTAMP));
+        }
+
+        private static boolean isComparison(int kind){
+            return kind == EQ || kind == NE || kind == GT || kind == LT || kind == LE || kind == GE;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package io.github.pwszpl.mongo.search.index;
+
+import org.bson.conversions.Bson;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Indexes which can be used by filter, according to declared index metadata. For filter with OR at root
+ * each branch has its own advice, as MongoDB plans OR branches separately.
+ */
+public final class IndexAdvice {
+    private final List<IndexCandidate> candidates;
+    private final List<IndexAdvice> branches;
+    private final IndexCandidate hint;
+
+    IndexAdvice(List<IndexCandidate> candidates, List<IndexAdvice> branches, IndexCandidate hint){
+        this.candidates = Collections.unmodifiableList(candidates);
+        this.branches = Collections.unmodifiableList(branches);
+        this.hint = hint;
+    }
+
+    /**
+     * @return usable indexes ordered from the best one, empty for filter with OR at root
+     */
+    public List<IndexCandidate> getCandidates() {
+        return candidates;
+    }
+
+    /**
+     * @return advices of OR branches, empty if filter doesn't have OR at root
+     */
+    public List<IndexAdvice> getBranches() {
+        return branches;
+    }
+
+    /**
+     * @return index which clearly serves filter - the only best candidate, which bounds all equality fields,
+     * provides requested sort and bounds range field; null if there's no such index
+     */
+    public IndexDefinition getHintIndex() {
+        return hint == null ? null : hint.getIndex();
+    }
+
+    /**
+     * @return key document of hinted index to be passed to find(filter).hint(...), null if there's no clear choice
+     */
+    public Bson getHint() {
+        return hint == null ? null : hint.getIndex().getKeysDocument();
+    }
+
+    /**
+     * @return true if filter can run only as collection scan (or scan of whole index) - no index has bounds
+     * for it, or for any of its OR branches
+     */
+    public boolean isCollectionScan() {
+        if(!branches.isEmpty()){
+            for(IndexAdvice branch : branches){
+                if(branch.isCollectionScan()) return true;
+            }
+            return false;
+        }
+        for(IndexCandidate candidate : candidates){
+            if(candidate.isBounded()) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "IndexAdvice{" +
+                "candidates=" + candidates +
+                ", branches=" + branches +
+                ", hint=" + getHintIndex() +
+                '}';
+    }
+}
@@ -0,0 +1,96 @@
+package io.github.pwszpl.mongo.search.index;
+
+import java.util.Comparator;
+
+/**
+ * Index which can be used by query, with description how well it serves equality, sort and range conditions.
+ */
+public final class IndexCandidate {
+    /**
+     * Orders candidates from the best one by ESR rule - number of equality keys, sort provided by index,
+     * range bounds, number of filtered fields and finally smaller index.
+     */
+    static final Comparator<IndexCandidate> BEST_FIRST = Comparator.comparingInt(IndexCandidate::getEqualityKeys)
+            .thenComparing(IndexCandidate::isSortProvided)
+            .thenComparing(IndexCandidate::isRangeBounded)
+            .thenComparingInt(IndexCandidate::getFilteredFields)
+            .thenComparingInt(candidate -> -candidate.getIndex().getKeys().size())
+            .reversed();
+
+    private final IndexDefinition index;
+    private final int equalityKeys;
+    private final boolean rangeBounded;
+    private final boolean sortProvided;
+    private final int filteredFields;
+    private final boolean servesShape;
+    private final boolean bounded;
+
+    IndexCandidate(IndexDefinition index, int equalityKeys, boolean rangeBounded, boolean sortProvided, int filteredFields,
+                   boolean servesShape, boolean bounded){
+        this.index = index;
+        this.equalityKeys = equalityKeys;
+        this.rangeBounded = rangeBounded;
+        this.sortProvided = sortProvided;
+        this.filteredFields = filteredFields;
+        this.servesShape = servesShape;
+        this.bounded = bounded;
+    }
+
+    public IndexDefinition getIndex() {
+        return index;
+    }
+
+    /**
+     * @return number of leading index keys bounded by equality (or IN list)
+     */
+    public int getEqualityKeys() {
+        return equalityKeys;
+    }
+
+    /**
+     * @return true if key following equality keys (and keys of requested sort) is bounded by range
+     */
+    public boolean isRangeBounded() {
+        return rangeBounded;
+    }
+
+    /**
+     * @return true if requested sort is provided by index order, so documents don't have to be sorted in memory
+     */
+    public boolean isSortProvided() {
+        return sortProvided;
+    }
+
+    /**
+     * @return number of query fields being index keys, their conditions can be checked without fetching documents
+     */
+    public int getFilteredFields() {
+        return filteredFields;
+    }
+
+    /**
+     * @return true if index bounds all equality fields of query, provides requested sort and bounds range field
+     */
+    public boolean isServingShape() {
+        return servesShape;
+    }
+
+    /**
+     * @return true if first key of index is bounded, false if whole index has to be scanned (e.g. index is used only for sort)
+     */
+    public boolean isBounded() {
+        return bounded;
+    }
+
+    @Override
+    public String toString() {
+        return "IndexCandidate{" +
+                "index=" + index +
+                ", equalityKeys=" + equalityKeys +
+                ", rangeBounded=" + rangeBounded +
+                ", sortProvided=" + sortProvided +
+                ", filteredFields=" + filteredFields +
+                ", servesShape=" + servesShape +
+                '}';
+    }
+}
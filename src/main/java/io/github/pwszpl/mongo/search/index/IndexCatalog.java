@@ -0,0 +1,174 @@
+package io.github.pwszpl.mongo.search.index;
+
+import com.mongodb.client.model.Collation;
+import com.mongodb.client.model.Indexes;
+import io.github.pwszpl.mongo.search.ast.ExistsNode;
+import io.github.pwszpl.mongo.search.ast.LogicalNode;
+import io.github.pwszpl.mongo.search.ast.QueryNode;
+import io.github.pwszpl.mongo.search.index.IndexDefinition.IndexKey;
+import io.github.pwszpl.mongo.search.index.QueryShape.Bounds;
+import io.github.pwszpl.mongo.search.transform.FunctionsMapping;
+import org.bson.BsonDocument;
+import org.bson.conversions.Bson;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Index metadata of collections, declared locally (no server connection is needed). Catalog tells which declared
+ * indexes can be used by parsed filter, chooses hint when one index clearly serves equality/sort/range shape
+ * of filter and flags filters which can run only as collection scans.
+ * Every collection has implicit _id index. Catalog is thread-safe.
+ */
+public class IndexCatalog {
+    private static final IndexDefinition ID_INDEX = new IndexDefinition("_id_", Indexes.ascending("_id"));
+
+    private final Map<String, List<IndexDefinition>> indexes = new ConcurrentHashMap<>();
+
+    public IndexCatalog register(String collection, IndexDefinition... definitions){
+        List<IndexDefinition> list = indexes.computeIfAbsent(collection, name -> new CopyOnWriteArrayList<>(Collections.singletonList(ID_INDEX)));
+        Collections.addAll(list, definitions);
+        return this;
+    }
+
+    public List<IndexDefinition> getIndexes(String collection){
+        List<IndexDefinition> list = indexes.get(collection);
+        return list == null ? Collections.singletonList(ID_INDEX) : Collections.unmodifiableList(list);
+    }
+
+    public IndexAdvice advise(String collection, QueryNode filter){
+        return advise(collection, filter, null, null);
+    }
+
+    /**
+     * @param sort requested sort (e.g. Sorts.descending("date")), null if documents are not sorted
+     * @param collation collation of query, null for simple collation
+     */
+    public IndexAdvice advise(String collection, QueryNode filter, Bson sort, Collation collation){
+        Map<String, Integer> sortFields = toSortFields(sort);
+        if(filter.getOperator() == FunctionsMapping.OR && filter instanceof LogicalNode){
+            List<IndexAdvice> branches = new ArrayList<>();
+            for(QueryNode branch : ((LogicalNode) filter).getChildren()){
+                branches.add(adviseConjunction(collection, conjunctsOf(branch), Collections.emptyMap(), collation));
+            }
+            return new IndexAdvice(Collections.emptyList(), branches, null);
+        }
+        return adviseConjunction(collection, conjunctsOf(filter), sortFields, collation);
+    }
+
+    private IndexAdvice adviseConjunction(String collection, List<QueryNode> conjuncts, Map<String, Integer> sort, Collation collation){
+        QueryShape shape = new QueryShape(conjuncts);
+        List<IndexCandidate> candidates = new ArrayList<>();
+        for(IndexDefinition index : getIndexes(collection)){
+            if(!isPartialFilterImplied(index, shape)) continue;
+            IndexCandidate candidate = evaluate(index, shape, sort, collation);
+            if(candidate.isBounded() || candidate.isSortProvided()) candidates.add(candidate);
+        }
+        candidates.sort(IndexCandidate.BEST_FIRST);
+        IndexCandidate hint = null;
+        if(!candidates.isEmpty() && candidates.get(0).isServingShape()
+                && (candidates.size() == 1 || IndexCandidate.BEST_FIRST.compare(candidates.get(0), candidates.get(1)) != 0)){
+            hint = candidates.get(0);
+        }
+        return new IndexAdvice(candidates, Collections.emptyList(), hint);
+    }
+
+    private static IndexCandidate evaluate(IndexDefinition index, QueryShape shape, Map<String, Integer> sort, Collation collation){
+        boolean sameCollation = Objects.equals(collationOf(index.getCollation()), collationOf(collation));
+        // leading keys bounded by equality
+        int equalityKeys = 0;
+        for(IndexKey key : index.getKeys()){
+            Bounds bounds = boundsOf(key, shape, sameCollation);
+            if(bounds != Bounds.POINT && bounds != Bounds.MULTI_POINT) break;
+            equalityKeys++;
+        }
+        // range key following equality and sort keys (ESR order) is bounded too
+        boolean rangeBounded = false;
+        for(IndexKey key : index.getKeys().subList(equalityKeys, index.getKeys().size())){
+            Bounds bounds = boundsOf(key, shape, sameCollation);
+            if(bounds == Bounds.RANGE){
+                rangeBounded = true;
+                break;
+            }
+            if(bounds != Bounds.POINT && !sort.containsKey(key.getField())) break;
+        }
+        // sort: keys bounded by single value may be skipped, remaining keys have to match sort in the same or reversed direction
+        boolean sortProvided = false;
+        if(!sort.isEmpty() && sameCollation){
+            List<Map.Entry<String, Integer>> sortFields = new ArrayList<>(sort.entrySet());
+            int next = 0;
+            int direction = 0;
+            for(IndexKey key : index.getKeys()){
+                if(next == sortFields.size()) break;
+                if(boundsOf(key, shape, true) == Bounds.POINT) continue;
+                Map.Entry<String, Integer> sortField = sortFields.get(next);
+                if(key.isHashed() || !key.getField().equals(sortField.getKey())) break;
+                int keyDirection = key.getDirection() * sortField.getValue();
+                if(direction != 0 && direction != keyDirection) break;
+                direction = keyDirection;
+                next++;
+            }
+            while(next < sortFields.size() && shape.boundsOf(sortFields.get(next).getKey()) == Bounds.POINT) next++;
+            sortProvided = next == sortFields.size();
+        }
+        int filteredFields = 0;
+        for(IndexKey key : index.getKeys()){
+            if(shape.getBounds().containsKey(key.getField())) filteredFields++;
+        }
+        boolean servesShape = equalityKeys == shape.count(Bounds.POINT) + shape.count(Bounds.MULTI_POINT)
+                && (sort.isEmpty() || sortProvided)
+                && (shape.count(Bounds.RANGE) == 0 || rangeBounded);
+        boolean bounded = equalityKeys > 0 || boundsOf(index.getKeys().get(0), shape, sameCollation) == Bounds.RANGE;
+        return new IndexCandidate(index, equalityKeys, rangeBounded, sortProvided, filteredFields, servesShape, bounded);
+    }
+
+    private static Bounds boundsOf(IndexKey key, QueryShape shape, boolean sameCollation){
+        Bounds bounds = shape.boundsOf(key.getField());
+        // string bounds depend on collation, hashed keys support only equality
+        if(!sameCollation && shape.isStringField(key.getField())) return Bounds.NONE;
+        if(key.isHashed() && bounds != Bounds.POINT) return Bounds.NONE;
+        return bounds;
+    }
+
+    /**
+     * Partial index can be used only if filter implies its partial filter - each condition of partial filter has to be
+     * condition of filter, exists(x) = true is implied also by equality or range condition of x.
+     */
+    private static boolean isPartialFilterImplied(IndexDefinition index, QueryShape shape){
+        if(index.getPartialFilter() == null) return true;
+        for(QueryNode condition : conjunctsOf(index.getPartialFilter())){
+            if(shape.getConjuncts().contains(condition)) continue;
+            if(condition instanceof ExistsNode && ((ExistsNode) condition).isExists()
+                    && shape.boundsOf(((ExistsNode) condition).getField()) != Bounds.NONE) continue;
+            return false;
+        }
+        return true;
+    }
+
+    private static List<QueryNode> conjunctsOf(QueryNode node){
+        if(node.getOperator() == FunctionsMapping.AND && node instanceof LogicalNode){
+            return ((LogicalNode) node).getChildren();
+        }
+        return Collections.singletonList(node);
+    }
+
+    private static Map<String, Integer> toSortFields(Bson sort){
+        Map<String, Integer> fields = new LinkedHashMap<>();
+        if(sort == null) return fields;
+        BsonDocument document = sort.toBsonDocument();
+        for(String field : document.keySet()){
+            fields.put(field, document.get(field).asNumber().intValue() < 0 ? -1 : 1);
+        }
+        return fields;
+    }
+
+    private static BsonDocument collationOf(Collation collation){
+        return collation == null || "simple".equals(collation.getLocale()) ? null : collation.asDocument();
+    }
+}
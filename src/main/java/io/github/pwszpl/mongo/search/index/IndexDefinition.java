@@ -0,0 +1,129 @@
+package io.github.pwszpl.mongo.search.index;
+
+import com.mongodb.client.model.Collation;
+import io.github.pwszpl.mongo.search.ast.QueryNode;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Declared index of collection - ordered keys, optional partial filter and collation.
+ * Keys are given as for createIndex, e.g. Indexes.compoundIndex(Indexes.ascending("a"), Indexes.descending("b")).
+ * Instances are immutable.
+ */
+public final class IndexDefinition {
+    private final String name;
+    private final List<IndexKey> keys;
+    private final QueryNode partialFilter;
+    private final Collation collation;
+
+    public IndexDefinition(String name, Bson keys){
+        this(name, toKeys(keys.toBsonDocument()), null, null);
+    }
+
+    private IndexDefinition(String name, List<IndexKey> keys, QueryNode partialFilter, Collation collation){
+        this.name = name;
+        this.keys = keys;
+        this.partialFilter = partialFilter;
+        this.collation = collation;
+    }
+
+    /**
+     * @return copy of index indexing only documents matching given filter (partialFilterExpression)
+     */
+    public IndexDefinition withPartialFilter(QueryNode partialFilter){
+        return new IndexDefinition(name, keys, partialFilter, collation);
+    }
+
+    /**
+     * @return copy of index with given collation, null means simple (binary) collation
+     */
+    public IndexDefinition withCollation(Collation collation){
+        return new IndexDefinition(name, keys, partialFilter, collation);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<IndexKey> getKeys() {
+        return keys;
+    }
+
+    /**
+     * @return partial filter of index or null if index holds all documents
+     */
+    public QueryNode getPartialFilter() {
+        return partialFilter;
+    }
+
+    /**
+     * @return collation of index or null for simple collation
+     */
+    public Collation getCollation() {
+        return collation;
+    }
+
+    /**
+     * @return key document, which can be passed as hint of find operation
+     */
+    public Document getKeysDocument(){
+        Document document = new Document();
+        for(IndexKey key : keys){
+            document.append(key.getField(), key.isHashed() ? "hashed" : key.getDirection());
+        }
+        return document;
+    }
+
+    private static List<IndexKey> toKeys(BsonDocument document){
+        List<IndexKey> keys = new ArrayList<>(document.size());
+        for(String field : document.keySet()){
+            BsonValue value = document.get(field);
+            if(value.isNumber()){
+                keys.add(new IndexKey(field, value.asNumber().intValue() < 0 ? -1 : 1, false));
+            } else if(value.isString() && "hashed".equals(value.asString().getValue())){
+                keys.add(new IndexKey(field, 1, true));
+            } else {
+                throw new RuntimeException(String.format("Index key '%s' of type %s is not supported.", field, value));
+            }
+        }
+        return Collections.unmodifiableList(keys);
+    }
+
+    @Override
+    public String toString() {
+        return name + " " + getKeysDocument().toJson();
+    }
+
+    /**
+     * Single key of index - field path and direction (1 or -1), hashed keys support only equality.
+     */
+    public static final class IndexKey {
+        private final String field;
+        private final int direction;
+        private final boolean hashed;
+
+        private IndexKey(String field, int direction, boolean hashed){
+            this.field = field;
+            this.direction = direction;
+            this.hashed = hashed;
+        }
+
+        public String getField() {
+            return field;
+        }
+
+        public int getDirection() {
+            return direction;
+        }
+
+        public boolean isHashed() {
+            return hashed;
+        }
+    }
+}
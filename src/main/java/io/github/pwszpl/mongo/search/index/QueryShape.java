@@ -0,0 +1,205 @@
+package io.github.pwszpl.mongo.search.index;
+
+import io.github.pwszpl.mongo.search.ast.ComparisonNode;
+import io.github.pwszpl.mongo.search.ast.ExistsNode;
+import io.github.pwszpl.mongo.search.ast.InNode;
+import io.github.pwszpl.mongo.search.ast.LikeNode;
+import io.github.pwszpl.mongo.search.ast.LogicalNode;
+import io.github.pwszpl.mongo.search.ast.MatchesNode;
+import io.github.pwszpl.mongo.search.ast.ModNode;
+import io.github.pwszpl.mongo.search.ast.NotNode;
+import io.github.pwszpl.mongo.search.ast.QueryNode;
+import io.github.pwszpl.mongo.search.ast.QueryVisitor;
+import io.github.pwszpl.mongo.search.ast.RangeNode;
+import io.github.pwszpl.mongo.search.ast.SizeNode;
+import io.github.pwszpl.mongo.search.ast.TypeNode;
+import io.github.pwszpl.mongo.search.transform.FunctionsMapping;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index bounds each field of conjunction (AND of conditions) can have - point (equality), range or none
+ * (condition has to be checked on documents or index keys, e.g. $ne, $type, unanchored regex).
+ */
+class QueryShape {
+    enum Bounds {
+        NONE, RANGE, MULTI_POINT, POINT
+    }
+
+    private final List<QueryNode> conjuncts;
+    private final Map<String, Bounds> bounds = new LinkedHashMap<>();
+    // fields compared with strings or regular expressions, their bounds depend on collation
+    private final Set<String> stringFields = new HashSet<>();
+
+    QueryShape(List<QueryNode> conjuncts){
+        this.conjuncts = conjuncts;
+        BoundsVisitor visitor = new BoundsVisitor();
+        for(QueryNode conjunct : conjuncts){
+            conjunct.accept(visitor);
+        }
+    }
+
+    List<QueryNode> getConjuncts() {
+        return conjuncts;
+    }
+
+    Map<String, Bounds> getBounds() {
+        return bounds;
+    }
+
+    Bounds boundsOf(String field){
+        Bounds result = bounds.get(field);
+        return result == null ? Bounds.NONE : result;
+    }
+
+    boolean isStringField(String field){
+        return stringFields.contains(field);
+    }
+
+    int count(Bounds kind){
+        int count = 0;
+        for(Bounds value : bounds.values()){
+            if(value == kind) count++;
+        }
+        return count;
+    }
+
+    private void add(String field, Bounds kind, Object value){
+        Bounds current = bounds.get(field);
+        if(current == null || current.compareTo(kind) < 0) bounds.put(field, kind);
+        if(!(value instanceof Number) && !(value instanceof Boolean) && !(value instanceof Date)) stringFields.add(field);
+    }
+
+    /**
+     * @return true if regular expression starts with ^ followed by literal character, so it has prefix bounds
+     */
+    static boolean isAnchoredPrefix(Object pattern){
+        if(!(pattern instanceof String)) return false;
+        String regex = (String) pattern;
+        return regex.length() > 1 && regex.charAt(0) == '^' && "\\.[]{}()*+?^$|".indexOf(regex.charAt(1)) < 0;
+    }
+
+    private class BoundsVisitor implements QueryVisitor<Void> {
+        private String prefix = "";
+
+        @Override
+        public Void visitLogical(LogicalNode node) {
+            // nested OR/NOR and AND inside elemMatch are not used for bounds
+            if(node.getOperator() == FunctionsMapping.AND){
+                for(QueryNode child : node.getChildren()) child.accept(this);
+            } else {
+                for(QueryNode child : node.getChildren()) none(child);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visitComparison(ComparisonNode node) {
+            switch (node.getOperator()){
+                case EQ: add(prefix + node.getField(), Bounds.POINT, node.getValue()); break;
+                case NE: add(prefix + node.getField(), Bounds.NONE, node.getValue()); break;
+                default: add(prefix + node.getField(), Bounds.RANGE, node.getValue());
+            }
+            return null;
+        }
+
+        @Override
+        public Void visitRange(RangeNode node) {
+            add(prefix + node.getField(), Bounds.RANGE, node.getLowerBound());
+            return null;
+        }
+
+        @Override
+        public Void visitIn(InNode node) {
+            String field = prefix + node.getField();
+            List<Object> values = node.getValues();
+            Object value = values.isEmpty() ? null : values.get(0);
+            if(node.getOperator() == FunctionsMapping.NIN || values.isEmpty()){
+                add(field, Bounds.NONE, value);
+            } else if(node.getOperator() == FunctionsMapping.ALL || values.size() == 1){
+                // $all is bounded by its first value
+                add(field, Bounds.POINT, value);
+            } else {
+                add(field, Bounds.MULTI_POINT, value);
+            }
+            for(Object element : values){
+                if(element instanceof String) stringFields.add(field);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visitExists(ExistsNode node) {
+            add(prefix + node.getField(), Bounds.NONE, Boolean.TRUE);
+            return null;
+        }
+
+        @Override
+        public Void visitType(TypeNode node) {
+            add(prefix + node.getField(), Bounds.NONE, Boolean.TRUE);
+            return null;
+        }
+
+        @Override
+        public Void visitSize(SizeNode node) {
+            add(prefix + node.getField(), Bounds.NONE, Boolean.TRUE);
+            return null;
+        }
+
+        @Override
+        public Void visitMod(ModNode node) {
+            add(prefix + node.getField(), Bounds.NONE, Boolean.TRUE);
+            return null;
+        }
+
+        @Override
+        public Void visitLike(LikeNode node) {
+            add(prefix + node.getField(), isAnchoredPrefix(node.getPattern()) ? Bounds.RANGE : Bounds.NONE, node.getPattern());
+            return null;
+        }
+
+        @Override
+        public Void visitMatches(MatchesNode node) {
+            // conditions of $elemMatch bound index keys of subfields
+            String parent = prefix;
+            prefix = parent + node.getField() + ".";
+            for(QueryNode condition : node.getConditions()) condition.accept(this);
+            prefix = parent;
+            return null;
+        }
+
+        @Override
+        public Void visitNot(NotNode node) {
+            none(node.getChild());
+            return null;
+        }
+
+        private void none(QueryNode node){
+            for(String field : fieldsOf(node)){
+                add(prefix + field, Bounds.NONE, Boolean.TRUE);
+            }
+        }
+    }
+
+    /**
+     * @return fields used by conditions of node
+     */
+    static Set<String> fieldsOf(QueryNode node){
+        QueryShape shape = new QueryShape(Collections.singletonList(flattenToAnd(node)));
+        return shape.bounds.keySet();
+    }
+
+    private static QueryNode flattenToAnd(QueryNode node){
+        if(node instanceof NotNode) return flattenToAnd(((NotNode) node).getChild());
+        if(node instanceof LogicalNode && node.getOperator() != FunctionsMapping.AND){
+            return new LogicalNode(FunctionsMapping.AND, ((LogicalNode) node).getChildren());
+        }
+        return node;
+    }
+}
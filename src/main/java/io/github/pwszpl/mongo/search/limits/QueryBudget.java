@@ -0,0 +1,98 @@
+package io.github.pwszpl.mongo.search.limits;
+
+import io.github.pwszpl.mongo.parser.MongoSearchEngineParserConstants;
+import io.github.pwszpl.mongo.parser.Token;
+import io.github.pwszpl.mongo.search.ast.LikeMode;
+import io.github.pwszpl.mongo.search.limits.QueryLimitExceededException.Limit;
+
+/**
+ * Budget of single parsed query, spent by parser productions as tokens are consumed.
+ */
+public class QueryBudget {
+    // deadline is checked on every node, but only on every 64th list value, as values are cheap to parse
+    private static final int LIST_DEADLINE_CHECK_MASK = 63;
+
+    private final QueryLimits limits;
+    private final long deadline;
+    private int depth;
+    private int nodes;
+
+    public QueryBudget(QueryLimits limits){
+        this.limits = limits;
+        this.deadline = limits.getTimeoutNanos() > 0 ? System.nanoTime() + limits.getTimeoutNanos() : 0;
+    }
+
+    /**
+     * Called on opening parenthesis of group.
+     */
+    public void enterGroup(Token token) throws QueryLimitExceededException {
+        depth++;
+        if(limits.getMaxDepth() > 0 && depth > limits.getMaxDepth()){
+            throw new QueryLimitExceededException(Limit.DEPTH, "Query exceeds nesting depth limit of " + limits.getMaxDepth(), token);
+        }
+    }
+
+    public void exitGroup(){
+        depth--;
+    }
+
+    /**
+     * Called when node of query tree is created.
+     */
+    public void addNodes(Token token, int count) throws QueryLimitExceededException {
+        nodes += count;
+        if(limits.getMaxNodes() > 0 && nodes > limits.getMaxNodes()){
+            throw new QueryLimitExceededException(Limit.NODES, "Query exceeds node count limit of " + limits.getMaxNodes(), token);
+        }
+        checkDeadline(token);
+    }
+
+    /**
+     * Called when value is added to IN/NIN/ALL list.
+     * @param size size of list including this value
+     */
+    public void addListValue(Token value, int size) throws QueryLimitExceededException {
+        if(limits.getMaxListSize() > 0 && size > limits.getMaxListSize()){
+            throw new QueryLimitExceededException(Limit.LIST_SIZE, "List exceeds size limit of " + limits.getMaxListSize(), value);
+        }
+        checkLiteral(value);
+        if((size & LIST_DEADLINE_CHECK_MASK) == 0) checkDeadline(value);
+    }
+
+    public void checkLiteral(Token value) throws QueryLimitExceededException {
+        if(limits.getMaxLiteralLength() > 0 && value.image.length() > limits.getMaxLiteralLength()){
+            throw new QueryLimitExceededException(Limit.LITERAL_LENGTH, "Literal exceeds length limit of " + limits.getMaxLiteralLength(), value);
+        }
+    }
+
+    public void checkLikePattern(Token value, LikeMode mode) throws QueryLimitExceededException {
+        checkLiteral(value);
+        if(value.kind != MongoSearchEngineParserConstants.STRING_LITERAL) return;
+        // image is quoted
+        String pattern = value.image.substring(1, value.image.length() - 1);
+        boolean sql = mode != LikeMode.REGEX;
+        // SQL pattern starting with wildcard (% or _) has no literal prefix to create index range from
+        if(limits.isAnchoredLikeRequired() && (sql ? pattern.startsWith("%") || pattern.startsWith("_") : !pattern.startsWith("^"))){
+            throw new QueryLimitExceededException(Limit.LIKE_ANCHOR, "LIKE pattern has to be anchored at start of value", value);
+        }
+        if(limits.getMaxLikeWildcards() > 0 && countWildcards(pattern, sql) > limits.getMaxLikeWildcards()){
+            throw new QueryLimitExceededException(Limit.LIKE_WILDCARDS, "LIKE pattern exceeds wildcard limit of " + limits.getMaxLikeWildcards(), value);
+        }
+    }
+
+    private void checkDeadline(Token token) throws QueryLimitExceededException {
+        if(deadline != 0 && System.nanoTime() - deadline > 0){
+            throw new QueryLimitExceededException(Limit.TIMEOUT, "Query exceeds parsing time limit of " + limits.getTimeoutNanos() / 1_000_000 + " ms", token);
+        }
+    }
+
+    private static int countWildcards(String pattern, boolean sql){
+        int count = 0;
+        for(int i=0;i<pattern.length();i++){
+            char c = pattern.charAt(i);
+            if(c == '\\') i++;
+            else if(sql ? c == '%' || c == '_' : c == '*' || c == '+' || c == '?' || c == '{' || c == '.') count++;
+        }
+        return count;
+    }
+}
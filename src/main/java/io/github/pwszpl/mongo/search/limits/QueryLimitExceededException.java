@@ -0,0 +1,39 @@
+package io.github.pwszpl.mongo.search.limits;
+
+import io.github.pwszpl.mongo.parser.ParseException;
+import io.github.pwszpl.mongo.parser.Token;
+
+/**
+ * Thrown when parsed query exceeds one of QueryLimits. It's a ParseException, so it's handled as any invalid query.
+ */
+public class QueryLimitExceededException extends ParseException {
+    private final Limit limit;
+    private final Token token;
+
+    public QueryLimitExceededException(Limit limit, String message, Token token){
+        super(String.format("%s at line %d, column %d.", message, token.beginLine, token.beginColumn));
+        this.limit = limit;
+        this.token = token;
+    }
+
+    public Limit getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return token at which limit was exceeded
+     */
+    public Token getToken() {
+        return token;
+    }
+
+    public enum Limit {
+        DEPTH,
+        NODES,
+        LIST_SIZE,
+        LITERAL_LENGTH,
+        LIKE_WILDCARDS,
+        LIKE_ANCHOR,
+        TIMEOUT
+    }
+}
@@ -0,0 +1,148 @@
+package io.github.pwszpl.mongo.search.limits;
+
+import java.time.Duration;
+
+/**
+ * Complexity budget of single query, checked while query is parsed, so parsing is aborted with
+ * QueryLimitExceededException as soon as any limit is exceeded. Zero or negative limit means no limit.
+ * Instances are immutable and can be shared between parsers.
+ */
+public final class QueryLimits {
+    /**
+     * No limits, default of parser.
+     */
+    public static final QueryLimits NONE = builder().build();
+
+    private final int maxDepth;
+    private final int maxNodes;
+    private final int maxListSize;
+    private final int maxLiteralLength;
+    private final int maxLikeWildcards;
+    private final boolean anchoredLikeRequired;
+    private final long timeoutNanos;
+
+    private QueryLimits(Builder builder){
+        this.maxDepth = builder.maxDepth;
+        this.maxNodes = builder.maxNodes;
+        this.maxListSize = builder.maxListSize;
+        this.maxLiteralLength = builder.maxLiteralLength;
+        this.maxLikeWildcards = builder.maxLikeWildcards;
+        this.anchoredLikeRequired = builder.anchoredLikeRequired;
+        this.timeoutNanos = builder.timeoutNanos;
+    }
+
+    public static Builder builder(){
+        return new Builder();
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public int getMaxNodes() {
+        return maxNodes;
+    }
+
+    public int getMaxListSize() {
+        return maxListSize;
+    }
+
+    public int getMaxLiteralLength() {
+        return maxLiteralLength;
+    }
+
+    public int getMaxLikeWildcards() {
+        return maxLikeWildcards;
+    }
+
+    public boolean isAnchoredLikeRequired() {
+        return anchoredLikeRequired;
+    }
+
+    public long getTimeoutNanos() {
+        return timeoutNanos;
+    }
+
+    /**
+     * @return true if none of limits is set, so parser doesn't have to track budget
+     */
+    public boolean isUnlimited(){
+        return maxDepth <= 0 && maxNodes <= 0 && maxListSize <= 0 && maxLiteralLength <= 0 && maxLikeWildcards <= 0
+                && !anchoredLikeRequired && timeoutNanos <= 0;
+    }
+
+    public static final class Builder {
+        private int maxDepth;
+        private int maxNodes;
+        private int maxListSize;
+        private int maxLiteralLength;
+        private int maxLikeWildcards;
+        private boolean anchoredLikeRequired;
+        private long timeoutNanos;
+
+        private Builder(){
+        }
+
+        /**
+         * @param maxDepth maximal nesting of parenthesised groups
+         */
+        public Builder maxDepth(int maxDepth){
+            this.maxDepth = maxDepth;
+            return this;
+        }
+
+        /**
+         * @param maxNodes maximal number of conditions and logical operators in query
+         */
+        public Builder maxNodes(int maxNodes){
+            this.maxNodes = maxNodes;
+            return this;
+        }
+
+        /**
+         * @param maxListSize maximal number of values in single IN/NIN/ALL list
+         */
+        public Builder maxListSize(int maxListSize){
+            this.maxListSize = maxListSize;
+            return this;
+        }
+
+        /**
+         * @param maxLiteralLength maximal length of literal, including quotes of string literal
+         */
+        public Builder maxLiteralLength(int maxLiteralLength){
+            this.maxLiteralLength = maxLiteralLength;
+            return this;
+        }
+
+        /**
+         * @param maxLikeWildcards maximal number of wildcards in LIKE pattern - %/_ in SQL syntax,
+         * unescaped quantifiers (*, +, ?, {) and dots in regular expression
+         */
+        public Builder maxLikeWildcards(int maxLikeWildcards){
+            this.maxLikeWildcards = maxLikeWildcards;
+            return this;
+        }
+
+        /**
+         * Rejects LIKE patterns not anchored at start of value (regular expression not starting with ^,
+         * SQL pattern starting with % or _), which can't use index bounds.
+         */
+        public Builder anchoredLikeRequired(boolean anchoredLikeRequired){
+            this.anchoredLikeRequired = anchoredLikeRequired;
+            return this;
+        }
+
+        /**
+         * @param timeout maximal wall-clock time of parsing single query
+         */
+        public Builder timeout(Duration timeout){
+            this.timeoutNanos = timeout.toNanos();
+            return this;
+        }
+
+        public QueryLimits build(){
+            return new QueryLimits(this);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package io.github.pwszpl.mongo.search.metrics;
+
+/**
+ * Receives metrics of queries translated by MongoSearchEngineParser.parse(). Methods are called in parsing thread,
+ * so implementations shared by many parsers have to be thread-safe.
+ * Metrics are collected only when listener other than NOOP is set, so there is no overhead by default.
+ */
+public interface TranslationListener {
+    TranslationListener NOOP = new TranslationListener() {};
+
+    /**
+     * Called after query was parsed and transformed.
+     */
+    default void onTranslated(TranslationMetrics metrics){}
+
+    /**
+     * Called when query couldn't be translated - with ParseException, TokenMgrError (unknown token)
+     * or RuntimeException thrown by transformer.
+     */
+    default void onError(Throwable error){}
+}
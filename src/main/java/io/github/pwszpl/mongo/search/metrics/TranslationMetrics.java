@@ -0,0 +1,89 @@
+package io.github.pwszpl.mongo.search.metrics;
+
+import io.github.pwszpl.mongo.search.ast.QueryNode;
+import io.github.pwszpl.mongo.search.transform.FunctionsMapping;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Metrics of single translated query - time of each phase and shape of query tree.
+ * Lexing time is time spent in token manager, parsing time excludes it.
+ */
+public final class TranslationMetrics {
+    private final long lexingNanos;
+    private final long parsingNanos;
+    private final long transformNanos;
+    private final int nodeCount;
+    private final Map<FunctionsMapping, Integer> operatorCounts;
+    private final List<Integer> inListSizes;
+
+    private TranslationMetrics(long lexingNanos, long parsingNanos, long transformNanos, TreeStatistics statistics){
+        this.lexingNanos = lexingNanos;
+        this.parsingNanos = parsingNanos;
+        this.transformNanos = transformNanos;
+        this.nodeCount = statistics.getNodeCount();
+        this.operatorCounts = Collections.unmodifiableMap(new EnumMap<>(statistics.getOperatorCounts()));
+        this.inListSizes = Collections.unmodifiableList(statistics.getInListSizes());
+    }
+
+    /**
+     * Creates metrics of query with given phase times, walking its tree to count nodes and operators.
+     */
+    public static TranslationMetrics collect(QueryNode tree, long lexingNanos, long parsingNanos, long transformNanos){
+        TreeStatistics statistics = new TreeStatistics();
+        tree.accept(statistics);
+        return new TranslationMetrics(lexingNanos, parsingNanos, transformNanos, statistics);
+    }
+
+    public long getLexingNanos() {
+        return lexingNanos;
+    }
+
+    public long getParsingNanos() {
+        return parsingNanos;
+    }
+
+    public long getTransformNanos() {
+        return transformNanos;
+    }
+
+    public long getTotalNanos() {
+        return lexingNanos + parsingNanos + transformNanos;
+    }
+
+    /**
+     * @return number of nodes in query tree, including nested matches conditions
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * @return number of occurrences of each operator in query, range node counts as both its bound operators
+     */
+    public Map<FunctionsMapping, Integer> getOperatorCounts() {
+        return operatorCounts;
+    }
+
+    /**
+     * @return sizes of IN/NIN/ALL lists in order of appearance in query
+     */
+    public List<Integer> getInListSizes() {
+        return inListSizes;
+    }
+
+    @Override
+    public String toString() {
+        return "TranslationMetrics{" +
+                "lexingNanos=" + lexingNanos +
+                ", parsingNanos=" + parsingNanos +
+                ", transformNanos=" + transformNanos +
+                ", nodeCount=" + nodeCount +
+                ", operatorCounts=" + operatorCounts +
+                ", inListSizes=" + inListSizes +
+                '}';
+    }
+}
@@ -0,0 +1,122 @@
+package io.github.pwszpl.mongo.search.metrics;
+
+import io.github.pwszpl.mongo.search.ast.ComparisonNode;
+import io.github.pwszpl.mongo.search.ast.ExistsNode;
+import io.github.pwszpl.mongo.search.ast.InNode;
+import io.github.pwszpl.mongo.search.ast.LikeNode;
+import io.github.pwszpl.mongo.search.ast.LogicalNode;
+import io.github.pwszpl.mongo.search.ast.MatchesNode;
+import io.github.pwszpl.mongo.search.ast.ModNode;
+import io.github.pwszpl.mongo.search.ast.NotNode;
+import io.github.pwszpl.mongo.search.ast.QueryNode;
+import io.github.pwszpl.mongo.search.ast.QueryVisitor;
+import io.github.pwszpl.mongo.search.ast.RangeNode;
+import io.github.pwszpl.mongo.search.ast.SizeNode;
+import io.github.pwszpl.mongo.search.ast.TypeNode;
+import io.github.pwszpl.mongo.search.transform.FunctionsMapping;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts nodes, operators and IN list sizes of query tree.
+ */
+class TreeStatistics implements QueryVisitor<Void> {
+    private final Map<FunctionsMapping, Integer> operatorCounts = new EnumMap<>(FunctionsMapping.class);
+    private final List<Integer> inListSizes = new ArrayList<>();
+    private int nodeCount;
+
+    int getNodeCount() {
+        return nodeCount;
+    }
+
+    Map<FunctionsMapping, Integer> getOperatorCounts() {
+        return operatorCounts;
+    }
+
+    List<Integer> getInListSizes() {
+        return inListSizes;
+    }
+
+    @Override
+    public Void visitLogical(LogicalNode node) {
+        count(node);
+        visitAll(node.getChildren());
+        return null;
+    }
+
+    @Override
+    public Void visitComparison(ComparisonNode node) {
+        return count(node);
+    }
+
+    @Override
+    public Void visitRange(RangeNode node) {
+        nodeCount++;
+        increment(node.getLowerOperator());
+        increment(node.getUpperOperator());
+        return null;
+    }
+
+    @Override
+    public Void visitIn(InNode node) {
+        inListSizes.add(node.getValues().size());
+        return count(node);
+    }
+
+    @Override
+    public Void visitExists(ExistsNode node) {
+        return count(node);
+    }
+
+    @Override
+    public Void visitType(TypeNode node) {
+        return count(node);
+    }
+
+    @Override
+    public Void visitSize(SizeNode node) {
+        return count(node);
+    }
+
+    @Override
+    public Void visitMod(ModNode node) {
+        return count(node);
+    }
+
+    @Override
+    public Void visitLike(LikeNode node) {
+        return count(node);
+    }
+
+    @Override
+    public Void visitMatches(MatchesNode node) {
+        count(node);
+        visitAll(node.getConditions());
+        return null;
+    }
+
+    @Override
+    public Void visitNot(NotNode node) {
+        count(node);
+        return node.getChild().accept(this);
+    }
+
+    private void visitAll(List<QueryNode> nodes){
+        for(QueryNode node : nodes){
+            node.accept(this);
+        }
+    }
+
+    private Void count(QueryNode node){
+        nodeCount++;
+        increment(node.getOperator());
+        return null;
+    }
+
+    private void increment(FunctionsMapping operator){
+        operatorCounts.merge(operator, 1, Integer::sum);
+    }
+}
@@ -0,0 +1,31 @@
+package io.github.pwszpl.mongo.search.optimizer;
+
+import io.github.pwszpl.mongo.search.ast.QueryNode;
+
+/**
+ * Result of QueryOptimizer - optimized query tree and information whether query can match any document.
+ */
+public class OptimizedQuery {
+    private final QueryNode root;
+    private final boolean unsatisfiable;
+
+    public OptimizedQuery(QueryNode root, boolean unsatisfiable){
+        this.root = root;
+        this.unsatisfiable = unsatisfiable;
+    }
+
+    /**
+     * @return optimized query tree, for unsatisfiable query the original tree is returned
+     */
+    public QueryNode getRoot() {
+        return root;
+    }
+
+    /**
+     * @return true if query contains contradiction (e.g. x = 1 and x = 2), so no document can match it
+     * and database call can be skipped
+     */
+    public boolean isUnsatisfiable() {
+        return unsatisfiable;
+    }
+}
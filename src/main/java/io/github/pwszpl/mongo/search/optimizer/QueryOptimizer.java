@@ -0,0 +1,428 @@
+package io.github.pwszpl.mongo.search.optimizer;
+
+import io.github.pwszpl.mongo.search.ast.ComparisonNode;
+import io.github.pwszpl.mongo.search.ast.ExistsNode;
+import io.github.pwszpl.mongo.search.ast.InNode;
+import io.github.pwszpl.mongo.search.ast.LogicalNode;
+import io.github.pwszpl.mongo.search.ast.MatchesNode;
+import io.github.pwszpl.mongo.search.ast.NotNode;
+import io.github.pwszpl.mongo.search.ast.QueryNode;
+import io.github.pwszpl.mongo.search.ast.RangeNode;
+import io.github.pwszpl.mongo.search.transform.FunctionsMapping;
+import io.github.pwszpl.mongo.search.transform.QueryParameter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Optional pass rewriting parsed query tree into equivalent, cheaper one:
+ * <ul>
+ *     <li>bounds of the same field are tightened and merged into single range, e.g. {price: {$gt: 10, $lt: 50}},</li>
+ *     <li>OR of equalities (and IN lists) of the same field is replaced with single IN list,</li>
+ *     <li>duplicated and absorbed clauses (a and (a or b)) are removed, NOT(NOT(x)) is replaced with x,</li>
+ *     <li>contradictions (e.g. x = 1 and x = 2) are reported, so database call can be skipped.</li>
+ * </ul>
+ * Contradictions are detected only for fields holding single value - document with array [1, 2] matches
+ * both x = 1 and x = 2, so array fields (and paths going through arrays) have to be passed to constructor.
+ * Strings are ordered by code points, as with default (simple) collation.
+ * Parameters of prepared queries (?N) are never merged, as their values are unknown.
+ * Instances are immutable and can be shared between threads.
+ */
+public class QueryOptimizer {
+    private final Set<String> arrayFields;
+
+    /**
+     * Creates optimizer treating every field as single valued.
+     */
+    public QueryOptimizer(){
+        this(Collections.emptySet());
+    }
+
+    /**
+     * @param arrayFields paths of fields holding arrays, contradictions are not searched for these fields and their subfields
+     */
+    public QueryOptimizer(Set<String> arrayFields){
+        this.arrayFields = new HashSet<>(arrayFields);
+    }
+
+    public OptimizedQuery optimize(QueryNode root){
+        QueryNode optimized = optimizeNode(root);
+        if(optimized == null) return new OptimizedQuery(root, true);
+        return new OptimizedQuery(optimized, false);
+    }
+
+    /**
+     * @return optimized node, or null if node can't match any document
+     */
+    private QueryNode optimizeNode(QueryNode node){
+        if(node instanceof LogicalNode){
+            LogicalNode logical = (LogicalNode) node;
+            switch (logical.getOperator()){
+                case AND: return optimizeAnd(logical.getChildren());
+                case OR: return optimizeOr(logical.getChildren());
+                default: return optimizeNor(logical);
+            }
+        }
+        if(node instanceof NotNode){
+            QueryNode child = ((NotNode) node).getChild();
+            if(child instanceof NotNode) return optimizeNode(((NotNode) child).getChild());
+            QueryNode optimized = optimizeNode(child);
+            // negation of condition matching nothing matches every document, which has no shorter form
+            return optimized == null ? node : new NotNode(optimized);
+        }
+        if(node instanceof InNode){
+            // {$in: []} and {$all: []} match no document
+            InNode in = (InNode) node;
+            return in.getValues().isEmpty() && in.getOperator() != FunctionsMapping.NIN ? null : node;
+        }
+        if(node instanceof MatchesNode){
+            MatchesNode matches = (MatchesNode) node;
+            return new MatchesNode(matches.getField(), new ArrayList<>(new LinkedHashSet<>(matches.getConditions())));
+        }
+        return node;
+    }
+
+    private QueryNode optimizeAnd(List<QueryNode> children){
+        List<QueryNode> operands = new ArrayList<>(children.size());
+        for(QueryNode child : children){
+            QueryNode optimized = optimizeNode(child);
+            if(optimized == null) return null;
+            addOperand(FunctionsMapping.AND, optimized, operands);
+        }
+        operands = absorb(FunctionsMapping.OR, distinct(operands));
+        operands = mergeBounds(operands);
+        if(operands == null || !isSatisfiable(operands)) return null;
+        return operands.size() == 1 ? operands.get(0) : new LogicalNode(FunctionsMapping.AND, operands);
+    }
+
+    private QueryNode optimizeOr(List<QueryNode> children){
+        List<QueryNode> operands = new ArrayList<>(children.size());
+        for(QueryNode child : children){
+            QueryNode optimized = optimizeNode(child);
+            if(optimized != null) addOperand(FunctionsMapping.OR, optimized, operands);
+        }
+        if(operands.isEmpty()) return null;
+        operands = mergeEqualities(absorb(FunctionsMapping.AND, distinct(operands)));
+        return operands.size() == 1 ? operands.get(0) : new LogicalNode(FunctionsMapping.OR, operands);
+    }
+
+    private QueryNode optimizeNor(LogicalNode node){
+        List<QueryNode> operands = new ArrayList<>(node.getChildren().size());
+        for(QueryNode child : node.getChildren()){
+            // operand matching no document doesn't change result of NOR
+            QueryNode optimized = optimizeNode(child);
+            if(optimized != null) operands.add(optimized);
+        }
+        if(operands.isEmpty()) return node;
+        return new LogicalNode(FunctionsMapping.NOR, distinct(operands));
+    }
+
+    private static void addOperand(FunctionsMapping operator, QueryNode operand, List<QueryNode> operands){
+        if(operand instanceof LogicalNode && operand.getOperator() == operator){
+            operands.addAll(((LogicalNode) operand).getChildren());
+        } else {
+            operands.add(operand);
+        }
+    }
+
+    private static List<QueryNode> distinct(List<QueryNode> operands){
+        return new ArrayList<>(new LinkedHashSet<>(operands));
+    }
+
+    /**
+     * Removes operands made redundant by their sibling, e.g. (a or b) in a and (a or b).
+     * @param innerOperator operator of redundant operands
+     */
+    private static List<QueryNode> absorb(FunctionsMapping innerOperator, List<QueryNode> operands){
+        List<QueryNode> result = new ArrayList<>(operands.size());
+        for(QueryNode operand : operands){
+            if(!(operand instanceof LogicalNode && operand.getOperator() == innerOperator && containsSibling((LogicalNode) operand, operands))){
+                result.add(operand);
+            }
+        }
+        return result;
+    }
+
+    private static boolean containsSibling(LogicalNode node, List<QueryNode> siblings){
+        for(QueryNode sibling : siblings){
+            if(sibling != node && node.getChildren().contains(sibling)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Replaces comparisons of the same field with single equality or range.
+     * @return merged operands, or null if comparisons can't be satisfied together
+     */
+    private List<QueryNode> mergeBounds(List<QueryNode> operands){
+        Map<String, FieldBounds> fields = new LinkedHashMap<>();
+        List<Object> slots = new ArrayList<>(operands.size());
+        for(QueryNode operand : operands){
+            if(!isBound(operand)){
+                slots.add(operand);
+                continue;
+            }
+            ComparisonNode comparison = (ComparisonNode) operand;
+            FieldBounds bounds = fields.get(comparison.getField());
+            if(bounds == null){
+                bounds = new FieldBounds(comparison.getField());
+                fields.put(comparison.getField(), bounds);
+                slots.add(bounds);
+            }
+            bounds.add(comparison);
+        }
+        List<QueryNode> result = new ArrayList<>(operands.size());
+        for(Object slot : slots){
+            if(slot instanceof FieldBounds){
+                List<QueryNode> merged = ((FieldBounds) slot).merge(isSingleValued(((FieldBounds) slot).field));
+                if(merged == null) return null;
+                result.addAll(merged);
+            } else {
+                result.add((QueryNode) slot);
+            }
+        }
+        return result;
+    }
+
+    private static boolean isBound(QueryNode node){
+        if(!(node instanceof ComparisonNode)) return false;
+        switch (node.getOperator()){
+            case EQ:
+            case GT:
+            case GE:
+            case LT:
+            case LE:
+                return ValueOrder.bracketOf(((ComparisonNode) node).getValue()) != null;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Checks conditions of conjunction which can't hold for the same field: exists(x, true) and exists(x, false),
+     * exists(x, false) with comparison of x, or equality of single valued field with value missing in IN list.
+     */
+    private boolean isSatisfiable(List<QueryNode> operands){
+        Map<String, Boolean> exists = new LinkedHashMap<>();
+        for(QueryNode operand : operands){
+            if(operand instanceof ExistsNode){
+                ExistsNode node = (ExistsNode) operand;
+                Boolean previous = exists.put(node.getField(), node.isExists());
+                if(previous != null && previous != node.isExists()) return false;
+            }
+        }
+        for(QueryNode operand : operands){
+            String field = null;
+            if(operand instanceof ComparisonNode && isBound(operand)) field = ((ComparisonNode) operand).getField();
+            if(operand instanceof RangeNode) field = ((RangeNode) operand).getField();
+            if(field == null) continue;
+            if(Boolean.FALSE.equals(exists.get(field))) return false;
+            if(operand.getOperator() == FunctionsMapping.EQ && isSingleValued(field)
+                    && !isInAllLists(((ComparisonNode) operand).getValue(), field, operands)) return false;
+        }
+        return true;
+    }
+
+    private static boolean isInAllLists(Object value, String field, List<QueryNode> operands){
+        for(QueryNode operand : operands){
+            if(!(operand instanceof InNode) || operand.getOperator() != FunctionsMapping.IN) continue;
+            InNode in = (InNode) operand;
+            if(!in.getField().equals(field) || containsParameter(in.getValues())) continue;
+            boolean found = false;
+            for(Object listValue : in.getValues()){
+                if(ValueOrder.isEqual(value, listValue)){
+                    found = true;
+                    break;
+                }
+            }
+            if(!found) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Replaces equalities and IN lists of the same field with single IN list.
+     */
+    private static List<QueryNode> mergeEqualities(List<QueryNode> operands){
+        Map<String, List<QueryNode>> fields = new LinkedHashMap<>();
+        List<Object> slots = new ArrayList<>(operands.size());
+        for(QueryNode operand : operands){
+            String field = getEqualityField(operand);
+            if(field == null){
+                slots.add(operand);
+                continue;
+            }
+            List<QueryNode> group = fields.get(field);
+            if(group == null){
+                group = new ArrayList<>();
+                fields.put(field, group);
+                slots.add(field);
+            }
+            group.add(operand);
+        }
+        if(fields.size() == countGrouped(fields)) return operands;
+        List<QueryNode> result = new ArrayList<>(slots.size());
+        for(Object slot : slots){
+            if(!(slot instanceof String)){
+                result.add((QueryNode) slot);
+                continue;
+            }
+            List<QueryNode> group = fields.get(slot);
+            if(group.size() == 1){
+                result.add(group.get(0));
+                continue;
+            }
+            Set<Object> values = new LinkedHashSet<>();
+            for(QueryNode node : group){
+                if(node instanceof InNode) values.addAll(((InNode) node).getValues());
+                else values.add(((ComparisonNode) node).getValue());
+            }
+            result.add(new InNode(FunctionsMapping.IN, (String) slot, new ArrayList<>(values)));
+        }
+        return result;
+    }
+
+    private static int countGrouped(Map<String, List<QueryNode>> fields){
+        int count = 0;
+        for(List<QueryNode> group : fields.values()) count += group.size();
+        return count;
+    }
+
+    /**
+     * @return field of literal equality or IN list, null for other nodes
+     */
+    private static String getEqualityField(QueryNode node){
+        if(node instanceof ComparisonNode && node.getOperator() == FunctionsMapping.EQ
+                && !(((ComparisonNode) node).getValue() instanceof QueryParameter)) return ((ComparisonNode) node).getField();
+        if(node instanceof InNode && node.getOperator() == FunctionsMapping.IN
+                && !containsParameter(((InNode) node).getValues())) return ((InNode) node).getField();
+        return null;
+    }
+
+    private static boolean containsParameter(List<Object> values){
+        for(Object value : values){
+            if(value instanceof QueryParameter) return true;
+        }
+        return false;
+    }
+
+    private boolean isSingleValued(String field){
+        if(arrayFields.isEmpty()) return true;
+        int dot = -1;
+        do {
+            dot = field.indexOf('.', dot + 1);
+            if(arrayFields.contains(dot < 0 ? field : field.substring(0, dot))) return false;
+        } while (dot >= 0);
+        return true;
+    }
+
+    /**
+     * Equalities and bounds of single field, grouped by type bracket of compared value.
+     */
+    private static class FieldBounds {
+        private final String field;
+        private final Map<ValueOrder.Bracket, Bounds> brackets = new LinkedHashMap<>();
+
+        FieldBounds(String field){
+            this.field = field;
+        }
+
+        void add(ComparisonNode node){
+            brackets.computeIfAbsent(ValueOrder.bracketOf(node.getValue()), k -> new Bounds()).add(node);
+        }
+
+        /**
+         * @return equalities and ranges replacing field comparisons, or null if single valued field can't satisfy them
+         */
+        List<QueryNode> merge(boolean singleValued){
+            // comparison operators match only values of the same type bracket
+            if(singleValued && brackets.size() > 1) return null;
+            List<QueryNode> result = new ArrayList<>();
+            for(Bounds bounds : brackets.values()){
+                if(!bounds.merge(field, singleValued, result)) return null;
+            }
+            return result;
+        }
+    }
+
+    private static class Bounds {
+        private final List<Object> equalities = new ArrayList<>();
+        private FunctionsMapping lowerOperator;
+        private Object lower;
+        private FunctionsMapping upperOperator;
+        private Object upper;
+
+        void add(ComparisonNode node){
+            Object value = node.getValue();
+            switch (node.getOperator()){
+                case EQ:
+                    for(Object equality : equalities){
+                        if(ValueOrder.compare(equality, value) == 0) return;
+                    }
+                    equalities.add(value);
+                    break;
+                case GT:
+                case GE:
+                    if(lower == null || isStronger(ValueOrder.compare(value, lower), node.getOperator() == FunctionsMapping.GT, lowerOperator == FunctionsMapping.GT)){
+                        lower = value;
+                        lowerOperator = node.getOperator();
+                    }
+                    break;
+                default:
+                    if(upper == null || isStronger(ValueOrder.compare(upper, value), node.getOperator() == FunctionsMapping.LT, upperOperator == FunctionsMapping.LT)){
+                        upper = value;
+                        upperOperator = node.getOperator();
+                    }
+            }
+        }
+
+        private static boolean isStronger(int comparison, boolean exclusive, boolean currentExclusive){
+            return comparison > 0 || (comparison == 0 && exclusive && !currentExclusive);
+        }
+
+        /**
+         * Adds merged nodes to result.
+         * @return false if single valued field can't satisfy conditions
+         */
+        boolean merge(String field, boolean singleValued, List<QueryNode> result){
+            if(singleValued && equalities.size() > 1) return false;
+            boolean boundsImplied = !equalities.isEmpty();
+            for(Object equality : equalities){
+                boolean inRange = isInRange(equality);
+                if(!inRange && singleValued) return false;
+                boundsImplied &= inRange;
+                result.add(new ComparisonNode(FunctionsMapping.EQ, field, equality));
+            }
+            // element equal to value within bounds satisfies bounds too, also for array fields
+            if(boundsImplied) return true;
+            if(lower != null && upper != null){
+                int comparison = ValueOrder.compare(lower, upper);
+                if(singleValued && (comparison > 0 || (comparison == 0 && (lowerOperator == FunctionsMapping.GT || upperOperator == FunctionsMapping.LT)))) return false;
+                result.add(new RangeNode(field, lowerOperator, lower, upperOperator, upper));
+            } else if(lower != null){
+                result.add(new ComparisonNode(lowerOperator, field, lower));
+            } else if(upper != null){
+                result.add(new ComparisonNode(upperOperator, field, upper));
+            }
+            return true;
+        }
+
+        private boolean isInRange(Object value){
+            if(lower != null){
+                int comparison = ValueOrder.compare(value, lower);
+                if(comparison < 0 || (comparison == 0 && lowerOperator == FunctionsMapping.GT)) return false;
+            }
+            if(upper != null){
+                int comparison = ValueOrder.compare(value, upper);
+                if(comparison > 0 || (comparison == 0 && upperOperator == FunctionsMapping.LT)) return false;
+            }
+            return true;
+        }
+    }
+}
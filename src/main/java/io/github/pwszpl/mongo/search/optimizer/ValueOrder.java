@@ -0,0 +1,85 @@
+package io.github.pwszpl.mongo.search.optimizer;
+
+import org.bson.types.Decimal128;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * Order of literal values used by MongoDB comparison operators. Values are comparable only within the same
+ * type bracket (numbers of any type, strings, dates or booleans).
+ */
+final class ValueOrder {
+    enum Bracket { NUMBER, STRING, DATE, BOOLEAN }
+
+    private ValueOrder(){}
+
+    /**
+     * @return type bracket of value, or null if value can't be ordered by optimizer
+     */
+    static Bracket bracketOf(Object value){
+        if(value instanceof Double || value instanceof Float){
+            double d = ((Number) value).doubleValue();
+            return Double.isNaN(d) || Double.isInfinite(d) ? null : Bracket.NUMBER;
+        }
+        if(value instanceof Decimal128) return ((Decimal128) value).isFinite() ? Bracket.NUMBER : null;
+        if(value instanceof Number) return Bracket.NUMBER;
+        if(value instanceof String) return Bracket.STRING;
+        if(value instanceof Date) return Bracket.DATE;
+        if(value instanceof Boolean) return Bracket.BOOLEAN;
+        return null;
+    }
+
+    /**
+     * Compares values of the same bracket.
+     */
+    static int compare(Object a, Object b){
+        switch (bracketOf(a)){
+            case NUMBER: return compareNumbers((Number) a, (Number) b);
+            case STRING: return compareStrings((String) a, (String) b);
+            case DATE: return Long.compare(((Date) a).getTime(), ((Date) b).getTime());
+            default: return Boolean.compare((Boolean) a, (Boolean) b);
+        }
+    }
+
+    /**
+     * @return true if values are matched by the same equality condition (e.g. 1 and 1.0)
+     */
+    static boolean isEqual(Object a, Object b){
+        Bracket bracket = bracketOf(a);
+        if(bracket == null || bracket != bracketOf(b)) return a.equals(b);
+        return compare(a, b) == 0;
+    }
+
+    private static int compareNumbers(Number a, Number b){
+        if(isIntegral(a) && isIntegral(b)) return Long.compare(a.longValue(), b.longValue());
+        return toBigDecimal(a).compareTo(toBigDecimal(b));
+    }
+
+    private static boolean isIntegral(Number n){
+        return n instanceof Integer || n instanceof Long || n instanceof Short || n instanceof Byte;
+    }
+
+    private static BigDecimal toBigDecimal(Number n){
+        if(isIntegral(n)) return BigDecimal.valueOf(n.longValue());
+        if(n instanceof BigDecimal) return (BigDecimal) n;
+        if(n instanceof Decimal128) return ((Decimal128) n).bigDecimalValue();
+        return new BigDecimal(n.doubleValue());
+    }
+
+    /**
+     * Strings are compared by code points, which is the order of UTF-8 bytes used by simple collation.
+     */
+    private static int compareStrings(String a, String b){
+        int i = 0;
+        int j = 0;
+        while(i < a.length() && j < b.length()){
+            int ca = a.codePointAt(i);
+            int cb = b.codePointAt(j);
+            if(ca != cb) return Integer.compare(ca, cb);
+            i += Character.charCount(ca);
+            j += Character.charCount(cb);
+        }
+        return Integer.compare(a.length() - i, b.length() - j);
+    }
+}
@@ -0,0 +1,14 @@
+package io.github.pwszpl.mongo.search.pagination;
+
+/**
+ * Thrown when continuation token is malformed or was created for different sort order.
+ */
+public class InvalidContinuationTokenException extends RuntimeException {
+    public InvalidContinuationTokenException(String message){
+        super(message);
+    }
+
+    public InvalidContinuationTokenException(String message, Throwable cause){
+        super(message, cause);
+    }
+}
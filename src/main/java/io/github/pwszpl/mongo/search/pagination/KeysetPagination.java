@@ -0,0 +1,190 @@
+package io.github.pwszpl.mongo.search.pagination;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import io.github.pwszpl.mongo.search.ast.SortField;
+import org.bson.BSONException;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonTimestamp;
+import org.bson.UuidRepresentation;
+import org.bson.Document;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.conversions.Bson;
+import org.bson.io.BasicOutputBuffer;
+import org.bson.types.Binary;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keyset (seek) pagination - next page is selected with filter on sort key values of last document of previous page
+ * instead of skipping documents, so cost of page doesn't depend on its number. For sort a ASC, b DESC, _id ASC and
+ * last values v1, v2, v3 the seek predicate is (a > v1) or (a = v1 and b < v2) or (a = v1 and b = v2 and _id > v3).
+ * <p>
+ * _id is added as last sort field when sort doesn't contain it, so sort order is total. Sort values are passed to
+ * clients as opaque continuation token. Token isn't signed, so only scalar values (strings, numbers, booleans, dates,
+ * ObjectId, binary, UUID and timestamps) are accepted - documents, arrays or patterns decoded from forged token would be
+ * evaluated by MongoDB as operators or regular expressions instead of seek keys. UUID values are stored in token in
+ * standard representation, filters holding them require client with uuidRepresentation set, like any UUID filter.
+ * <p>
+ * Sort fields must not be null or missing - $gt/$lt conditions don't match null, so documents without value of sort
+ * field are silently skipped on all pages following the first one. Instances are immutable and can be shared between threads.
+ */
+public class KeysetPagination {
+    private static final String ID = "_id";
+    // UUID values are written as standard binary subtype 4 and decoded back to UUID
+    private static final Codec<Document> CODEC = CodecRegistries.withUuidRepresentation(
+            MongoClientSettings.getDefaultCodecRegistry(), UuidRepresentation.STANDARD).get(Document.class);
+
+    private final List<SortField> sort;
+    private final List<String> sortKeys;
+
+    public KeysetPagination(List<SortField> sort){
+        List<SortField> fields = new ArrayList<>(sort);
+        boolean hasId = false;
+        for(SortField field : sort) hasId |= ID.equals(field.getField());
+        if(!hasId) fields.add(new SortField(ID, true));
+        this.sort = Collections.unmodifiableList(fields);
+        this.sortKeys = new ArrayList<>(fields.size());
+        for(SortField field : fields) sortKeys.add(field.toString());
+    }
+
+    /**
+     * @return sort fields with _id tie breaker, pages must be read in this order
+     */
+    public List<SortField> getSortFields() {
+        return sort;
+    }
+
+    /**
+     * @return sort of pages for MongoDB driver
+     */
+    public Bson getSort(){
+        List<Bson> orders = new ArrayList<>(sort.size());
+        for(SortField field : sort){
+            orders.add(field.isAscending() ? Sorts.ascending(field.getField()) : Sorts.descending(field.getField()));
+        }
+        return Sorts.orderBy(orders);
+    }
+
+    /**
+     * @return sort of pages for Spring Data Query
+     */
+    public Sort getSpringSort(){
+        List<Sort.Order> orders = new ArrayList<>(sort.size());
+        for(SortField field : sort){
+            orders.add(field.isAscending() ? Sort.Order.asc(field.getField()) : Sort.Order.desc(field.getField()));
+        }
+        return Sort.by(orders);
+    }
+
+    /**
+     * @return filter of page following continuation token, given filter when token is null (first page)
+     */
+    public Bson seek(Bson filter, String token){
+        if(token == null) return filter;
+        List<Object> values = decode(token);
+        List<Bson> alternatives = new ArrayList<>(sort.size());
+        for(int i=0;i<sort.size();i++){
+            List<Bson> conditions = new ArrayList<>(i + 1);
+            for(int j=0;j<i;j++) conditions.add(Filters.eq(sort.get(j).getField(), values.get(j)));
+            SortField field = sort.get(i);
+            conditions.add(field.isAscending() ? Filters.gt(field.getField(), values.get(i)) : Filters.lt(field.getField(), values.get(i)));
+            alternatives.add(conditions.size() == 1 ? conditions.get(0) : Filters.and(conditions));
+        }
+        return Filters.and(filter, alternatives.size() == 1 ? alternatives.get(0) : Filters.or(alternatives));
+    }
+
+    /**
+     * @return criteria of page following continuation token, given criteria when token is null (first page)
+     */
+    public Criteria seek(Criteria criteria, String token){
+        if(token == null) return criteria;
+        List<Object> values = decode(token);
+        Criteria[] alternatives = new Criteria[sort.size()];
+        for(int i=0;i<sort.size();i++){
+            Criteria[] conditions = new Criteria[i + 1];
+            for(int j=0;j<i;j++) conditions[j] = Criteria.where(sort.get(j).getField()).is(values.get(j));
+            SortField field = sort.get(i);
+            conditions[i] = field.isAscending() ? Criteria.where(field.getField()).gt(values.get(i))
+                    : Criteria.where(field.getField()).lt(values.get(i));
+            alternatives[i] = conditions.length == 1 ? conditions[0] : new Criteria().andOperator(conditions);
+        }
+        return new Criteria().andOperator(criteria, alternatives.length == 1 ? alternatives[0] : new Criteria().orOperator(alternatives));
+    }
+
+    /**
+     * @return continuation token of page following given last document of current page. Only this document is checked
+     * for null sort values, documents with null or missing sort values on next pages are skipped.
+     */
+    public String continuationToken(Document lastDocument){
+        Object[] values = new Object[sort.size()];
+        for(int i=0;i<values.length;i++){
+            values[i] = lastDocument.getEmbedded(Arrays.asList(sort.get(i).getField().split("\\.")), Object.class);
+        }
+        return continuationToken(values);
+    }
+
+    /**
+     * @return continuation token of page following document with given values of sort fields, in order of getSortFields()
+     */
+    public String continuationToken(Object... values){
+        if(values.length != sort.size()){
+            throw new IllegalArgumentException(String.format("Expected %d sort values, got %d.", sort.size(), values.length));
+        }
+        for(int i=0;i<values.length;i++){
+            if(values[i] == null){
+                throw new IllegalArgumentException(String.format("Value of sort field '%s' is null.", sort.get(i).getField()));
+            }
+            if(!isScalar(values[i])){
+                throw new IllegalArgumentException(String.format("Value of sort field '%s' has unsupported type %s.",
+                        sort.get(i).getField(), values[i].getClass().getName()));
+            }
+        }
+        Document token = new Document("s", sortKeys).append("v", Arrays.asList(values));
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        CODEC.encode(new BsonBinaryWriter(buffer), token, EncoderContext.builder().build());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.toByteArray());
+    }
+
+    private List<Object> decode(String token){
+        Document document;
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(token);
+            document = CODEC.decode(new BsonBinaryReader(ByteBuffer.wrap(bytes)), DecoderContext.builder().build());
+        } catch (IllegalArgumentException | BSONException e) {
+            throw new InvalidContinuationTokenException("Continuation token is malformed.", e);
+        }
+        if(!sortKeys.equals(document.get("s"))){
+            throw new InvalidContinuationTokenException("Continuation token was created for different sort order.");
+        }
+        Object values = document.get("v");
+        if(!(values instanceof List) || ((List<?>) values).size() != sort.size()){
+            throw new InvalidContinuationTokenException("Continuation token is malformed.");
+        }
+        for(Object value : (List<?>) values){
+            if(!isScalar(value)) throw new InvalidContinuationTokenException("Continuation token contains unsupported value.");
+        }
+        return new ArrayList<>((List<?>) values);
+    }
+
+    // values compared by seek predicate as plain keys, null and values interpreted as operators are rejected
+    private static boolean isScalar(Object value){
+        return value instanceof String || value instanceof Number || value instanceof Boolean || value instanceof Date
+                || value instanceof ObjectId || value instanceof Binary || value instanceof UUID || value instanceof BsonTimestamp;
+    }
+}
@@ -0,0 +1,18 @@
+package io.github.pwszpl.mongo.search.processor;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks String constant holding query, which is translated during compilation by CompiledQueryProcessor.
+ * For constant NAME of class Foo, class FooQueries is generated in the same package with RawBsonDocument constant NAME.
+ * Query with syntax error, or with Spring Data mapping tokens (?N), fails compilation.
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.FIELD)
+public @interface CompiledQuery {
+}
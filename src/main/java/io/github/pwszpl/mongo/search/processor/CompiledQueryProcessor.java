@@ -0,0 +1,147 @@
+package io.github.pwszpl.mongo.search.processor;
+
+import io.github.pwszpl.mongo.parser.MongoSearchEngineParser;
+import io.github.pwszpl.mongo.parser.ParseException;
+import io.github.pwszpl.mongo.parser.TokenMgrError;
+import io.github.pwszpl.mongo.search.transform.BsonDocumentTransformer;
+import org.bson.ByteBuf;
+import org.bson.RawBsonDocument;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Translates constants annotated with CompiledQuery during compilation. Generated code holds BSON bytes of filter
+ * (identical to BSON of Filters object created by parser in BSON mode), so neither parser nor JavaCC runtime
+ * is used when application runs. Syntax errors are reported as compilation errors of annotated constant.
+ */
+@SupportedAnnotationTypes("io.github.pwszpl.mongo.search.processor.CompiledQuery")
+public class CompiledQueryProcessor extends AbstractProcessor {
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Map<TypeElement, Map<VariableElement, byte[]>> queries = new LinkedHashMap<>();
+        for(Element element : roundEnv.getElementsAnnotatedWith(CompiledQuery.class)){
+            VariableElement field = (VariableElement) element;
+            byte[] bson = compile(field);
+            if(bson != null){
+                queries.computeIfAbsent((TypeElement) field.getEnclosingElement(), type -> new LinkedHashMap<>()).put(field, bson);
+            }
+        }
+        for(Map.Entry<TypeElement, Map<VariableElement, byte[]>> entry : queries.entrySet()){
+            generate(entry.getKey(), entry.getValue());
+        }
+        return true;
+    }
+
+    /**
+     * @return BSON bytes of query, null if error was reported
+     */
+    private byte[] compile(VariableElement field){
+        if(field.getKind() != ElementKind.FIELD || !(field.getConstantValue() instanceof String)){
+            error(field, "@CompiledQuery can be used only on String constant (static final field with constant value).");
+            return null;
+        }
+        String query = (String) field.getConstantValue();
+        try {
+            MongoSearchEngineParser parser = new MongoSearchEngineParser(query);
+            RawBsonDocument document = (RawBsonDocument) parser.parseTree().accept(new BsonDocumentTransformer().withBinding(parameter -> {
+                throw new IllegalArgumentException(String.format("Query parameter %s can't be bound during compilation.", parameter.getImage()));
+            }));
+            ByteBuf buffer = document.getByteBuffer();
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            return bytes;
+        } catch (ParseException | TokenMgrError | RuntimeException e) {
+            error(field, String.format("Invalid query '%s': %s", query, e.getMessage()));
+            return null;
+        }
+    }
+
+    private void generate(TypeElement type, Map<VariableElement, byte[]> queries){
+        String packageName = packageOf(type).getQualifiedName().toString();
+        String className = generatedClassName(type);
+        String qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+        try(Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()){
+            StringBuilder source = new StringBuilder();
+            if(!packageName.isEmpty()) source.append("package ").append(packageName).append(";\n\n");
+            source.append("import org.bson.RawBsonDocument;\n\n")
+                    .append("import java.util.Base64;\n\n")
+                    .append("/**\n * Queries of ").append(type.getQualifiedName()).append(" translated during compilation by ")
+                    .append(CompiledQueryProcessor.class.getSimpleName()).append(".\n */\n")
+                    .append("public final class ").append(className).append(" {\n");
+            for(Map.Entry<VariableElement, byte[]> query : queries.entrySet()){
+                String text = (String) query.getKey().getConstantValue();
+                source.append("    /**\n     * ").append(javadoc(text)).append("\n     */\n")
+                        .append("    public static final RawBsonDocument ").append(query.getKey().getSimpleName())
+                        .append(" = new RawBsonDocument(Base64.getDecoder().decode(\"")
+                        .append(Base64.getEncoder().encodeToString(query.getValue())).append("\"));\n\n");
+            }
+            source.append("    private ").append(className).append("(){\n    }\n}\n");
+            writer.write(source.toString());
+        } catch (IOException e) {
+            error(type, "Can't generate " + qualifiedName + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return query text as HTML safe to put in Javadoc comment - javac reads unicode escapes (backslash u) even in
+     * comments, so backslashes are written as entities as well as comment end, tags and HTML characters
+     */
+    private static String javadoc(String text){
+        StringBuilder result = new StringBuilder(text.length() + 16);
+        for(int i=0;i<text.length();i++){
+            char c = text.charAt(i);
+            switch(c){
+                case '\\': result.append("&#92;"); break;
+                case '/': result.append(i > 0 && text.charAt(i - 1) == '*' ? "&#47;" : "/"); break;
+                case '@': result.append("&#64;"); break;
+                case '&': result.append("&amp;"); break;
+                case '<': result.append("&lt;"); break;
+                case '>': result.append("&gt;"); break;
+                case '\n':
+                case '\r': result.append(' '); break;
+                default: result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * @return Foo + "Queries" for top level class Foo, Outer_Foo + "Queries" for nested class Outer.Foo
+     */
+    private static String generatedClassName(TypeElement type){
+        StringBuilder name = new StringBuilder(type.getSimpleName());
+        for(Element enclosing = type.getEnclosingElement(); enclosing instanceof TypeElement; enclosing = enclosing.getEnclosingElement()){
+            name.insert(0, enclosing.getSimpleName() + "_");
+        }
+        return name.append("Queries").toString();
+    }
+
+    private static PackageElement packageOf(Element element){
+        while(!(element instanceof PackageElement)) element = element.getEnclosingElement();
+        return (PackageElement) element;
+    }
+
+    private void error(Element element, String message){
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
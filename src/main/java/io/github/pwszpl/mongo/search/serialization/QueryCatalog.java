@@ -0,0 +1,164 @@
+package io.github.pwszpl.mongo.search.serialization;
+
+import io.github.pwszpl.mongo.search.ast.QueryNode;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Named queries serialized into single file, e.g. saved searches translated once and loaded by each service instance
+ * on start. File is memory mapped on open and only its index of names is read, each query is deserialized on first
+ * get and cached. Catalogue is thread safe.
+ * <p>
+ * File starts with magic bytes and format version followed by number of queries, index of names with offset and length
+ * of each query, and queries serialized by QuerySerializer.
+ */
+public class QueryCatalog {
+    private static final byte[] MAGIC = {'M', 'S', 'Q', 'C'};
+
+    private final ByteBuffer data;
+    // offset and length of each query in data, in order of writing
+    private final Map<String, int[]> index;
+    private final ConcurrentMap<String, QueryNode> queries = new ConcurrentHashMap<>();
+
+    private QueryCatalog(ByteBuffer data, Map<String, int[]> index){
+        this.data = data;
+        this.index = index;
+    }
+
+    /**
+     * Writes catalogue of queries to file, replacing existing file.
+     */
+    public static void write(Path file, Map<String, ? extends QueryNode> queries) throws IOException {
+        Files.write(file, serialize(queries));
+    }
+
+    /**
+     * @return catalogue of queries as bytes, which can be stored anywhere and opened with of(ByteBuffer)
+     */
+    public static byte[] serialize(Map<String, ? extends QueryNode> queries){
+        QuerySerializer.Output index = new QuerySerializer.Output();
+        QuerySerializer.Output data = new QuerySerializer.Output();
+        int[] lengths = new int[queries.size()];
+        int headerLength = MAGIC.length + 1 + 4;
+        int indexLength = 0;
+        int i = 0;
+        for(Map.Entry<String, ? extends QueryNode> entry : queries.entrySet()){
+            byte[] query = QuerySerializer.serialize(entry.getValue());
+            data.writeBytes(query);
+            lengths[i++] = query.length;
+            indexLength += 4 + entry.getKey().getBytes(StandardCharsets.UTF_8).length + 4 + 4;
+        }
+        int offset = headerLength + indexLength;
+        i = 0;
+        for(String name : queries.keySet()){
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            writeInt(index, bytes.length);
+            index.writeBytes(bytes);
+            writeInt(index, offset);
+            writeInt(index, lengths[i]);
+            offset += lengths[i++];
+        }
+        QuerySerializer.Output catalog = new QuerySerializer.Output();
+        catalog.writeBytes(MAGIC);
+        catalog.writeByte(QuerySerializer.FORMAT_VERSION);
+        writeInt(catalog, queries.size());
+        catalog.writeBytes(index.toByteArray());
+        catalog.writeBytes(data.toByteArray());
+        return catalog.toByteArray();
+    }
+
+    /**
+     * Opens catalogue file mapping it into memory. Queries are read from mapped file when they are requested.
+     */
+    public static QueryCatalog open(Path file) throws IOException {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+            return of(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Opens catalogue from buffer starting at its position, buffer shouldn't be changed afterwards.
+     */
+    public static QueryCatalog of(ByteBuffer buffer){
+        ByteBuffer data = buffer.slice();
+        try {
+            for(byte b : MAGIC){
+                if(data.get() != b) throw new QuerySerializationException("Data doesn't start with query catalogue header.");
+            }
+            int version = data.get();
+            if(version != QuerySerializer.FORMAT_VERSION){
+                throw new QuerySerializationException(String.format("Unsupported format version %d, supported version is %d.",
+                        version, QuerySerializer.FORMAT_VERSION));
+            }
+            int count = data.getInt();
+            // each index entry takes at least 12 bytes, lengths are checked before anything is allocated for them
+            if(count < 0 || count > data.remaining() / 12) throw new QuerySerializationException("Query catalogue is truncated.");
+            Map<String, int[]> index = new LinkedHashMap<>(count * 4 / 3 + 1);
+            for(int i=0;i<count;i++){
+                int nameLength = data.getInt();
+                if(nameLength < 0 || nameLength > data.remaining()) throw new QuerySerializationException("Query catalogue is truncated.");
+                byte[] name = new byte[nameLength];
+                data.get(name);
+                int[] location = {data.getInt(), data.getInt()};
+                if(location[0] < 0 || location[1] < 0 || location[1] > data.limit() - location[0]){
+                    throw new QuerySerializationException("Query catalogue is truncated.");
+                }
+                index.put(new String(name, StandardCharsets.UTF_8), location);
+            }
+            return new QueryCatalog(data, index);
+        } catch (BufferUnderflowException e) {
+            throw new QuerySerializationException("Query catalogue is truncated.", e);
+        }
+    }
+
+    /**
+     * @return query stored under given name, null if catalogue doesn't contain it
+     */
+    public QueryNode get(String name){
+        QueryNode query = queries.get(name);
+        if(query != null) return query;
+        int[] location = index.get(name);
+        if(location == null) return null;
+        ByteBuffer buffer = data.duplicate();
+        // Buffer methods, as ByteBuffer overrides don't exist on Java 8
+        ((Buffer) buffer).limit(location[0] + location[1]).position(location[0]);
+        query = QuerySerializer.deserialize(buffer);
+        QueryNode previous = queries.putIfAbsent(name, query);
+        return previous == null ? query : previous;
+    }
+
+    /**
+     * @return all queries of catalogue, in order of writing
+     */
+    public Map<String, QueryNode> getAll(){
+        Map<String, QueryNode> result = new LinkedHashMap<>(index.size() * 4 / 3 + 1);
+        for(String name : index.keySet()) result.put(name, get(name));
+        return result;
+    }
+
+    public Set<String> getNames(){
+        return Collections.unmodifiableSet(index.keySet());
+    }
+
+    public int size(){
+        return index.size();
+    }
+
+    private static void writeInt(QuerySerializer.Output output, int value){
+        for(int shift=24;shift>=0;shift-=8) output.writeByte(value >>> shift);
+    }
+}
@@ -0,0 +1,14 @@
+package io.github.pwszpl.mongo.search.serialization;
+
+/**
+ * Thrown when query can't be serialized or serialized data is invalid or written in unsupported format version.
+ */
+public class QuerySerializationException extends RuntimeException {
+    public QuerySerializationException(String message){
+        super(message);
+    }
+
+    public QuerySerializationException(String message, Throwable cause){
+        super(message, cause);
+    }
+}
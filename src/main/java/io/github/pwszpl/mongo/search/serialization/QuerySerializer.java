@@ -0,0 +1,468 @@
+package io.github.pwszpl.mongo.search.serialization;
+
+import io.github.pwszpl.mongo.search.ast.ComparisonNode;
+import io.github.pwszpl.mongo.search.ast.ExistsNode;
+import io.github.pwszpl.mongo.search.ast.InNode;
+import io.github.pwszpl.mongo.search.ast.LikeNode;
+import io.github.pwszpl.mongo.search.ast.LogicalNode;
+import io.github.pwszpl.mongo.search.ast.MatchesNode;
+import io.github.pwszpl.mongo.search.ast.ModNode;
+import io.github.pwszpl.mongo.search.ast.NotNode;
+import io.github.pwszpl.mongo.search.ast.QueryNode;
+import io.github.pwszpl.mongo.search.ast.QueryVisitor;
+import io.github.pwszpl.mongo.search.ast.RangeNode;
+import io.github.pwszpl.mongo.search.ast.SizeNode;
+import io.github.pwszpl.mongo.search.ast.TypeNode;
+import io.github.pwszpl.mongo.search.transform.FunctionsMapping;
+import io.github.pwszpl.mongo.search.transform.QueryParameter;
+import io.github.pwszpl.mongo.search.util.LiteralDecoder;
+import org.bson.types.Decimal128;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary form of query tree, which can be stored and loaded back without parsing query again.
+ * Serialized query starts with magic bytes and format version, followed by nodes in prefix order.
+ * Numbers are written as variable length integers, each field name and string literal is written once
+ * and referenced by its number afterwards. Codes of nodes, operators and values are part of the format,
+ * so they can't be changed without changing format version. Nodes can be nested at most MAX_DEPTH levels deep.
+ */
+public class QuerySerializer {
+    public static final int FORMAT_VERSION = 1;
+    static final byte[] MAGIC = {'M', 'S', 'Q'};
+    /**
+     * Maximal nesting of nodes, it bounds recursion of reading corrupted data.
+     */
+    public static final int MAX_DEPTH = 1000;
+
+    // node codes
+    private static final int LOGICAL = 1;
+    private static final int COMPARISON = 2;
+    private static final int RANGE = 3;
+    private static final int IN = 4;
+    private static final int EXISTS = 5;
+    private static final int TYPE = 6;
+    private static final int SIZE = 7;
+    private static final int MOD = 8;
+    private static final int LIKE = 9;
+    private static final int MATCHES = 10;
+    private static final int NOT = 11;
+
+    // value codes
+    private static final int NULL = 0;
+    private static final int STRING = 1;
+    private static final int INT32 = 2;
+    private static final int INT64 = 3;
+    private static final int DOUBLE = 4;
+    private static final int DECIMAL128 = 5;
+    private static final int DATE = 6;
+    private static final int TRUE = 7;
+    private static final int FALSE = 8;
+    private static final int PARAMETER = 9;
+
+    // operators by their code (position in array)
+    private static final List<FunctionsMapping> OPERATORS = Arrays.asList(
+            FunctionsMapping.EQ, FunctionsMapping.NE, FunctionsMapping.AND, FunctionsMapping.OR, FunctionsMapping.NOR,
+            FunctionsMapping.NOT, FunctionsMapping.GT, FunctionsMapping.LT, FunctionsMapping.LE, FunctionsMapping.GE,
+            FunctionsMapping.IN, FunctionsMapping.NIN, FunctionsMapping.ALL, FunctionsMapping.MATCHES, FunctionsMapping.EXISTS,
+            FunctionsMapping.TYPE, FunctionsMapping.SIZE, FunctionsMapping.LIKE, FunctionsMapping.MOD);
+
+    /**
+     * @return serialized query starting with magic bytes and format version
+     */
+    public static byte[] serialize(QueryNode node){
+        Output output = new Output();
+        for(byte b : MAGIC) output.writeByte(b);
+        output.writeByte(FORMAT_VERSION);
+        writeNode(node, output);
+        return output.toByteArray();
+    }
+
+    public static QueryNode deserialize(byte[] bytes){
+        return deserialize(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Reads query from current position of buffer, position is moved after the query.
+     */
+    public static QueryNode deserialize(ByteBuffer buffer){
+        try {
+            for(byte b : MAGIC){
+                if(buffer.get() != b) throw new QuerySerializationException("Data doesn't start with serialized query header.");
+            }
+            int version = buffer.get();
+            if(version != FORMAT_VERSION){
+                throw new QuerySerializationException(String.format("Unsupported format version %d, supported version is %d.", version, FORMAT_VERSION));
+            }
+            return new Input(buffer).readNode();
+        } catch (BufferUnderflowException e) {
+            throw new QuerySerializationException("Serialized query is truncated.", e);
+        }
+    }
+
+    static void writeNode(QueryNode node, Output output){
+        node.accept(new NodeWriter(output));
+    }
+
+    private static class NodeWriter implements QueryVisitor<Void> {
+        private final Output output;
+        private int depth;
+
+        private NodeWriter(Output output){
+            this.output = output;
+        }
+
+        @Override
+        public Void visitLogical(LogicalNode node) {
+            output.writeVarInt(LOGICAL);
+            writeOperator(node.getOperator());
+            writeChildren(node.getChildren());
+            return null;
+        }
+
+        @Override
+        public Void visitComparison(ComparisonNode node) {
+            output.writeVarInt(COMPARISON);
+            writeOperator(node.getOperator());
+            output.writeString(node.getField());
+            writeValue(node.getValue());
+            return null;
+        }
+
+        @Override
+        public Void visitRange(RangeNode node) {
+            output.writeVarInt(RANGE);
+            output.writeString(node.getField());
+            writeOperator(node.getLowerOperator());
+            writeValue(node.getLowerBound());
+            writeOperator(node.getUpperOperator());
+            writeValue(node.getUpperBound());
+            return null;
+        }
+
+        @Override
+        public Void visitIn(InNode node) {
+            output.writeVarInt(IN);
+            writeOperator(node.getOperator());
+            output.writeString(node.getField());
+            output.writeVarInt(node.getValues().size());
+            for(Object value : node.getValues()) writeValue(value);
+            return null;
+        }
+
+        @Override
+        public Void visitExists(ExistsNode node) {
+            output.writeVarInt(EXISTS);
+            output.writeString(node.getField());
+            output.writeByte(node.isExists() ? 1 : 0);
+            return null;
+        }
+
+        @Override
+        public Void visitType(TypeNode node) {
+            output.writeVarInt(TYPE);
+            output.writeString(node.getField());
+            output.writeString(node.getType());
+            return null;
+        }
+
+        @Override
+        public Void visitSize(SizeNode node) {
+            output.writeVarInt(SIZE);
+            output.writeString(node.getField());
+            output.writeVarLong(zigZag(node.getSize()));
+            return null;
+        }
+
+        @Override
+        public Void visitMod(ModNode node) {
+            output.writeVarInt(MOD);
+            output.writeString(node.getField());
+            writeValue(node.getDivisor());
+            writeValue(node.getRemainder());
+            return null;
+        }
+
+        @Override
+        public Void visitLike(LikeNode node) {
+            output.writeVarInt(LIKE);
+            output.writeString(node.getField());
+            writeValue(node.getPattern());
+            return null;
+        }
+
+        @Override
+        public Void visitMatches(MatchesNode node) {
+            output.writeVarInt(MATCHES);
+            output.writeString(node.getField());
+            writeChildren(node.getConditions());
+            return null;
+        }
+
+        @Override
+        public Void visitNot(NotNode node) {
+            output.writeVarInt(NOT);
+            writeChild(node.getChild());
+            return null;
+        }
+
+        private void writeChildren(List<QueryNode> children){
+            output.writeVarInt(children.size());
+            for(QueryNode child : children) writeChild(child);
+        }
+
+        private void writeChild(QueryNode child){
+            if(++depth > MAX_DEPTH) throw tooDeep();
+            child.accept(this);
+            depth--;
+        }
+
+        private void writeOperator(FunctionsMapping operator){
+            output.writeVarInt(OPERATORS.indexOf(operator));
+        }
+
+        private void writeValue(Object value){
+            if(value == null){
+                output.writeVarInt(NULL);
+            } else if(value instanceof String){
+                output.writeVarInt(STRING);
+                output.writeString((String) value);
+            } else if(value instanceof Integer){
+                output.writeVarInt(INT32);
+                output.writeVarLong(zigZag((Integer) value));
+            } else if(value instanceof Long){
+                output.writeVarInt(INT64);
+                output.writeVarLong(zigZag((Long) value));
+            } else if(value instanceof Double){
+                output.writeVarInt(DOUBLE);
+                output.writeLong(Double.doubleToRawLongBits((Double) value));
+            } else if(value instanceof Decimal128){
+                output.writeVarInt(DECIMAL128);
+                output.writeLong(((Decimal128) value).getHigh());
+                output.writeLong(((Decimal128) value).getLow());
+            } else if(value instanceof Date){
+                output.writeVarInt(DATE);
+                output.writeVarLong(zigZag(((Date) value).getTime()));
+            } else if(value instanceof Boolean){
+                output.writeVarInt((Boolean) value ? TRUE : FALSE);
+            } else if(value instanceof QueryParameter){
+                output.writeVarInt(PARAMETER);
+                output.writeString(((QueryParameter) value).getImage());
+            } else {
+                throw new QuerySerializationException(String.format("Value '%s' of type %s can't be serialized.", value, value.getClass().getName()));
+            }
+        }
+    }
+
+    /**
+     * Reads nodes written by NodeWriter.
+     */
+    private static class Input {
+        private final ByteBuffer buffer;
+        private final List<String> strings = new ArrayList<>();
+        private int depth;
+
+        private Input(ByteBuffer buffer){
+            this.buffer = buffer;
+        }
+
+        private QueryNode readNode(){
+            int code = readVarInt();
+            switch(code){
+                case LOGICAL:
+                    return new LogicalNode(readOperator(), readChildren());
+                case COMPARISON:
+                    return new ComparisonNode(readOperator(), readString(), readValue());
+                case RANGE:
+                    return new RangeNode(readString(), readOperator(), readValue(), readOperator(), readValue());
+                case IN: {
+                    FunctionsMapping operator = readOperator();
+                    String field = readString();
+                    int size = readLength();
+                    List<Object> values = new ArrayList<>(size);
+                    for(int i=0;i<size;i++) values.add(readValue());
+                    return new InNode(operator, field, values);
+                }
+                case EXISTS:
+                    return new ExistsNode(readString(), buffer.get() != 0);
+                case TYPE:
+                    return new TypeNode(readString(), readString());
+                case SIZE:
+                    return new SizeNode(readString(), (int) unZigZag(readVarLong()));
+                case MOD:
+                    return new ModNode(readString(), readNumber(), readNumber());
+                case LIKE: {
+                    String field = readString();
+                    Object pattern = readValue();
+                    if(!(pattern instanceof String) && !(pattern instanceof QueryParameter)){
+                        throw new QuerySerializationException("LIKE pattern has to be string or query parameter.");
+                    }
+                    return new LikeNode(field, pattern);
+                }
+                case MATCHES:
+                    return new MatchesNode(readString(), readChildren());
+                case NOT:
+                    return new NotNode(readChild());
+                default:
+                    throw new QuerySerializationException(String.format("Unknown node code %d.", code));
+            }
+        }
+
+        private List<QueryNode> readChildren(){
+            int size = readLength();
+            List<QueryNode> children = new ArrayList<>(size);
+            for(int i=0;i<size;i++) children.add(readChild());
+            return children;
+        }
+
+        private QueryNode readChild(){
+            if(++depth > MAX_DEPTH) throw tooDeep();
+            QueryNode child = readNode();
+            depth--;
+            return child;
+        }
+
+        private Number readNumber(){
+            Object value = readValue();
+            if(!(value instanceof Number)) throw new QuerySerializationException("Argument of mod function has to be number.");
+            return (Number) value;
+        }
+
+        private FunctionsMapping readOperator(){
+            int code = readVarInt();
+            if(code >= OPERATORS.size()) throw new QuerySerializationException(String.format("Unknown operator code %d.", code));
+            return OPERATORS.get(code);
+        }
+
+        private Object readValue(){
+            int code = readVarInt();
+            switch(code){
+                case NULL: return null;
+                case STRING: return readString();
+                case INT32: return LiteralDecoder.integer((int) unZigZag(readVarLong()));
+                case INT64: return unZigZag(readVarLong());
+                case DOUBLE: return Double.longBitsToDouble(buffer.getLong());
+                case DECIMAL128: return Decimal128.fromIEEE754BIDEncoding(buffer.getLong(), buffer.getLong());
+                case DATE: return new Date(unZigZag(readVarLong()));
+                case TRUE: return Boolean.TRUE;
+                case FALSE: return Boolean.FALSE;
+                case PARAMETER: return new QueryParameter(readString());
+                default: throw new QuerySerializationException(String.format("Unknown value code %d.", code));
+            }
+        }
+
+        // 0 followed by UTF-8 bytes of new string, or number of string read before
+        private String readString(){
+            int reference = readVarInt();
+            if(reference > 0){
+                if(reference > strings.size()) throw new QuerySerializationException(String.format("Unknown string reference %d.", reference));
+                return strings.get(reference - 1);
+            }
+            byte[] bytes = new byte[readLength()];
+            buffer.get(bytes);
+            String value = new String(bytes, StandardCharsets.UTF_8);
+            strings.add(value);
+            return value;
+        }
+
+        // number of bytes or elements (each taking at least one byte), checked before anything is allocated for them
+        private int readLength(){
+            int length = readVarInt();
+            if(length > buffer.remaining()) throw new QuerySerializationException("Serialized query is truncated.");
+            return length;
+        }
+
+        private int readVarInt(){
+            long value = readVarLong();
+            if(value < 0 || value > Integer.MAX_VALUE) throw new QuerySerializationException("Variable length integer is out of range.");
+            return (int) value;
+        }
+
+        private long readVarLong(){
+            long value = 0;
+            for(int shift=0;shift<64;shift+=7){
+                byte b = buffer.get();
+                value |= (long) (b & 0x7F) << shift;
+                if(b >= 0) return value;
+            }
+            throw new QuerySerializationException("Variable length integer is too long.");
+        }
+    }
+
+    /**
+     * Growable byte array with variable length integers and strings written once.
+     */
+    static class Output {
+        private byte[] bytes = new byte[64];
+        private int size;
+        private final Map<String, Integer> strings = new HashMap<>();
+
+        void writeByte(int b){
+            if(size == bytes.length) bytes = Arrays.copyOf(bytes, size * 2);
+            bytes[size++] = (byte) b;
+        }
+
+        void writeBytes(byte[] data){
+            if(size + data.length > bytes.length) bytes = Arrays.copyOf(bytes, Math.max(size * 2, size + data.length));
+            System.arraycopy(data, 0, bytes, size, data.length);
+            size += data.length;
+        }
+
+        void writeLong(long value){
+            for(int shift=56;shift>=0;shift-=8) writeByte((int) (value >>> shift));
+        }
+
+        void writeVarInt(int value){
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+
+        void writeVarLong(long value){
+            while((value & ~0x7FL) != 0){
+                writeByte((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            writeByte((int) value);
+        }
+
+        void writeString(String value){
+            Integer reference = strings.get(value);
+            if(reference != null){
+                writeVarInt(reference);
+                return;
+            }
+            strings.put(value, strings.size() + 1);
+            byte[] data = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(0);
+            writeVarInt(data.length);
+            writeBytes(data);
+        }
+
+        int size(){
+            return size;
+        }
+
+        byte[] toByteArray(){
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+
+    private static QuerySerializationException tooDeep(){
+        return new QuerySerializationException(String.format("Query nodes are nested deeper than %d levels.", MAX_DEPTH));
+    }
+
+    private static long zigZag(long value){
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value){
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,358 @@
+package io.github.pwszpl.mongo.search.session;
+
+import io.github.pwszpl.mongo.parser.MongoSearchEngineParser;
+import io.github.pwszpl.mongo.parser.MongoSearchEngineParserConstants;
+import io.github.pwszpl.mongo.parser.MongoSearchEngineParserTokenManager;
+import io.github.pwszpl.mongo.parser.ParseException;
+import io.github.pwszpl.mongo.parser.Token;
+import io.github.pwszpl.mongo.parser.TokenMgrError;
+import io.github.pwszpl.mongo.search.ast.LikeMode;
+import io.github.pwszpl.mongo.search.ast.QueryNode;
+import io.github.pwszpl.mongo.search.ast.QueryNodeFactory;
+import io.github.pwszpl.mongo.search.transform.QueryTransformer;
+import io.github.pwszpl.mongo.search.util.CharSequenceStream;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parsing session of query changed by small edits, e.g. typed in search box. After each edit only tokens whose
+ * characters (including characters read ahead by lexer) were changed are read again, and only conditions containing
+ * changed tokens are parsed again - trees of remaining conditions are reused. Operators joining conditions are applied
+ * in the same way as by MongoSearchEngineParser, so resulting tree is equal to tree parsed from whole query.
+ * Queries whose and/or/nor structure is broken (e.g. unbalanced parentheses) are parsed from all tokens to report
+ * the same error as parser. Session is not thread safe.
+ */
+public class ParsingSession<R> {
+    private final QueryTransformer<R> transformer;
+    private final StringBuilder query = new StringBuilder();
+    private final CharSequenceStream stream = new CharSequenceStream();
+    private final MongoSearchEngineParserTokenManager lexer = new MongoSearchEngineParserTokenManager(stream);
+    private final ReplayTokenManager replay = new ReplayTokenManager();
+    private final MongoSearchEngineParser parser = new MongoSearchEngineParser(replay);
+    // tokens of query ending with EOF token, unless query has lexical error
+    private final List<Lexeme> lexemes = new ArrayList<>();
+    private TokenMgrError lexicalError;
+    private int lexicalErrorOffset;
+    // number of parsed versions of query, conditions checked while parsing previous version can be reused
+    private int generation;
+    // range of lexemes read during last edit
+    private int freshFrom;
+    private int freshTo;
+    private int parsedConditions;
+
+    public ParsingSession(QueryTransformer<R> transformer){
+        this.transformer = transformer;
+    }
+
+    /**
+     * Sets syntax of LIKE patterns, regular expressions are used by default. Conditions parsed before are discarded.
+     */
+    public void setLikeMode(LikeMode likeMode){
+        parser.setLikeMode(likeMode);
+        generation++;
+    }
+
+    /**
+     * Replaces whole query.
+     */
+    public SessionResult<R> setQuery(CharSequence query){
+        return edit(0, this.query.length(), query);
+    }
+
+    /**
+     * Replaces removedLength characters starting at offset with inserted text.
+     */
+    public SessionResult<R> edit(int offset, int removedLength, CharSequence inserted){
+        if(offset < 0 || removedLength < 0 || offset + removedLength > query.length()){
+            throw new IndexOutOfBoundsException(String.format("Edit of %d characters at offset %d is out of query of length %d.",
+                    removedLength, offset, query.length()));
+        }
+        query.replace(offset, offset + removedLength, inserted.toString());
+        relex(offset, removedLength, inserted.length());
+        return parse();
+    }
+
+    public String getQuery() {
+        return query.toString();
+    }
+
+    private void relex(int offset, int removedLength, int insertedLength){
+        int delta = insertedLength - removedLength;
+        int editEnd = offset + removedLength;
+        // first token which examined edited characters, lexing is restarted at its beginning
+        int first = 0;
+        while(first < lexemes.size() && lexemes.get(first).readLimit <= offset) first++;
+        int restart = first < lexemes.size() ? Math.min(lexemes.get(first).begin, offset) : first == 0 ? 0 : lexemes.get(first - 1).end();
+        // tokens following lexical error are unknown, so whole remaining query is read again
+        boolean resynchronize = lexicalError == null;
+        lexicalError = null;
+        stream.reset(query);
+        stream.seek(restart);
+        lexer.ReInit(stream);
+        List<Lexeme> fresh = new ArrayList<>();
+        int next = first;
+        while(true){
+            Token token;
+            try {
+                token = lexer.getNextToken();
+            } catch (TokenMgrError e) {
+                lexicalError = e;
+                lexicalErrorOffset = stream.getBeginOffset();
+                next = lexemes.size();
+                break;
+            }
+            int begin = token.kind == MongoSearchEngineParserConstants.EOF ? query.length() : stream.getBeginOffset();
+            if(resynchronize){
+                // remaining tokens are the same once token read again starts where unchanged token starts
+                while(next < lexemes.size() && (lexemes.get(next).begin < editEnd || lexemes.get(next).begin + delta < begin)) next++;
+                if(next < lexemes.size() && lexemes.get(next).begin + delta == begin && lexemes.get(next).token.kind == token.kind
+                        && lexemes.get(next).token.image.equals(token.image)) break;
+            }
+            fresh.add(new Lexeme(token, begin, stream.getReadLimit()));
+            if(token.kind == MongoSearchEngineParserConstants.EOF){
+                next = lexemes.size();
+                break;
+            }
+        }
+        lexemes.subList(first, next).clear();
+        lexemes.addAll(first, fresh);
+        freshFrom = first;
+        freshTo = first + fresh.size();
+        for(int i=freshTo;i<lexemes.size();i++){
+            Lexeme lexeme = lexemes.get(i);
+            lexeme.begin += delta;
+            lexeme.readLimit += delta;
+            lexeme.updatePosition(stream, query.length());
+        }
+    }
+
+    private SessionResult<R> parse(){
+        parsedConditions = 0;
+        generation++;
+        if(lexicalError == null){
+            try {
+                QueryNode tree = structure(0, lexemes.size() - 1, true);
+                if(tree != null) return SessionResult.valid(tree, transformer, freshTo - freshFrom, parsedConditions);
+            } catch (ParseException e) {
+                return invalid(e, e.currentToken.next != null ? e.currentToken.next : e.currentToken);
+            } catch (RuntimeException e) {
+                return invalid(e, parser.token);
+            }
+        }
+        replay.reset(lexemes, 0, lexicalError);
+        parser.ReInit(replay);
+        try {
+            return SessionResult.valid(parser.parseTree(), transformer, freshTo - freshFrom, parsedConditions);
+        } catch (ParseException e) {
+            return invalid(e, e.currentToken.next != null ? e.currentToken.next : e.currentToken);
+        } catch (TokenMgrError e) {
+            return SessionResult.invalid(e, lexicalErrorOffset, freshTo - freshFrom, parsedConditions);
+        } catch (RuntimeException e) {
+            return invalid(e, parser.token);
+        }
+    }
+
+    private SessionResult<R> invalid(Throwable error, Token token){
+        int offset = query.length();
+        for(Lexeme lexeme : lexemes){
+            if(lexeme.token == token) offset = lexeme.begin;
+        }
+        return SessionResult.invalid(error, offset, freshTo - freshFrom, parsedConditions);
+    }
+
+    /**
+     * Builds tree of and/or/nor operators joining conditions and parenthesised groups between given lexemes,
+     * as NorExpression (or OrExpression inside parentheses) production of parser does.
+     * @return null if operators or parentheses are misplaced
+     */
+    private QueryNode structure(int from, int to, boolean top) throws ParseException {
+        Chain chain = new Chain();
+        int i = from;
+        while(true){
+            if(i >= to) return null;
+            int end;
+            if(kind(i) == MongoSearchEngineParserConstants.L_PAR){
+                end = closingParenthesis(i, to);
+                if(end < 0) return null;
+                QueryNode group = structure(i + 1, end - 1, false);
+                if(group == null) return null;
+                chain.add(group);
+            } else {
+                int depth = 0;
+                for(end = i; end < to && (depth > 0 || !isOperator(kind(end))); end++){
+                    if(kind(end) == MongoSearchEngineParserConstants.L_PAR) depth++;
+                    if(kind(end) == MongoSearchEngineParserConstants.R_PAR && --depth < 0) return null;
+                }
+                if(end == i) return null;
+                QueryNode condition = condition(i, end);
+                if(condition == null) return null;
+                chain.add(condition);
+            }
+            if(end == to) break;
+            if(!isOperator(kind(end)) || (!top && kind(end) == MongoSearchEngineParserConstants.NOR)) return null;
+            chain.add(lexemes.get(end).token);
+            i = end + 1;
+        }
+        return chain.build();
+    }
+
+    /**
+     * Parses condition between given lexemes with LogicalExpression production, unless it was parsed before.
+     * @return null if production ends before last lexeme of condition
+     */
+    private QueryNode condition(int from, int to) throws ParseException {
+        Lexeme first = lexemes.get(from);
+        Token last = lexemes.get(to - 1).token;
+        Condition condition = first.condition;
+        // lexemes between first and last one of condition checked before last edit are the same, unless edit was between them
+        if(condition == null || condition.generation != generation - 1 || condition.last != last
+                || (to > freshFrom && from < freshTo) || (from < freshFrom && to > freshFrom)){
+            replay.reset(lexemes, from, null);
+            parser.ReInit(replay);
+            QueryNode node = parser.LogicalExpression();
+            if(parser.token != last) return null;
+            condition = new Condition(last, node);
+            first.condition = condition;
+            parsedConditions++;
+        }
+        condition.generation = generation;
+        return condition.node;
+    }
+
+    private int closingParenthesis(int from, int to){
+        int depth = 0;
+        for(int i=from;i<to;i++){
+            if(kind(i) == MongoSearchEngineParserConstants.L_PAR) depth++;
+            if(kind(i) == MongoSearchEngineParserConstants.R_PAR && --depth == 0) return i + 1;
+        }
+        return -1;
+    }
+
+    private int kind(int index){
+        return lexemes.get(index).token.kind;
+    }
+
+    private static boolean isOperator(int kind){
+        return kind == MongoSearchEngineParserConstants.AND || kind == MongoSearchEngineParserConstants.OR
+                || kind == MongoSearchEngineParserConstants.NOR;
+    }
+
+    /**
+     * Token with its offset in query.
+     */
+    private static class Lexeme {
+        private final Token token;
+        private int begin;
+        // offset following furthest character examined by lexer while reading token
+        private int readLimit;
+        // condition starting with token
+        private Condition condition;
+
+        private Lexeme(Token token, int begin, int readLimit){
+            this.token = token;
+            this.begin = begin;
+            this.readLimit = readLimit;
+        }
+
+        private int end(){
+            return begin + token.image.length();
+        }
+
+        private void updatePosition(CharSequenceStream stream, int queryLength){
+            // as in CharSequenceStream, EOF token is placed at last character of query
+            int first = token.kind == MongoSearchEngineParserConstants.EOF ? queryLength - 1 : begin;
+            int last = Math.max(first, end() - 1);
+            token.beginLine = stream.lineOf(first);
+            token.beginColumn = stream.columnOf(first);
+            token.endLine = stream.lineOf(last);
+            token.endColumn = stream.columnOf(last);
+        }
+    }
+
+    /**
+     * Operands of and/or/nor operators in order of appearance, joined as by AndExpression, OrExpression
+     * and NorExpression productions.
+     */
+    private static class Chain {
+        private final List<QueryNode> and = new ArrayList<>();
+        private final List<QueryNode> or = new ArrayList<>();
+        private final List<QueryNode> nor = new ArrayList<>();
+        private Token andOperator;
+        private Token orOperator;
+        private Token norOperator;
+
+        private void add(QueryNode operand){
+            and.add(operand);
+        }
+
+        private void add(Token operator){
+            if(operator.kind == MongoSearchEngineParserConstants.AND){
+                andOperator = operator;
+                return;
+            }
+            or.add(join(and, andOperator));
+            if(operator.kind == MongoSearchEngineParserConstants.OR){
+                orOperator = operator;
+                return;
+            }
+            nor.add(join(or, orOperator));
+            norOperator = operator;
+        }
+
+        private QueryNode build(){
+            or.add(join(and, andOperator));
+            nor.add(join(or, orOperator));
+            return join(nor, norOperator);
+        }
+
+        // logical nodes copy operands, so list is cleared for next operands
+        private static QueryNode join(List<QueryNode> operands, Token operator){
+            QueryNode result = operands.size() == 1 ? operands.get(0) : QueryNodeFactory.logical(operator, operands);
+            operands.clear();
+            return result;
+        }
+    }
+
+    private static class Condition {
+        private final Token last;
+        private final QueryNode node;
+        private int generation;
+
+        private Condition(Token last, QueryNode node){
+            this.last = last;
+            this.node = node;
+        }
+    }
+
+    /**
+     * Token manager returning tokens read before, starting at given lexeme and ending with EOF token or lexical error.
+     */
+    private static class ReplayTokenManager extends MongoSearchEngineParserTokenManager {
+        private List<Lexeme> lexemes;
+        private int next;
+        private TokenMgrError error;
+
+        private ReplayTokenManager(){
+            super(new CharSequenceStream());
+        }
+
+        private void reset(List<Lexeme> lexemes, int from, TokenMgrError error){
+            this.lexemes = lexemes;
+            this.next = from;
+            this.error = error;
+        }
+
+        @Override
+        public Token getNextToken() {
+            if(next < lexemes.size()){
+                Token token = lexemes.get(next++).token;
+                // links to following tokens are left by previous parsing
+                token.next = null;
+                return token;
+            }
+            if(error != null) throw error;
+            return lexemes.get(lexemes.size() - 1).token;
+        }
+    }
+}
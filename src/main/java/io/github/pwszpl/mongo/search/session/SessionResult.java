@@ -0,0 +1,82 @@
+package io.github.pwszpl.mongo.search.session;
+
+import io.github.pwszpl.mongo.search.ast.QueryNode;
+import io.github.pwszpl.mongo.search.transform.QueryTransformer;
+
+/**
+ * State of query after edit in parsing session - query tree and filter, or error with its position in query.
+ */
+public class SessionResult<R> {
+    private final QueryNode tree;
+    private final QueryTransformer<R> transformer;
+    private final Throwable error;
+    private final int errorOffset;
+    private final int lexedTokens;
+    private final int parsedConditions;
+    private R filter;
+
+    private SessionResult(QueryNode tree, QueryTransformer<R> transformer, Throwable error, int errorOffset,
+                          int lexedTokens, int parsedConditions){
+        this.tree = tree;
+        this.transformer = transformer;
+        this.error = error;
+        this.errorOffset = errorOffset;
+        this.lexedTokens = lexedTokens;
+        this.parsedConditions = parsedConditions;
+    }
+
+    static <R> SessionResult<R> valid(QueryNode tree, QueryTransformer<R> transformer, int lexedTokens, int parsedConditions){
+        return new SessionResult<>(tree, transformer, null, -1, lexedTokens, parsedConditions);
+    }
+
+    static <R> SessionResult<R> invalid(Throwable error, int errorOffset, int lexedTokens, int parsedConditions){
+        return new SessionResult<>(null, null, error, errorOffset, lexedTokens, parsedConditions);
+    }
+
+    public boolean isValid() {
+        return error == null;
+    }
+
+    /**
+     * @return query tree, null if query is invalid
+     */
+    public QueryNode getTree() {
+        return tree;
+    }
+
+    /**
+     * @return query tree transformed with transformer of session on first call, null if query is invalid
+     */
+    public R getFilter() {
+        if(filter == null && tree != null) filter = tree.accept(transformer);
+        return filter;
+    }
+
+    /**
+     * @return ParseException, TokenMgrError or RuntimeException thrown while parsing query, null if query is valid
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    /**
+     * @return offset of first character of token at which parsing failed, -1 if query is valid
+     */
+    public int getErrorOffset() {
+        return errorOffset;
+    }
+
+    /**
+     * @return number of tokens read from query characters during this edit
+     */
+    public int getLexedTokens() {
+        return lexedTokens;
+    }
+
+    /**
+     * @return number of conditions (comparisons and functions) parsed during this edit, remaining ones were reused
+     */
+    public int getParsedConditions() {
+        return parsedConditions;
+    }
+}
@@ -0,0 +1,60 @@
+package io.github.pwszpl.mongo.search.spring;
+
+import io.github.pwszpl.mongo.search.transform.PreparedQuery;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.repository.query.AbstractMongoQuery;
+import org.springframework.data.mongodb.repository.query.ConvertingParameterAccessor;
+import org.springframework.data.mongodb.repository.query.MongoQueryMethod;
+import org.springframework.data.repository.query.QueryMethodEvaluationContextProvider;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+/**
+ * Repository query of method annotated with SearchQuery. Expression is parsed once, on each call
+ * only method parameters are bound to prepared query.
+ */
+public class SearchMongoQuery extends AbstractMongoQuery {
+    private static final SpelExpressionParser EXPRESSION_PARSER = new SpelExpressionParser();
+
+    private final SearchQuery annotation;
+    private final PreparedQuery prepared;
+    private final int parameterCount;
+
+    public SearchMongoQuery(MongoQueryMethod method, SearchQuery annotation, MongoOperations operations,
+                            QueryMethodEvaluationContextProvider evaluationContextProvider){
+        super(method, operations, EXPRESSION_PARSER, evaluationContextProvider);
+        this.annotation = annotation;
+        this.parameterCount = method.getParameters().getBindableParameters().getNumberOfParameters();
+        this.prepared = SearchQueryCompiler.compile(annotation.value(), parameterCount, "method " + method);
+    }
+
+    @Override
+    protected Query createQuery(ConvertingParameterAccessor accessor) {
+        Object[] values = new Object[parameterCount];
+        for(int i=0;i<parameterCount;i++){
+            values[i] = accessor.getBindableValue(i);
+        }
+        return new Query((Criteria) prepared.bind(values)).with(accessor.getSort());
+    }
+
+    @Override
+    protected boolean isCountQuery() {
+        return annotation.count();
+    }
+
+    @Override
+    protected boolean isExistsQuery() {
+        return annotation.exists();
+    }
+
+    @Override
+    protected boolean isDeleteQuery() {
+        return annotation.delete();
+    }
+
+    @Override
+    protected boolean isLimiting() {
+        return false;
+    }
+}
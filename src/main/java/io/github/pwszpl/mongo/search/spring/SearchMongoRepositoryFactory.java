@@ -0,0 +1,37 @@
+package io.github.pwszpl.mongo.search.spring;
+
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.repository.query.MongoQueryMethod;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.query.QueryLookupStrategy;
+import org.springframework.data.repository.query.QueryMethodEvaluationContextProvider;
+
+import java.util.Optional;
+
+/**
+ * Repository factory resolving methods annotated with SearchQuery to SearchMongoQuery,
+ * remaining methods are resolved by default Spring Data MongoDB strategy.
+ */
+public class SearchMongoRepositoryFactory extends MongoRepositoryFactory {
+    private final MongoOperations operations;
+
+    public SearchMongoRepositoryFactory(MongoOperations operations){
+        super(operations);
+        this.operations = operations;
+    }
+
+    @Override
+    protected Optional<QueryLookupStrategy> getQueryLookupStrategy(QueryLookupStrategy.Key key, QueryMethodEvaluationContextProvider evaluationContextProvider) {
+        Optional<QueryLookupStrategy> defaultStrategy = super.getQueryLookupStrategy(key, evaluationContextProvider);
+        return Optional.of((method, metadata, projectionFactory, namedQueries) -> {
+            SearchQuery annotation = method.getAnnotation(SearchQuery.class);
+            if(annotation != null){
+                MongoQueryMethod queryMethod = new MongoQueryMethod(method, metadata, projectionFactory, operations.getConverter().getMappingContext());
+                return new SearchMongoQuery(queryMethod, annotation, operations, evaluationContextProvider);
+            }
+            return defaultStrategy
+                    .orElseThrow(() -> new RuntimeException(String.format("No query lookup strategy for method %s.", method)))
+                    .resolveQuery(method, metadata, projectionFactory, namedQueries);
+        });
+    }
+}
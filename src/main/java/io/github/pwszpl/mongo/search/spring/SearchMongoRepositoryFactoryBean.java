@@ -0,0 +1,23 @@
+package io.github.pwszpl.mongo.search.spring;
+
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactoryBean;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.core.support.RepositoryFactorySupport;
+
+import java.io.Serializable;
+
+/**
+ * Factory bean of repositories supporting SearchQuery methods, to be set as repositoryFactoryBeanClass
+ * of {@code @EnableMongoRepositories}.
+ */
+public class SearchMongoRepositoryFactoryBean<T extends Repository<S, ID>, S, ID extends Serializable> extends MongoRepositoryFactoryBean<T, S, ID> {
+    public SearchMongoRepositoryFactoryBean(Class<? extends T> repositoryInterface){
+        super(repositoryInterface);
+    }
+
+    @Override
+    protected RepositoryFactorySupport getFactoryInstance(MongoOperations operations) {
+        return new SearchMongoRepositoryFactory(operations);
+    }
+}
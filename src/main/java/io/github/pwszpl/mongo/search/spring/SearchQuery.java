@@ -0,0 +1,35 @@
+package io.github.pwszpl.mongo.search.spring;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Search expression of Spring Data repository method, e.g. @SearchQuery("name = ?0 and price < ?1").
+ * Token ?N is bound with N-th method parameter (Pageable and Sort parameters are not counted).
+ * Expression is compiled once when repository is created, so invalid expression fails application startup.
+ * Repositories have to be enabled with {@code @EnableMongoRepositories(repositoryFactoryBeanClass = SearchMongoRepositoryFactoryBean.class)}.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface SearchQuery {
+    String value();
+
+    /**
+     * @return true if method returns number of matching documents
+     */
+    boolean count() default false;
+
+    /**
+     * @return true if method returns whether any document matches
+     */
+    boolean exists() default false;
+
+    /**
+     * @return true if matching documents are deleted
+     */
+    boolean delete() default false;
+}
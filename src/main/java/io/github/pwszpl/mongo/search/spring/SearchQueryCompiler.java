@@ -0,0 +1,42 @@
+package io.github.pwszpl.mongo.search.spring;
+
+import io.github.pwszpl.mongo.parser.MongoSearchEngineParser;
+import io.github.pwszpl.mongo.parser.ParseException;
+import io.github.pwszpl.mongo.parser.TokenMgrError;
+import io.github.pwszpl.mongo.search.transform.CriteriaTransformer;
+import io.github.pwszpl.mongo.search.transform.PreparedQuery;
+
+/**
+ * Compiles search expressions into prepared Criteria queries, reporting syntax errors and parameters
+ * without corresponding method parameter.
+ */
+class SearchQueryCompiler {
+    private SearchQueryCompiler(){
+    }
+
+    /**
+     * @param parameterCount number of values bound to query, negative if unknown
+     * @param source description of expression origin used in error message (e.g. repository method)
+     */
+    static PreparedQuery compile(String expression, int parameterCount, String source){
+        PreparedQuery prepared;
+        try {
+            MongoSearchEngineParser parser = new MongoSearchEngineParser(expression);
+            parser.setCriteraMode();
+            prepared = parser.prepare();
+        } catch (ParseException | TokenMgrError e) {
+            throw new RuntimeException(String.format("Invalid search query '%s' of %s: %s", expression, source, e.getMessage()), e);
+        }
+        if(parameterCount >= 0){
+            // trial bind checking that each ?N has its value
+            prepared.getRoot().accept(new CriteriaTransformer().withBinding(parameter -> {
+                if(parameter.getIndex() >= parameterCount){
+                    throw new RuntimeException(String.format("Search query '%s' of %s uses parameter %s, but only %d parameters are bound.",
+                            expression, source, parameter.getImage(), parameterCount));
+                }
+                return parameter.getImage();
+            }));
+        }
+        return prepared;
+    }
+}
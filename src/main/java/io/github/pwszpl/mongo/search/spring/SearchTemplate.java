@@ -0,0 +1,71 @@
+package io.github.pwszpl.mongo.search.spring;
+
+import io.github.pwszpl.mongo.search.transform.PreparedQuery;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * MongoOperations extension executing named search expressions. Expressions are declared once (e.g. when template
+ * bean is created) and compiled immediately, so invalid expression fails application startup:
+ * <pre>
+ * &#64;Bean
+ * SearchTemplate searchTemplate(MongoTemplate mongoTemplate){
+ *     return new SearchTemplate(mongoTemplate).declare("cheapProducts", "category = ?0 and price &lt; ?1", 2);
+ * }
+ * </pre>
+ * Instances are thread-safe.
+ */
+public class SearchTemplate {
+    private final MongoOperations operations;
+    private final Map<String, PreparedQuery> queries = new ConcurrentHashMap<>();
+
+    public SearchTemplate(MongoOperations operations){
+        this.operations = operations;
+    }
+
+    /**
+     * Compiles expression and stores it under given name.
+     * @param parameterCount number of values bound to expression, used to check ?N tokens
+     */
+    public SearchTemplate declare(String name, String expression, int parameterCount){
+        queries.put(name, SearchQueryCompiler.compile(expression, parameterCount, "declared query " + name));
+        return this;
+    }
+
+    /**
+     * Compiles expression without checking number of its parameters.
+     */
+    public SearchTemplate declare(String name, String expression){
+        return declare(name, expression, -1);
+    }
+
+    /**
+     * @return query of named expression with bound values
+     */
+    public Query query(String name, Object... values){
+        PreparedQuery prepared = queries.get(name);
+        if(prepared == null) throw new RuntimeException(String.format("Search query '%s' is not declared.", name));
+        return new Query((Criteria) prepared.bind(values));
+    }
+
+    public <T> List<T> find(String name, Class<T> entityClass, Object... values){
+        return operations.find(query(name, values), entityClass);
+    }
+
+    public <T> T findOne(String name, Class<T> entityClass, Object... values){
+        return operations.findOne(query(name, values), entityClass);
+    }
+
+    public long count(String name, Class<?> entityClass, Object... values){
+        return operations.count(query(name, values), entityClass);
+    }
+
+    public MongoOperations getOperations() {
+        return operations;
+    }
+}
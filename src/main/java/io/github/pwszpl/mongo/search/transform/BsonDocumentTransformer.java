@@ -0,0 +1,393 @@
+package io.github.pwszpl.mongo.search.transform;
+
+import com.mongodb.MongoClientSettings;
+import io.github.pwszpl.mongo.search.ast.ComparisonNode;
+import io.github.pwszpl.mongo.search.ast.ExistsNode;
+import io.github.pwszpl.mongo.search.ast.InNode;
+import io.github.pwszpl.mongo.search.ast.LikeNode;
+import io.github.pwszpl.mongo.search.ast.LogicalNode;
+import io.github.pwszpl.mongo.search.ast.MatchesNode;
+import io.github.pwszpl.mongo.search.ast.ModNode;
+import io.github.pwszpl.mongo.search.ast.NotNode;
+import io.github.pwszpl.mongo.search.ast.QueryNode;
+import io.github.pwszpl.mongo.search.ast.QueryVisitor;
+import io.github.pwszpl.mongo.search.ast.RangeNode;
+import io.github.pwszpl.mongo.search.ast.SizeNode;
+import io.github.pwszpl.mongo.search.ast.TypeNode;
+import org.bson.BsonArray;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonRegularExpression;
+import org.bson.BsonValue;
+import org.bson.BsonWriter;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Encoder;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.conversions.Bson;
+import org.bson.io.BasicOutputBuffer;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Transforms parsed query tree directly into BsonDocument (or RawBsonDocument), without creating Filters objects.
+ * Resulting document is identical to the one rendered by Filters object created by FiltersTransformer.
+ */
+public class BsonDocumentTransformer implements QueryTransformer<BsonDocument> {
+    private static final EncoderContext ENCODER_CONTEXT = EncoderContext.builder().build();
+    private static final ThreadLocal<BasicOutputBuffer> buffers = ThreadLocal.withInitial(BasicOutputBuffer::new);
+
+    private final Function<QueryParameter, Object> binding;
+    private final CodecRegistry codecRegistry;
+    private final boolean raw;
+
+    /**
+     * Creates transformer returning RawBsonDocument encoded with default codec registry.
+     */
+    public BsonDocumentTransformer(){
+        this(true);
+    }
+
+    /**
+     * @param raw if true RawBsonDocument is returned, otherwise BsonDocument
+     */
+    public BsonDocumentTransformer(boolean raw){
+        this(QueryParameter.LITERAL, MongoClientSettings.getDefaultCodecRegistry(), raw);
+    }
+
+    /**
+     * @param codecRegistry registry used to encode literals and bound parameter values
+     */
+    public BsonDocumentTransformer(Function<QueryParameter, Object> binding, CodecRegistry codecRegistry, boolean raw){
+        this.binding = binding;
+        this.codecRegistry = codecRegistry;
+        this.raw = raw;
+    }
+
+    @Override
+    public QueryTransformer<BsonDocument> withBinding(Function<QueryParameter, Object> binding) {
+        return new BsonDocumentTransformer(binding, codecRegistry, raw);
+    }
+
+    /**
+     * Writes filter document for query tree into given writer.
+     */
+    public void write(QueryNode node, BsonWriter writer){
+        node.accept(new NodeWriter(writer));
+    }
+
+    private BsonDocument transform(QueryNode node){
+        if(!raw){
+            BsonDocument document = new BsonDocument();
+            write(node, new BsonDocumentWriter(document));
+            return document;
+        }
+        // buffer is reused by subsequent transformations in the same thread, only final bytes are copied
+        BasicOutputBuffer buffer = buffers.get();
+        buffer.truncateToPosition(0);
+        try (BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+            write(node, writer);
+        }
+        return new RawBsonDocument(buffer.toByteArray());
+    }
+
+    @Override
+    public BsonDocument visitLogical(LogicalNode node) {
+        return transform(node);
+    }
+
+    @Override
+    public BsonDocument visitComparison(ComparisonNode node) {
+        return transform(node);
+    }
+
+    @Override
+    public BsonDocument visitRange(RangeNode node) {
+        return transform(node);
+    }
+
+    @Override
+    public BsonDocument visitIn(InNode node) {
+        return transform(node);
+    }
+
+    @Override
+    public BsonDocument visitExists(ExistsNode node) {
+        return transform(node);
+    }
+
+    @Override
+    public BsonDocument visitType(TypeNode node) {
+        return transform(node);
+    }
+
+    @Override
+    public BsonDocument visitSize(SizeNode node) {
+        return transform(node);
+    }
+
+    @Override
+    public BsonDocument visitMod(ModNode node) {
+        return transform(node);
+    }
+
+    @Override
+    public BsonDocument visitLike(LikeNode node) {
+        return transform(node);
+    }
+
+    @Override
+    public BsonDocument visitMatches(MatchesNode node) {
+        return transform(node);
+    }
+
+    @Override
+    public BsonDocument visitNot(NotNode node) {
+        return transform(node);
+    }
+
+    /**
+     * Writes single filter document for each visited node.
+     */
+    private class NodeWriter implements QueryVisitor<Void> {
+        private final BsonWriter writer;
+
+        NodeWriter(BsonWriter writer){
+            this.writer = writer;
+        }
+
+        @Override
+        public Void visitLogical(LogicalNode node) {
+            writer.writeStartDocument();
+            writer.writeStartArray("$" + node.getOperator().getFiltersFunction());
+            for(QueryNode child : node.getChildren()){
+                child.accept(this);
+            }
+            writer.writeEndArray();
+            writer.writeEndDocument();
+            return null;
+        }
+
+        @Override
+        public Void visitComparison(ComparisonNode node) {
+            return writeField(node.getField(), node);
+        }
+
+        @Override
+        public Void visitRange(RangeNode node) {
+            return writeField(node.getField(), node);
+        }
+
+        @Override
+        public Void visitIn(InNode node) {
+            return writeField(node.getField(), node);
+        }
+
+        @Override
+        public Void visitExists(ExistsNode node) {
+            return writeField(node.getField(), node);
+        }
+
+        @Override
+        public Void visitType(TypeNode node) {
+            return writeField(node.getField(), node);
+        }
+
+        @Override
+        public Void visitSize(SizeNode node) {
+            return writeField(node.getField(), node);
+        }
+
+        @Override
+        public Void visitMod(ModNode node) {
+            return writeField(node.getField(), node);
+        }
+
+        @Override
+        public Void visitLike(LikeNode node) {
+            return writeField(node.getField(), node);
+        }
+
+        @Override
+        public Void visitMatches(MatchesNode node) {
+            return writeField(node.getField(), node);
+        }
+
+        @Override
+        public Void visitNot(NotNode node) {
+            QueryNode child = node.getChild();
+            String field = getNegatableField(child);
+            if(field != null){
+                writer.writeStartDocument();
+                writer.writeName(field);
+                writer.writeStartDocument();
+                writer.writeName("$not");
+                writeFieldValue(child);
+                writer.writeEndDocument();
+                writer.writeEndDocument();
+            } else {
+                BsonDocument childDocument = new BsonDocument();
+                child.accept(new NodeWriter(new BsonDocumentWriter(childDocument)));
+                encodeValue(writer, negate(childDocument));
+            }
+            return null;
+        }
+
+        private Void writeField(String field, QueryNode node){
+            writer.writeStartDocument();
+            writer.writeName(field);
+            writeFieldValue(node);
+            writer.writeEndDocument();
+            return null;
+        }
+
+        /**
+         * Writes value compared with field, e.g. {$gt: 1} for field > 1.
+         */
+        private void writeFieldValue(QueryNode node){
+            if(node instanceof RangeNode){
+                writeRange((RangeNode) node);
+                return;
+            }
+            switch (node.getOperator()){
+                case EQ:
+                    encodeValue(writer, QueryParameter.resolve(((ComparisonNode) node).getValue(), binding));
+                    break;
+                case NE:
+                case GT:
+                case GE:
+                case LT:
+                case LE:
+                    writer.writeStartDocument();
+                    writer.writeName("$" + node.getOperator().getFiltersFunction());
+                    encodeValue(writer, QueryParameter.resolve(((ComparisonNode) node).getValue(), binding));
+                    writer.writeEndDocument();
+                    break;
+                case IN:
+                case NIN:
+                case ALL:
+                    writer.writeStartDocument();
+                    writer.writeStartArray("$" + node.getOperator().getFiltersFunction());
+                    for(Object value : QueryParameter.resolveAll(((InNode) node).getValues(), binding)){
+                        encodeValue(writer, value);
+                    }
+                    writer.writeEndArray();
+                    writer.writeEndDocument();
+                    break;
+                case EXISTS:
+                    writer.writeStartDocument();
+                    writer.writeBoolean("$exists", ((ExistsNode) node).isExists());
+                    writer.writeEndDocument();
+                    break;
+                case TYPE:
+                    writer.writeStartDocument();
+                    writer.writeString("$type", ((TypeNode) node).getType());
+                    writer.writeEndDocument();
+                    break;
+                case SIZE:
+                    writer.writeStartDocument();
+                    writer.writeInt32("$size", ((SizeNode) node).getSize());
+                    writer.writeEndDocument();
+                    break;
+                case MOD:
+                    writer.writeStartDocument();
+                    writer.writeStartArray("$mod");
+                    writer.writeInt64(((ModNode) node).getDivisor().longValue());
+                    writer.writeInt64(((ModNode) node).getRemainder().longValue());
+                    writer.writeEndArray();
+                    writer.writeEndDocument();
+                    break;
+                case LIKE:
+                    writer.writeRegularExpression(new BsonRegularExpression((String) QueryParameter.resolve(((LikeNode) node).getPattern(), binding)));
+                    break;
+                case MATCHES:
+                    writer.writeStartDocument();
+                    writer.writeName("$elemMatch");
+                    writeConditions(((MatchesNode) node));
+                    writer.writeEndDocument();
+                    break;
+                default:
+                    throw new RuntimeException(String.format("Operator '%s' is not supported for field comparision.", node.getOperator()));
+            }
+        }
+
+        private void writeRange(RangeNode node){
+            writer.writeStartDocument();
+            writer.writeName("$" + node.getLowerOperator().getFiltersFunction());
+            encodeValue(writer, QueryParameter.resolve(node.getLowerBound(), binding));
+            writer.writeName("$" + node.getUpperOperator().getFiltersFunction());
+            encodeValue(writer, QueryParameter.resolve(node.getUpperBound(), binding));
+            writer.writeEndDocument();
+        }
+
+        private void writeConditions(MatchesNode node){
+            if(node.getConditions().size() > 1){
+                new LogicalNode(FunctionsMapping.AND, node.getConditions()).accept(this);
+            } else {
+                node.getConditions().get(0).accept(this);
+            }
+        }
+    }
+
+    /**
+     * @return field name of node, which negation can be written as {field: {$not: value}}, or null for other nodes
+     */
+    private static String getNegatableField(QueryNode node){
+        if(node instanceof ComparisonNode && node.getOperator() != FunctionsMapping.EQ) return ((ComparisonNode) node).getField();
+        if(node instanceof RangeNode) return ((RangeNode) node).getField();
+        if(node instanceof InNode) return ((InNode) node).getField();
+        if(node instanceof ExistsNode) return ((ExistsNode) node).getField();
+        if(node instanceof TypeNode) return ((TypeNode) node).getField();
+        if(node instanceof SizeNode) return ((SizeNode) node).getField();
+        if(node instanceof ModNode) return ((ModNode) node).getField();
+        if(node instanceof LikeNode) return ((LikeNode) node).getField();
+        if(node instanceof MatchesNode) return ((MatchesNode) node).getField();
+        return null;
+    }
+
+    /**
+     * Negates filter document the same way as Filters.not does.
+     */
+    private static BsonDocument negate(BsonDocument document){
+        if(document.size() != 1) {
+            BsonArray values = new BsonArray();
+            for(Map.Entry<String, BsonValue> entry : document.entrySet()){
+                values.add(new BsonDocument(entry.getKey(), entry.getValue()));
+            }
+            return new BsonDocument("$not", new BsonDocument("$and", values));
+        }
+        Map.Entry<String, BsonValue> entry = document.entrySet().iterator().next();
+        String field = entry.getKey();
+        BsonValue value = entry.getValue();
+        if(field.startsWith("$")){
+            return new BsonDocument("$not", new BsonDocument(field, value));
+        }
+        if((value.isDocument() && containsOperator(value.asDocument())) || value.isRegularExpression()){
+            return new BsonDocument(field, new BsonDocument("$not", value));
+        }
+        return new BsonDocument(field, new BsonDocument("$not", new BsonDocument("$eq", value)));
+    }
+
+    private static boolean containsOperator(BsonDocument document){
+        // DBRef documents are compared by value
+        if(document.containsKey("$ref") && document.containsKey("$id")
+                && (document.size() == 2 || (document.size() == 3 && document.containsKey("$db")))) return false;
+        for(String key : document.keySet()){
+            if(key.startsWith("$")) return true;
+        }
+        return false;
+    }
+
+    private void encodeValue(BsonWriter writer, Object value){
+        if(value == null){
+            writer.writeNull();
+        } else if(value instanceof Bson){
+            BsonDocument document = ((Bson) value).toBsonDocument(BsonDocument.class, codecRegistry);
+            codecRegistry.get(BsonDocument.class).encode(writer, document, ENCODER_CONTEXT);
+        } else {
+            ((Encoder) codecRegistry.get(value.getClass())).encode(writer, value, ENCODER_CONTEXT);
+        }
+    }
+}
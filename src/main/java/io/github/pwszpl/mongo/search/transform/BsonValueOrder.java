@@ -0,0 +1,178 @@
+package io.github.pwszpl.mongo.search.transform;
+
+import org.bson.BsonArray;
+import org.bson.BsonBinary;
+import org.bson.BsonDocument;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.types.Decimal128;
+
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Comparison order of BSON values used by MongoDB server. Values of different types are ordered by type bracket
+ * (all numeric types and string/symbol share brackets), values of the same bracket by value.
+ */
+final class BsonValueOrder {
+    private BsonValueOrder(){}
+
+    static int bracketOf(BsonType type){
+        switch (type){
+            case MIN_KEY: return 0;
+            case NULL:
+            case UNDEFINED: return 1;
+            case INT32:
+            case INT64:
+            case DOUBLE:
+            case DECIMAL128: return 2;
+            case STRING:
+            case SYMBOL: return 3;
+            case DOCUMENT: return 4;
+            case ARRAY: return 5;
+            case BINARY: return 6;
+            case OBJECT_ID: return 7;
+            case BOOLEAN: return 8;
+            case DATE_TIME: return 9;
+            case TIMESTAMP: return 10;
+            case REGULAR_EXPRESSION: return 11;
+            case DB_POINTER: return 12;
+            case JAVASCRIPT: return 13;
+            case JAVASCRIPT_WITH_SCOPE: return 14;
+            default: return 15;
+        }
+    }
+
+    static boolean isSameBracket(BsonValue a, BsonValue b){
+        return bracketOf(a.getBsonType()) == bracketOf(b.getBsonType());
+    }
+
+    static boolean isEqual(BsonValue a, BsonValue b){
+        return isSameBracket(a, b) && compare(a, b) == 0;
+    }
+
+    static int compare(BsonValue a, BsonValue b){
+        int bracket = Integer.compare(bracketOf(a.getBsonType()), bracketOf(b.getBsonType()));
+        if(bracket != 0) return bracket;
+        switch (a.getBsonType()){
+            case MIN_KEY:
+            case MAX_KEY:
+            case NULL:
+            case UNDEFINED: return 0;
+            case INT32:
+            case INT64:
+            case DOUBLE:
+            case DECIMAL128: return compareNumbers(a, b);
+            case STRING:
+            case SYMBOL: return compareStrings(stringValue(a), stringValue(b));
+            case DOCUMENT: return compareDocuments(a.asDocument(), b.asDocument());
+            case ARRAY: return compareArrays(a.asArray(), b.asArray());
+            case BINARY: return compareBinaries(a.asBinary(), b.asBinary());
+            case OBJECT_ID: return a.asObjectId().getValue().compareTo(b.asObjectId().getValue());
+            case BOOLEAN: return Boolean.compare(a.asBoolean().getValue(), b.asBoolean().getValue());
+            case DATE_TIME: return Long.compare(a.asDateTime().getValue(), b.asDateTime().getValue());
+            case TIMESTAMP: return a.asTimestamp().compareTo(b.asTimestamp());
+            case REGULAR_EXPRESSION:
+                int pattern = compareStrings(a.asRegularExpression().getPattern(), b.asRegularExpression().getPattern());
+                return pattern != 0 ? pattern : compareStrings(a.asRegularExpression().getOptions(), b.asRegularExpression().getOptions());
+            default: return a.equals(b) ? 0 : compareStrings(a.toString(), b.toString());
+        }
+    }
+
+    static String stringValue(BsonValue value){
+        return value.isSymbol() ? value.asSymbol().getSymbol() : value.asString().getValue();
+    }
+
+    static boolean isNumber(BsonValue value){
+        return bracketOf(value.getBsonType()) == 2;
+    }
+
+    private static int compareNumbers(BsonValue a, BsonValue b){
+        if(isIntegral(a) && isIntegral(b)) return Long.compare(a.asNumber().longValue(), b.asNumber().longValue());
+        double da = doubleValue(a);
+        double db = doubleValue(b);
+        // NaN is equal to NaN and lower than any other number
+        if(Double.isNaN(da) || Double.isNaN(db)) return Boolean.compare(!Double.isNaN(da), !Double.isNaN(db));
+        if(Double.isInfinite(da) || Double.isInfinite(db)) return Double.compare(da, db);
+        return toBigDecimal(a).compareTo(toBigDecimal(b));
+    }
+
+    private static boolean isIntegral(BsonValue value){
+        return value.isInt32() || value.isInt64();
+    }
+
+    private static double doubleValue(BsonValue value){
+        if(value.isDecimal128()) return value.asDecimal128().getValue().doubleValue();
+        return value.asNumber().doubleValue();
+    }
+
+    private static BigDecimal toBigDecimal(BsonValue value){
+        if(isIntegral(value)) return BigDecimal.valueOf(value.asNumber().longValue());
+        if(value.isDecimal128()){
+            return decimalValue(value.asDecimal128().getValue());
+        }
+        return new BigDecimal(value.asDouble().getValue());
+    }
+
+    /**
+     * Converts finite decimal, including negative zero which is rejected by Decimal128.bigDecimalValue.
+     */
+    static BigDecimal decimalValue(Decimal128 decimal){
+        try {
+            return decimal.bigDecimalValue();
+        } catch (ArithmeticException e) {
+            return BigDecimal.ZERO;
+        }
+    }
+
+    /**
+     * Strings are compared by code points, which is the order of UTF-8 bytes used by simple collation.
+     */
+    private static int compareStrings(String a, String b){
+        int i = 0;
+        int j = 0;
+        while(i < a.length() && j < b.length()){
+            int ca = a.codePointAt(i);
+            int cb = b.codePointAt(j);
+            if(ca != cb) return Integer.compare(ca, cb);
+            i += Character.charCount(ca);
+            j += Character.charCount(cb);
+        }
+        return Integer.compare(a.length() - i, b.length() - j);
+    }
+
+    private static int compareDocuments(BsonDocument a, BsonDocument b){
+        Iterator<Map.Entry<String, BsonValue>> ia = a.entrySet().iterator();
+        Iterator<Map.Entry<String, BsonValue>> ib = b.entrySet().iterator();
+        while(ia.hasNext() && ib.hasNext()){
+            Map.Entry<String, BsonValue> ea = ia.next();
+            Map.Entry<String, BsonValue> eb = ib.next();
+            int result = Integer.compare(bracketOf(ea.getValue().getBsonType()), bracketOf(eb.getValue().getBsonType()));
+            if(result == 0) result = compareStrings(ea.getKey(), eb.getKey());
+            if(result == 0) result = compare(ea.getValue(), eb.getValue());
+            if(result != 0) return result;
+        }
+        return Boolean.compare(ia.hasNext(), ib.hasNext());
+    }
+
+    private static int compareArrays(BsonArray a, BsonArray b){
+        for(int i=0;i<a.size() && i<b.size();i++){
+            int result = compare(a.get(i), b.get(i));
+            if(result != 0) return result;
+        }
+        return Integer.compare(a.size(), b.size());
+    }
+
+    private static int compareBinaries(BsonBinary a, BsonBinary b){
+        byte[] da = a.getData();
+        byte[] db = b.getData();
+        if(da.length != db.length) return Integer.compare(da.length, db.length);
+        if(a.getType() != b.getType()) return Integer.compare(a.getType() & 0xff, b.getType() & 0xff);
+        for(int i=0;i<da.length;i++){
+            int result = Integer.compare(da[i] & 0xff, db[i] & 0xff);
+            if(result != 0) return result;
+        }
+        return 0;
+    }
+}
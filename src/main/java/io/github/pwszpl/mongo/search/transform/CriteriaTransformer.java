@@ -1,107 +1,146 @@
 package io.github.pwszpl.mongo.search.transform;
 
-import io.github.pwszpl.mongo.search.util.ReflectionUtil;
-import io.github.pwszpl.mongo.search.util.StringUtil;
+import io.github.pwszpl.mongo.search.ast.ComparisonNode;
+import io.github.pwszpl.mongo.search.ast.ExistsNode;
+import io.github.pwszpl.mongo.search.ast.InNode;
+import io.github.pwszpl.mongo.search.ast.LikeNode;
+import io.github.pwszpl.mongo.search.ast.LogicalNode;
+import io.github.pwszpl.mongo.search.ast.MatchesNode;
+import io.github.pwszpl.mongo.search.ast.ModNode;
+import io.github.pwszpl.mongo.search.ast.NotNode;
+import io.github.pwszpl.mongo.search.ast.QueryNode;
+import io.github.pwszpl.mongo.search.ast.RangeNode;
+import io.github.pwszpl.mongo.search.ast.SizeNode;
+import io.github.pwszpl.mongo.search.ast.TypeNode;
+import io.github.pwszpl.mongo.search.util.MethodDispatcher;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
 
-import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 /**
- * Implements function interface to create Criteria objects from MongoSearchEngine tokens.
+ * Transforms parsed query tree into Criteria objects.
  */
-public class CriteriaTransformer implements Function {
-    public static Class filtersClass;
-    public static Map<String, List<Method>> filtersMethods;
+public class CriteriaTransformer implements QueryTransformer<Criteria> {
+    private static final MethodDispatcher dispatcher = new MethodDispatcher(Criteria.class, FunctionsMapping::getCriteraFunction);
+
+    private final Function<QueryParameter, Object> binding;
 
     public CriteriaTransformer(){
-        if(filtersMethods == null){
-            try {
-                filtersClass = Class.forName("org.springframework.data.mongodb.core.query.Criteria");
-            } catch (ClassNotFoundException e) {
-                throw new RuntimeException(e);
-            }
-            filtersMethods = Arrays.stream(filtersClass.getDeclaredMethods()).collect(Collectors.groupingBy(Method::getName));
-        }
+        this(QueryParameter.LITERAL);
+    }
+
+    public CriteriaTransformer(Function<QueryParameter, Object> binding){
+        this.binding = binding;
     }
 
     @Override
-    public Object apply(Object o) {
-        TransformObject transform = (TransformObject) o;
-        String function = transform.getFunctionalToken().getFunctionCriteria();
-        List<Object> functionParam = new ArrayList<>();
-
-        if(StringUtil.isStringInList(function,"is","ne","gt","gte","lt","lte","in","nin","all")
-                && (transform.getParams().get(0) instanceof String)){
-            functionParam.add(Criteria.where((String) transform.getParams().get(0)));
-            // Create an initial Critera condition for field = value comparision
-            for(int i=1;i<transform.getParams().size();i++){
-                functionParam.add(transform.getParams().get(i));
-            }
-        }
-        else if(StringUtil.isStringInList(function,"exists","size","regex","mod")){
-            Criteria where = null;
-            int startNum = 0;
-            if(ReflectionUtil.isNotOperator(transform.getParams().get(0))){
-                where = Criteria.where((String) transform.getParams().get(1)).not();
-                startNum = 2;
-            } else {
-                where = Criteria.where((String) transform.getParams().get(0));
-                startNum = 1;
-            }
-            functionParam.add(where);
-            for(int i=startNum;i<transform.getParams().size();i++){
-                functionParam.add(transform.getParams().get(i));
-            }
-        }
-        else if(StringUtil.isStringInList(function,"type")){
-            //type function expects list as second argument, so we create it before passing for execution
-            Criteria where = null;
-            int startNum = 0;
-            if(ReflectionUtil.isNotOperator(transform.getParams().get(0))){
-                where = Criteria.where((String) transform.getParams().get(1)).not();
-                startNum = 2;
-            } else {
-                where = Criteria.where((String) transform.getParams().get(0));
-                startNum = 1;
-            }
-            functionParam.add(where);
-            ArrayList types = new ArrayList();
-            types.add(JsonSchemaObject.Type.of((String) transform.getParams().get(startNum)));
-            functionParam.add(types);
-        }
-        else if(StringUtil.isStringInList(function,"elemMatch")){
-            List elemList = (List)transform.getParams().get(1);
-            Criteria c = null;
-            if(elemList.size()>1) c = new Criteria().andOperator(elemList);
-            else c = (Criteria) elemList.get(0);
-
-            functionParam.add(Criteria.where((String) transform.getParams().get(0)));
-            functionParam.add(c);
-        }
-        else if(StringUtil.isStringInList(function,"andOperator","orOperator","norOperator")){
-            // Create an array of Critera for andOperator/orOperator
-            Criteria c = new Criteria();
-            functionParam.add(c);
-            List<Object> criteria = new ArrayList<>();
-            for(int i=0;i<transform.getParams().size();i++){
-                criteria.add(transform.getParams().get(i));
-            }
-            functionParam.add(criteria);
-        }
-        // otherwise just add all parameters to method invoke
-        else {
-            for(int i=0;i<transform.getParams().size();i++){
-                functionParam.add(transform.getParams().get(i));
-            }
+    public QueryTransformer<Criteria> withBinding(Function<QueryParameter, Object> binding) {
+        return new CriteriaTransformer(binding);
+    }
+
+    @Override
+    public Criteria visitLogical(LogicalNode node) {
+        List<Criteria> criteria = visitAll(node.getChildren());
+        switch (node.getOperator()){
+            case AND: return new Criteria().andOperator(criteria);
+            case OR: return new Criteria().orOperator(criteria);
+            case NOR: return new Criteria().norOperator(criteria);
+            default: throw new RuntimeException(String.format("Operator '%s' is not supported for logical operation.", node.getOperator()));
         }
+    }
+
+    @Override
+    public Criteria visitComparison(ComparisonNode node) {
+        // Create an initial Critera condition for field = value comparision
+        return (Criteria) dispatcher.call(node.getOperator(), Arrays.asList(Criteria.where(node.getField()), QueryParameter.resolve(node.getValue(), binding)));
+    }
+
+    @Override
+    public Criteria visitRange(RangeNode node) {
+        Criteria lower = (Criteria) dispatcher.call(node.getLowerOperator(), Arrays.asList(Criteria.where(node.getField()), QueryParameter.resolve(node.getLowerBound(), binding)));
+        return (Criteria) dispatcher.call(node.getUpperOperator(), Arrays.asList(lower, QueryParameter.resolve(node.getUpperBound(), binding)));
+    }
+
+    @Override
+    public Criteria visitIn(InNode node) {
+        return (Criteria) dispatcher.call(node.getOperator(), Arrays.asList(Criteria.where(node.getField()), QueryParameter.resolveAll(node.getValues(), binding)));
+    }
+
+    @Override
+    public Criteria visitExists(ExistsNode node) {
+        return exists(node, false);
+    }
+
+    @Override
+    public Criteria visitType(TypeNode node) {
+        return type(node, false);
+    }
+
+    @Override
+    public Criteria visitSize(SizeNode node) {
+        return size(node, false);
+    }
+
+    @Override
+    public Criteria visitMod(ModNode node) {
+        return mod(node, false);
+    }
 
-        return ReflectionUtil.findAppropriateMethodAndCall(function,functionParam,filtersMethods);
+    @Override
+    public Criteria visitLike(LikeNode node) {
+        return Criteria.where(node.getField()).regex((String) QueryParameter.resolve(node.getPattern(), binding));
+    }
+
+    @Override
+    public Criteria visitMatches(MatchesNode node) {
+        List<Criteria> conditions = visitAll(node.getConditions());
+        Criteria c;
+        if(conditions.size() > 1) c = new Criteria().andOperator(conditions);
+        else c = conditions.get(0);
+        return Criteria.where(node.getField()).elemMatch(c);
+    }
+
+    @Override
+    public Criteria visitNot(NotNode node) {
+        // Criteria supports negation of field functions by where(field).not() chain
+        QueryNode child = node.getChild();
+        if(child instanceof ExistsNode) return exists((ExistsNode) child, true);
+        if(child instanceof TypeNode) return type((TypeNode) child, true);
+        if(child instanceof SizeNode) return size((SizeNode) child, true);
+        if(child instanceof ModNode) return mod((ModNode) child, true);
+        return new Criteria().norOperator(child.accept(this));
+    }
+
+    private Criteria exists(ExistsNode node, boolean negated){
+        return where(node.getField(), negated).exists(node.isExists());
+    }
+
+    private Criteria type(TypeNode node, boolean negated){
+        return where(node.getField(), negated).type(JsonSchemaObject.Type.of(node.getType()));
+    }
+
+    private Criteria size(SizeNode node, boolean negated){
+        return where(node.getField(), negated).size(node.getSize());
+    }
+
+    private Criteria mod(ModNode node, boolean negated){
+        return where(node.getField(), negated).mod(node.getDivisor(), node.getRemainder());
+    }
+
+    private Criteria where(String field, boolean negated){
+        Criteria where = Criteria.where(field);
+        return negated ? where.not() : where;
+    }
+
+    private List<Criteria> visitAll(List<QueryNode> nodes){
+        List<Criteria> result = new ArrayList<>(nodes.size());
+        for(QueryNode node : nodes){
+            result.add(node.accept(this));
+        }
+        return result;
     }
 }
@@ -0,0 +1,161 @@
+package io.github.pwszpl.mongo.search.transform;
+
+import com.mongodb.BasicDBList;
+import io.github.pwszpl.mongo.search.ast.ComparisonNode;
+import io.github.pwszpl.mongo.search.ast.ExistsNode;
+import io.github.pwszpl.mongo.search.ast.InNode;
+import io.github.pwszpl.mongo.search.ast.LikeNode;
+import io.github.pwszpl.mongo.search.ast.LogicalNode;
+import io.github.pwszpl.mongo.search.ast.MatchesNode;
+import io.github.pwszpl.mongo.search.ast.ModNode;
+import io.github.pwszpl.mongo.search.ast.NotNode;
+import io.github.pwszpl.mongo.search.ast.QueryNode;
+import io.github.pwszpl.mongo.search.ast.RangeNode;
+import io.github.pwszpl.mongo.search.ast.SizeNode;
+import io.github.pwszpl.mongo.search.ast.TypeNode;
+import io.github.pwszpl.mongo.search.util.PatternCache;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Transforms parsed query tree directly into Document equal to Criteria.getCriteriaObject() of CriteriaTransformer
+ * result, without creating and converting Criteria objects. Document can be run by MongoTemplate as BasicQuery.
+ */
+public class DocumentTransformer implements QueryTransformer<Document> {
+    private static final PatternCache patterns = new PatternCache(1024);
+
+    private final Function<QueryParameter, Object> binding;
+
+    public DocumentTransformer(){
+        this(QueryParameter.LITERAL);
+    }
+
+    public DocumentTransformer(Function<QueryParameter, Object> binding){
+        this.binding = binding;
+    }
+
+    @Override
+    public QueryTransformer<Document> withBinding(Function<QueryParameter, Object> binding) {
+        return new DocumentTransformer(binding);
+    }
+
+    @Override
+    public Document visitLogical(LogicalNode node) {
+        switch (node.getOperator()){
+            case AND: return logical("$and", node.getChildren());
+            case OR: return logical("$or", node.getChildren());
+            case NOR: return logical("$nor", node.getChildren());
+            default: throw new RuntimeException(String.format("Operator '%s' is not supported for logical operation.", node.getOperator()));
+        }
+    }
+
+    @Override
+    public Document visitComparison(ComparisonNode node) {
+        Object value = QueryParameter.resolve(node.getValue(), binding);
+        if(node.getOperator() == FunctionsMapping.EQ) return new Document(node.getField(), value);
+        return field(node.getField(), new Document(operator(node.getOperator()), value));
+    }
+
+    @Override
+    public Document visitRange(RangeNode node) {
+        Document operators = new Document(operator(node.getLowerOperator()), QueryParameter.resolve(node.getLowerBound(), binding));
+        operators.put(operator(node.getUpperOperator()), QueryParameter.resolve(node.getUpperBound(), binding));
+        return field(node.getField(), operators);
+    }
+
+    @Override
+    public Document visitIn(InNode node) {
+        return field(node.getField(), new Document(operator(node.getOperator()), QueryParameter.resolveAll(node.getValues(), binding)));
+    }
+
+    @Override
+    public Document visitExists(ExistsNode node) {
+        return field(node.getField(), exists(node));
+    }
+
+    @Override
+    public Document visitType(TypeNode node) {
+        return field(node.getField(), type(node));
+    }
+
+    @Override
+    public Document visitSize(SizeNode node) {
+        return field(node.getField(), size(node));
+    }
+
+    @Override
+    public Document visitMod(ModNode node) {
+        return field(node.getField(), mod(node));
+    }
+
+    @Override
+    public Document visitLike(LikeNode node) {
+        // Criteria.regex(String) compiles pattern without flags, compiled patterns are immutable and can be shared
+        return new Document(node.getField(), patterns.compile((String) QueryParameter.resolve(node.getPattern(), binding), 0));
+    }
+
+    @Override
+    public Document visitMatches(MatchesNode node) {
+        List<QueryNode> conditions = node.getConditions();
+        Document condition = conditions.size() > 1 ? logical("$and", conditions) : conditions.get(0).accept(this);
+        return field(node.getField(), new Document("$elemMatch", condition));
+    }
+
+    @Override
+    public Document visitNot(NotNode node) {
+        // the same as where(field).not() chain of CriteriaTransformer
+        QueryNode child = node.getChild();
+        if(child instanceof ExistsNode) return not(((ExistsNode) child).getField(), exists((ExistsNode) child));
+        if(child instanceof TypeNode) return not(((TypeNode) child).getField(), type((TypeNode) child));
+        if(child instanceof SizeNode) return not(((SizeNode) child).getField(), size((SizeNode) child));
+        if(child instanceof ModNode) return not(((ModNode) child).getField(), mod((ModNode) child));
+        BasicDBList list = new BasicDBList();
+        list.add(child.accept(this));
+        return new Document("$nor", list);
+    }
+
+    private Document exists(ExistsNode node){
+        return new Document("$exists", node.isExists());
+    }
+
+    private Document type(TypeNode node){
+        List<Object> types = new ArrayList<>(1);
+        types.add(JsonSchemaObject.Type.of(node.getType()).value());
+        return new Document("$type", types);
+    }
+
+    private Document size(SizeNode node){
+        return new Document("$size", node.getSize());
+    }
+
+    private Document mod(ModNode node){
+        List<Object> arguments = new ArrayList<>(2);
+        arguments.add(node.getDivisor());
+        arguments.add(node.getRemainder());
+        return new Document("$mod", arguments);
+    }
+
+    private Document logical(String operator, List<QueryNode> nodes){
+        BasicDBList list = new BasicDBList();
+        for(QueryNode node : nodes){
+            list.add(node.accept(this));
+        }
+        return new Document(operator, list);
+    }
+
+    private static Document not(String field, Document operator){
+        return field(field, new Document("$not", operator));
+    }
+
+    private static Document field(String field, Document operators){
+        return new Document(field, operators);
+    }
+
+    private static String operator(FunctionsMapping mapping){
+        return "$" + mapping.getCriteraFunction();
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.pwszpl.mongo.search.transform;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Dotted field path resolved the way MongoDB query does - arrays of documents met on the path are traversed,
+ * numeric path parts additionally select array element by index.
+ */
+final class FieldPath {
+    private final String[] parts;
+
+    FieldPath(String path){
+        this.parts = path.split("\\.");
+    }
+
+    /**
+     * @return values found under path, empty list if field doesn't exist. Arrays found at the end of path are not expanded.
+     */
+    List<BsonValue> resolve(BsonDocument document){
+        List<BsonValue> values = new ArrayList<>(1);
+        collect(document, 0, values);
+        return values;
+    }
+
+    private void collect(BsonValue value, int i, List<BsonValue> values){
+        if(i == parts.length){
+            values.add(value);
+        } else if(value.isDocument()){
+            BsonValue child = value.asDocument().get(parts[i]);
+            if(child != null) collect(child, i + 1, values);
+        } else if(value.isArray()){
+            BsonArray array = value.asArray();
+            int index = arrayIndex(parts[i]);
+            if(index >= 0 && index < array.size()) collect(array.get(index), i + 1, values);
+            for(BsonValue element : array){
+                if(element.isDocument()) collect(element, i, values);
+            }
+        }
+    }
+
+    private static int arrayIndex(String part){
+        if(part.isEmpty() || part.length() > 9) return -1;
+        for(int i=0;i<part.length();i++){
+            if(part.charAt(i) < '0' || part.charAt(i) > '9') return -1;
+        }
+        return Integer.parseInt(part);
+    }
+}
@@ -1,74 +1,121 @@
 package io.github.pwszpl.mongo.search.transform;
 
 import com.mongodb.client.model.Filters;
-import io.github.pwszpl.mongo.search.util.ReflectionUtil;
-import io.github.pwszpl.mongo.search.util.StringUtil;
+import io.github.pwszpl.mongo.search.ast.ComparisonNode;
+import io.github.pwszpl.mongo.search.ast.ExistsNode;
+import io.github.pwszpl.mongo.search.ast.InNode;
+import io.github.pwszpl.mongo.search.ast.LikeNode;
+import io.github.pwszpl.mongo.search.ast.LogicalNode;
+import io.github.pwszpl.mongo.search.ast.MatchesNode;
+import io.github.pwszpl.mongo.search.ast.ModNode;
+import io.github.pwszpl.mongo.search.ast.NotNode;
+import io.github.pwszpl.mongo.search.ast.QueryNode;
+import io.github.pwszpl.mongo.search.ast.RangeNode;
+import io.github.pwszpl.mongo.search.ast.SizeNode;
+import io.github.pwszpl.mongo.search.ast.TypeNode;
+import io.github.pwszpl.mongo.search.util.MethodDispatcher;
+import org.bson.Document;
 import org.bson.conversions.Bson;
 
-import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 /**
- * Implements function interface to create Filters objects from MongoSearchEngine tokens.
+ * Transforms parsed query tree into Filters objects.
  */
-public class FiltersTransformer implements Function {
-    public static Class filtersClass;
-    public static Map<String, List<Method>> filtersMethods;
+public class FiltersTransformer implements QueryTransformer<Bson> {
+    private static final MethodDispatcher dispatcher = new MethodDispatcher(Filters.class, FunctionsMapping::getFiltersFunction);
+
+    private final Function<QueryParameter, Object> binding;
 
     public FiltersTransformer(){
-        if(filtersMethods == null){
-            try {
-                filtersClass = Class.forName("com.mongodb.client.model.Filters");
-            } catch (ClassNotFoundException e) {
-                throw new RuntimeException(e);
-            }
-            filtersMethods = Arrays.stream(filtersClass.getDeclaredMethods()).collect(Collectors.groupingBy(Method::getName));
-        }
+        this(QueryParameter.LITERAL);
+    }
+
+    public FiltersTransformer(Function<QueryParameter, Object> binding){
+        this.binding = binding;
+    }
+
+    @Override
+    public QueryTransformer<Bson> withBinding(Function<QueryParameter, Object> binding) {
+        return new FiltersTransformer(binding);
     }
 
     @Override
-    public Object apply(Object o) {
-        TransformObject transform = (TransformObject) o;
-        String function = transform.getFunctionalToken().getFunctionBSON();
-        List<Object> functionParam = new ArrayList<>();
-
-        // Create an array of Filters for and/or methods and add as an arguemnt to method invoke
-        if(StringUtil.isStringInList(function,"and","or","nor")){
-            List<Object> operatorArgument = new ArrayList<>();
-            for(int i=0;i<transform.getParams().size();i++){
-                operatorArgument.add(transform.getParams().get(i));
-            }
-            functionParam.add(operatorArgument);
+    public Bson visitLogical(LogicalNode node) {
+        List<Bson> filters = visitAll(node.getChildren());
+        switch (node.getOperator()){
+            case AND: return Filters.and(filters);
+            case OR: return Filters.or(filters);
+            case NOR: return Filters.nor(filters);
+            default: throw new RuntimeException(String.format("Operator '%s' is not supported for logical operation.", node.getOperator()));
         }
-        else if(StringUtil.isStringInList(function,"elemMatch")){
-            List elemList = (List)transform.getParams().get(1);
-            Bson filter;
-            if(elemList.size() > 1) filter = Filters.and((List)transform.getParams().get(1));
-            else filter = (Bson) elemList.get(0);
+    }
+
+    @Override
+    public Bson visitComparison(ComparisonNode node) {
+        return (Bson) dispatcher.call(node.getOperator(), Arrays.asList(node.getField(), QueryParameter.resolve(node.getValue(), binding)));
+    }
 
-            functionParam.add(transform.getParams().get(0));
-            functionParam.add(filter);
+    @Override
+    public Bson visitRange(RangeNode node) {
+        // Filters has no builder for many operators of single field, Filters.and would render $and array
+        Document range = new Document("$" + node.getLowerOperator().getFiltersFunction(), QueryParameter.resolve(node.getLowerBound(), binding))
+                .append("$" + node.getUpperOperator().getFiltersFunction(), QueryParameter.resolve(node.getUpperBound(), binding));
+        return new Document(node.getField(), range);
+    }
 
-        }
-        else if(ReflectionUtil.isNotOperator(transform.getParams().get(0))){
-            // if second argument is not operator we create new Transform object (without not operator) pass it through apply function to get result
-            // and finally apply not globally
-            TransformObject transformObject = new TransformObject(transform.getFunctionalToken(),transform.getParams().subList(1,transform.getParams().size()));
-            Object res = apply(transformObject);
-            return Filters.not((Bson) res);
-        }
-        // otherwise just add all parameters to method invoke
-        else {
-            for(int i=0;i<transform.getParams().size();i++){
-                functionParam.add(transform.getParams().get(i));
-            }
-        }
+    @Override
+    public Bson visitIn(InNode node) {
+        return (Bson) dispatcher.call(node.getOperator(), Arrays.asList(node.getField(), QueryParameter.resolveAll(node.getValues(), binding)));
+    }
+
+    @Override
+    public Bson visitExists(ExistsNode node) {
+        return Filters.exists(node.getField(), node.isExists());
+    }
+
+    @Override
+    public Bson visitType(TypeNode node) {
+        return Filters.type(node.getField(), node.getType());
+    }
+
+    @Override
+    public Bson visitSize(SizeNode node) {
+        return Filters.size(node.getField(), node.getSize());
+    }
+
+    @Override
+    public Bson visitMod(ModNode node) {
+        return Filters.mod(node.getField(), node.getDivisor().longValue(), node.getRemainder().longValue());
+    }
 
-        return ReflectionUtil.findAppropriateMethodAndCall(function,functionParam,filtersMethods);
+    @Override
+    public Bson visitLike(LikeNode node) {
+        return Filters.regex(node.getField(), (String) QueryParameter.resolve(node.getPattern(), binding));
+    }
+
+    @Override
+    public Bson visitMatches(MatchesNode node) {
+        List<Bson> conditions = visitAll(node.getConditions());
+        Bson filter;
+        if(conditions.size() > 1) filter = Filters.and(conditions);
+        else filter = conditions.get(0);
+        return Filters.elemMatch(node.getField(), filter);
+    }
+
+    @Override
+    public Bson visitNot(NotNode node) {
+        return Filters.not(node.getChild().accept(this));
+    }
+
+    private List<Bson> visitAll(List<QueryNode> nodes){
+        List<Bson> result = new ArrayList<>(nodes.size());
+        for(QueryNode node : nodes){
+            result.add(node.accept(this));
+        }
+        return result;
     }
 }
@@ -0,0 +1,55 @@
+package io.github.pwszpl.mongo.search.transform;
+
+import com.mongodb.client.FindIterable;
+import org.bson.conversions.Bson;
+
+/**
+ * Statement translated for MongoDB driver - filter with projection, sort, limit and skip of find operation.
+ * Projection and sort are null when statement has no SELECT or ORDER BY clause.
+ */
+public class FindQuery {
+    private final Bson filter;
+    private final Bson projection;
+    private final Bson sort;
+    private final Integer limit;
+    private final Integer skip;
+
+    public FindQuery(Bson filter, Bson projection, Bson sort, Integer limit, Integer skip){
+        this.filter = filter;
+        this.projection = projection;
+        this.sort = sort;
+        this.limit = limit;
+        this.skip = skip;
+    }
+
+    public Bson getFilter() {
+        return filter;
+    }
+
+    public Bson getProjection() {
+        return projection;
+    }
+
+    public Bson getSort() {
+        return sort;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public Integer getSkip() {
+        return skip;
+    }
+
+    /**
+     * Applies projection, sort, limit and skip of statement to find operation, e.g. collection.find(query.getFilter()).
+     */
+    public <T> FindIterable<T> applyTo(FindIterable<T> find){
+        if(projection != null) find = find.projection(projection);
+        if(sort != null) find = find.sort(sort);
+        if(limit != null) find = find.limit(limit);
+        if(skip != null) find = find.skip(skip);
+        return find;
+    }
+}
@@ -6,6 +6,7 @@ public enum FunctionsMapping {
     AND("and","andOperator"),
     OR("or","orOperator"),
     NOR("nor","norOperator"),
+    NOT("not"),
     GT("gt"),
     LT("lt"),
     LE("lte"),
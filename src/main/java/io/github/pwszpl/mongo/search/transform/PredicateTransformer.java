@@ -0,0 +1,358 @@
+package io.github.pwszpl.mongo.search.transform;
+
+import com.mongodb.MongoClientSettings;
+import io.github.pwszpl.mongo.search.ast.ComparisonNode;
+import io.github.pwszpl.mongo.search.ast.ExistsNode;
+import io.github.pwszpl.mongo.search.ast.InNode;
+import io.github.pwszpl.mongo.search.ast.LikeNode;
+import io.github.pwszpl.mongo.search.ast.LogicalNode;
+import io.github.pwszpl.mongo.search.ast.MatchesNode;
+import io.github.pwszpl.mongo.search.ast.ModNode;
+import io.github.pwszpl.mongo.search.ast.NotNode;
+import io.github.pwszpl.mongo.search.ast.QueryNode;
+import io.github.pwszpl.mongo.search.ast.RangeNode;
+import io.github.pwszpl.mongo.search.ast.SizeNode;
+import io.github.pwszpl.mongo.search.ast.TypeNode;
+import io.github.pwszpl.mongo.search.util.PatternCache;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonNull;
+import org.bson.BsonRegularExpression;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.codecs.Encoder;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.conversions.Bson;
+import org.bson.types.Decimal128;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Compiles parsed query tree into predicate evaluated in memory, with semantics of MongoDB query: dotted paths
+ * traverse arrays of documents, conditions match array fields if any element matches, comparison operators
+ * match only values of the same type bracket. Strings are compared by code points (simple collation),
+ * regular expressions are evaluated with java.util.regex.
+ * Compiled predicates are immutable and can be shared between threads.
+ */
+public class PredicateTransformer implements QueryTransformer<Predicate<BsonDocument>> {
+    private static final EncoderContext ENCODER_CONTEXT = EncoderContext.builder().build();
+    private static final Map<String, Set<BsonType>> types = new HashMap<>();
+    // compiled LIKE and regular expression literals shared by all predicates
+    private static final PatternCache patterns = new PatternCache(1024);
+    static {
+        types.put("double", EnumSet.of(BsonType.DOUBLE));
+        types.put("string", EnumSet.of(BsonType.STRING));
+        types.put("object", EnumSet.of(BsonType.DOCUMENT));
+        types.put("array", EnumSet.of(BsonType.ARRAY));
+        types.put("binData", EnumSet.of(BsonType.BINARY));
+        types.put("undefined", EnumSet.of(BsonType.UNDEFINED));
+        types.put("objectId", EnumSet.of(BsonType.OBJECT_ID));
+        types.put("bool", EnumSet.of(BsonType.BOOLEAN));
+        types.put("date", EnumSet.of(BsonType.DATE_TIME));
+        types.put("null", EnumSet.of(BsonType.NULL));
+        types.put("regex", EnumSet.of(BsonType.REGULAR_EXPRESSION));
+        types.put("dbPointer", EnumSet.of(BsonType.DB_POINTER));
+        types.put("javascript", EnumSet.of(BsonType.JAVASCRIPT));
+        types.put("symbol", EnumSet.of(BsonType.SYMBOL));
+        types.put("javascriptWithScope", EnumSet.of(BsonType.JAVASCRIPT_WITH_SCOPE));
+        types.put("int", EnumSet.of(BsonType.INT32));
+        types.put("timestamp", EnumSet.of(BsonType.TIMESTAMP));
+        types.put("long", EnumSet.of(BsonType.INT64));
+        types.put("decimal", EnumSet.of(BsonType.DECIMAL128));
+        types.put("minKey", EnumSet.of(BsonType.MIN_KEY));
+        types.put("maxKey", EnumSet.of(BsonType.MAX_KEY));
+        types.put("number", EnumSet.of(BsonType.DOUBLE, BsonType.INT32, BsonType.INT64, BsonType.DECIMAL128));
+    }
+
+    private final Function<QueryParameter, Object> binding;
+    private final CodecRegistry codecRegistry;
+
+    public PredicateTransformer(){
+        this(QueryParameter.LITERAL, MongoClientSettings.getDefaultCodecRegistry());
+    }
+
+    /**
+     * @param codecRegistry registry used to encode literals, bound parameter values and tested Document objects
+     */
+    public PredicateTransformer(Function<QueryParameter, Object> binding, CodecRegistry codecRegistry){
+        this.binding = binding;
+        this.codecRegistry = codecRegistry;
+    }
+
+    @Override
+    public QueryTransformer<Predicate<BsonDocument>> withBinding(Function<QueryParameter, Object> binding) {
+        return new PredicateTransformer(binding, codecRegistry);
+    }
+
+    /**
+     * Compiles query tree into predicate testing Document objects. Tested document is encoded to BSON with codec registry of transformer.
+     */
+    public Predicate<Document> toDocumentPredicate(QueryNode node){
+        Predicate<BsonDocument> predicate = node.accept(this);
+        return document -> predicate.test(document.toBsonDocument(BsonDocument.class, codecRegistry));
+    }
+
+    @Override
+    public Predicate<BsonDocument> visitLogical(LogicalNode node) {
+        List<Predicate<BsonDocument>> children = visitAll(node.getChildren());
+        switch (node.getOperator()){
+            case AND: return document -> {
+                for(Predicate<BsonDocument> child : children){
+                    if(!child.test(document)) return false;
+                }
+                return true;
+            };
+            case OR: return document -> anyMatches(children, document);
+            case NOR: return document -> !anyMatches(children, document);
+            default: throw new RuntimeException(String.format("Operator '%s' is not supported for logical operation.", node.getOperator()));
+        }
+    }
+
+    @Override
+    public Predicate<BsonDocument> visitComparison(ComparisonNode node) {
+        return field(node.getField(), comparison(node.getOperator(), toBsonValue(QueryParameter.resolve(node.getValue(), binding))));
+    }
+
+    @Override
+    public Predicate<BsonDocument> visitRange(RangeNode node) {
+        ValueMatcher lower = comparison(node.getLowerOperator(), toBsonValue(QueryParameter.resolve(node.getLowerBound(), binding)));
+        ValueMatcher upper = comparison(node.getUpperOperator(), toBsonValue(QueryParameter.resolve(node.getUpperBound(), binding)));
+        // as in query document, each bound may be matched by different element of array
+        return field(node.getField(), values -> lower.matches(values) && upper.matches(values));
+    }
+
+    @Override
+    public Predicate<BsonDocument> visitIn(InNode node) {
+        List<ValueMatcher> matchers = new ArrayList<>();
+        for(Object value : QueryParameter.resolveAll(node.getValues(), binding)){
+            matchers.add(equalTo(toBsonValue(value)));
+        }
+        switch (node.getOperator()){
+            case IN: return field(node.getField(), values -> anyMatches(matchers, values));
+            case NIN: return field(node.getField(), values -> !anyMatches(matchers, values));
+            case ALL: return field(node.getField(), values -> {
+                if(matchers.isEmpty()) return false;
+                for(ValueMatcher matcher : matchers){
+                    if(!matcher.matches(values)) return false;
+                }
+                return true;
+            });
+            default: throw new RuntimeException(String.format("Operator '%s' is not supported for list comparision.", node.getOperator()));
+        }
+    }
+
+    @Override
+    public Predicate<BsonDocument> visitExists(ExistsNode node) {
+        boolean exists = node.isExists();
+        return field(node.getField(), values -> values.isEmpty() != exists);
+    }
+
+    @Override
+    public Predicate<BsonDocument> visitType(TypeNode node) {
+        Set<BsonType> expected = types.get(node.getType());
+        if(expected == null) throw new RuntimeException(String.format("Unknown type alias '%s'.", node.getType()));
+        return field(node.getField(), values -> {
+            for(BsonValue value : values){
+                if(expected.contains(value.getBsonType())) return true;
+            }
+            return anyElementMatches(values, value -> expected.contains(value.getBsonType()));
+        });
+    }
+
+    @Override
+    public Predicate<BsonDocument> visitSize(SizeNode node) {
+        int size = node.getSize();
+        return field(node.getField(), values -> {
+            for(BsonValue value : values){
+                if(value.isArray() && value.asArray().size() == size) return true;
+            }
+            return false;
+        });
+    }
+
+    @Override
+    public Predicate<BsonDocument> visitMod(ModNode node) {
+        long divisor = node.getDivisor().longValue();
+        long remainder = node.getRemainder().longValue();
+        if(divisor == 0) throw new RuntimeException("Divisor of mod function can't be 0.");
+        return field(node.getField(), values -> anyCandidateMatches(values, value -> {
+            if(!BsonValueOrder.isNumber(value)) return false;
+            Long number = truncate(value);
+            return number != null && number % divisor == remainder;
+        }));
+    }
+
+    @Override
+    public Predicate<BsonDocument> visitLike(LikeNode node) {
+        Pattern pattern = patterns.compile((String) QueryParameter.resolve(node.getPattern(), binding), 0);
+        return field(node.getField(), values -> anyCandidateMatches(values, value -> matches(pattern, value)));
+    }
+
+    @Override
+    public Predicate<BsonDocument> visitMatches(MatchesNode node) {
+        List<Predicate<BsonDocument>> conditions = visitAll(node.getConditions());
+        return field(node.getField(), values -> {
+            for(BsonValue value : values){
+                if(!value.isArray()) continue;
+                for(BsonValue element : value.asArray()){
+                    if(element.isDocument() && allMatch(conditions, element.asDocument())) return true;
+                }
+            }
+            return false;
+        });
+    }
+
+    @Override
+    public Predicate<BsonDocument> visitNot(NotNode node) {
+        return node.getChild().accept(this).negate();
+    }
+
+    /**
+     * Test of values found under field path (empty list for missing field).
+     */
+    private interface ValueMatcher {
+        boolean matches(List<BsonValue> values);
+    }
+
+    private static Predicate<BsonDocument> field(String field, ValueMatcher matcher){
+        FieldPath path = new FieldPath(field);
+        return document -> matcher.matches(path.resolve(document));
+    }
+
+    private static ValueMatcher comparison(FunctionsMapping operator, BsonValue expected){
+        switch (operator){
+            case EQ: return equalTo(expected);
+            case NE:
+                ValueMatcher equal = equalTo(expected);
+                return values -> !equal.matches(values);
+            case GT: return values -> anyCandidateMatches(values, value -> BsonValueOrder.isSameBracket(value, expected) && BsonValueOrder.compare(value, expected) > 0);
+            case GE: return values -> anyCandidateMatches(values, value -> BsonValueOrder.isSameBracket(value, expected) && BsonValueOrder.compare(value, expected) >= 0);
+            case LT: return values -> anyCandidateMatches(values, value -> BsonValueOrder.isSameBracket(value, expected) && BsonValueOrder.compare(value, expected) < 0);
+            case LE: return values -> anyCandidateMatches(values, value -> BsonValueOrder.isSameBracket(value, expected) && BsonValueOrder.compare(value, expected) <= 0);
+            default: throw new RuntimeException(String.format("Operator '%s' is not supported for field comparision.", operator));
+        }
+    }
+
+    /**
+     * Equality with null matches missing fields, equality with regular expression matches strings.
+     */
+    private static ValueMatcher equalTo(BsonValue expected){
+        if(expected.isNull()){
+            return values -> values.isEmpty() || anyCandidateMatches(values, BsonValue::isNull);
+        }
+        if(expected.isRegularExpression()){
+            Pattern pattern = toPattern(expected.asRegularExpression());
+            return values -> anyCandidateMatches(values, value -> matches(pattern, value) || BsonValueOrder.isEqual(value, expected));
+        }
+        return values -> anyCandidateMatches(values, value -> BsonValueOrder.isEqual(value, expected));
+    }
+
+    /**
+     * Tests values found under field path and elements of found arrays.
+     */
+    private static boolean anyCandidateMatches(List<BsonValue> values, Predicate<BsonValue> predicate){
+        for(BsonValue value : values){
+            if(predicate.test(value)) return true;
+        }
+        return anyElementMatches(values, predicate);
+    }
+
+    private static boolean anyElementMatches(List<BsonValue> values, Predicate<BsonValue> predicate){
+        for(BsonValue value : values){
+            if(!value.isArray()) continue;
+            for(BsonValue element : value.asArray()){
+                if(predicate.test(element)) return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean anyMatches(List<ValueMatcher> matchers, List<BsonValue> values){
+        for(ValueMatcher matcher : matchers){
+            if(matcher.matches(values)) return true;
+        }
+        return false;
+    }
+
+    private static boolean anyMatches(List<Predicate<BsonDocument>> predicates, BsonDocument document){
+        for(Predicate<BsonDocument> predicate : predicates){
+            if(predicate.test(document)) return true;
+        }
+        return false;
+    }
+
+    private static boolean allMatch(List<Predicate<BsonDocument>> predicates, BsonDocument document){
+        for(Predicate<BsonDocument> predicate : predicates){
+            if(!predicate.test(document)) return false;
+        }
+        return true;
+    }
+
+    private static boolean matches(Pattern pattern, BsonValue value){
+        if(!value.isString() && !value.isSymbol()) return false;
+        return pattern.matcher(BsonValueOrder.stringValue(value)).find();
+    }
+
+    private static Pattern toPattern(BsonRegularExpression regex){
+        int flags = 0;
+        for(char option : regex.getOptions().toCharArray()){
+            switch (option){
+                case 'i': flags |= Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE; break;
+                case 'm': flags |= Pattern.MULTILINE; break;
+                case 's': flags |= Pattern.DOTALL; break;
+                case 'x': flags |= Pattern.COMMENTS; break;
+                default: break;
+            }
+        }
+        return patterns.compile(regex.getPattern(), flags);
+    }
+
+    /**
+     * @return number truncated towards zero, as $mod does, or null for NaN and infinity
+     */
+    private static Long truncate(BsonValue value){
+        if(value.isInt32() || value.isInt64()) return value.asNumber().longValue();
+        if(value.isDecimal128()){
+            Decimal128 decimal = value.asDecimal128().getValue();
+            if(!decimal.isFinite()) return null;
+            return BsonValueOrder.decimalValue(decimal).longValue();
+        }
+        double d = value.asDouble().getValue();
+        if(Double.isNaN(d) || Double.isInfinite(d)) return null;
+        return (long) d;
+    }
+
+    private BsonValue toBsonValue(Object value){
+        if(value == null) return BsonNull.VALUE;
+        if(value instanceof BsonValue) return (BsonValue) value;
+        BsonDocument holder = new BsonDocument();
+        BsonDocumentWriter writer = new BsonDocumentWriter(holder);
+        writer.writeStartDocument();
+        writer.writeName("value");
+        if(value instanceof Bson){
+            codecRegistry.get(BsonDocument.class).encode(writer, ((Bson) value).toBsonDocument(BsonDocument.class, codecRegistry), ENCODER_CONTEXT);
+        } else {
+            ((Encoder) codecRegistry.get(value.getClass())).encode(writer, value, ENCODER_CONTEXT);
+        }
+        writer.writeEndDocument();
+        return holder.get("value");
+    }
+
+    private List<Predicate<BsonDocument>> visitAll(List<QueryNode> nodes){
+        List<Predicate<BsonDocument>> result = new ArrayList<>(nodes.size());
+        for(QueryNode node : nodes){
+            result.add(node.accept(this));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,50 @@
+package io.github.pwszpl.mongo.search.transform;
+
+import io.github.pwszpl.mongo.search.ast.QueryNode;
+
+import java.util.Map;
+
+/**
+ * Query parsed once and kept as query tree, allowing to bind values of Spring Data mapping tokens (?N) many times.
+ * Instances are immutable and can be shared between threads.
+ */
+public class PreparedQuery {
+    private final QueryNode root;
+    private final QueryTransformer<?> transformer;
+
+    public PreparedQuery(QueryNode root, QueryTransformer<?> transformer){
+        this.root = root;
+        this.transformer = transformer;
+    }
+
+    /**
+     * @return parsed query tree, which can be passed to any transformer
+     */
+    public QueryNode getRoot() {
+        return root;
+    }
+
+    /**
+     * Binds values to query parameters - token ?N is replaced with values[N].
+     * Collections and arrays bound inside IN/NIN/ALL lists are expanded to list elements.
+     * @return Bson or Criteria object, depending on parser mode used to prepare query
+     */
+    public Object bind(Object... values){
+        return root.accept(transformer.withBinding(QueryParameter.bindingOf(values)));
+    }
+
+    /**
+     * Binds values to query parameters - token ?N is replaced with value stored under key N.
+     * @return Bson or Criteria object, depending on parser mode used to prepare query
+     */
+    public Object bind(Map<Integer, ?> values){
+        return root.accept(transformer.withBinding(QueryParameter.bindingOf(values)));
+    }
+
+    /**
+     * Binds values to query parameters and transforms query tree with transformer of given type.
+     */
+    public <R> R transform(QueryTransformer<R> transformer, Object... values){
+        return root.accept(transformer.withBinding(QueryParameter.bindingOf(values)));
+    }
+}
@@ -0,0 +1,119 @@
+package io.github.pwszpl.mongo.search.transform;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Placeholder created for Spring Data mapping token (e.g. ?0). Value is substituted on bind of prepared query.
+ */
+public class QueryParameter {
+    /**
+     * Binding used by plain parse - placeholder is replaced with its text representation.
+     */
+    public static final Function<QueryParameter, Object> LITERAL = QueryParameter::getImage;
+
+    private final String image;
+    // -1 when image isn't ?N with N in int range, such parameter is valid only as literal
+    private final int index;
+
+    public QueryParameter(String image){
+        this.image = image;
+        this.index = index(image);
+    }
+
+    public String getImage() {
+        return image;
+    }
+
+    /**
+     * @return index N of parameter ?N
+     * @throws RuntimeException when index is out of int range
+     */
+    public int getIndex() {
+        if(index < 0) throw new RuntimeException(String.format("Index of query parameter '%s' is out of range.", image));
+        return index;
+    }
+
+    /**
+     * Creates binding which maps parameter ?N to N-th element of values array.
+     */
+    public static Function<QueryParameter, Object> bindingOf(Object... values){
+        return p -> {
+            if(p.getIndex() >= values.length) throw unboundParameter(p);
+            return values[p.getIndex()];
+        };
+    }
+
+    /**
+     * Creates binding which maps parameter ?N to value stored under key N.
+     */
+    public static Function<QueryParameter, Object> bindingOf(Map<Integer, ?> values){
+        return p -> {
+            if(!values.containsKey(p.getIndex())) throw unboundParameter(p);
+            return values.get(p.getIndex());
+        };
+    }
+
+    /**
+     * @return value bound to parameter if object is a QueryParameter, otherwise object itself
+     */
+    public static Object resolve(Object value, Function<QueryParameter, Object> binding){
+        if(value instanceof QueryParameter) return binding.apply((QueryParameter) value);
+        return value;
+    }
+
+    /**
+     * Resolves list of values (IN/NIN/ALL lists). Parameters bound to collections or arrays are expanded to list elements.
+     */
+    public static List<Object> resolveAll(List<Object> values, Function<QueryParameter, Object> binding){
+        List<Object> result = new ArrayList<>(values.size());
+        for(Object value : values){
+            if(!(value instanceof QueryParameter)){
+                result.add(value);
+                continue;
+            }
+            Object bound = binding.apply((QueryParameter) value);
+            if(bound instanceof Collection) result.addAll((Collection) bound);
+            else if(bound instanceof Object[]) result.addAll(Arrays.asList((Object[]) bound));
+            else result.add(bound);
+        }
+        return result;
+    }
+
+    private static int index(String image){
+        long index = 0;
+        if(image.length() < 2) return -1;
+        for(int i=1;i<image.length();i++){
+            char c = image.charAt(i);
+            if(c < '0' || c > '9') return -1;
+            index = index * 10 + (c - '0');
+            if(index > Integer.MAX_VALUE) return -1;
+        }
+        return (int) index;
+    }
+
+    private static RuntimeException unboundParameter(QueryParameter p){
+        return new RuntimeException(String.format("No value bound for query parameter '%s'.", p.getImage()));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof QueryParameter)) return false;
+        return image.equals(((QueryParameter) o).image);
+    }
+
+    @Override
+    public int hashCode() {
+        return image.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return image;
+    }
+}
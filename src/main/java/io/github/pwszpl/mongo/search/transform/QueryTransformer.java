@@ -0,0 +1,16 @@
+package io.github.pwszpl.mongo.search.transform;
+
+import io.github.pwszpl.mongo.search.ast.QueryVisitor;
+
+import java.util.function.Function;
+
+/**
+ * Visitor transforming parsed query tree into object accepted by MongoDB Java engine.
+ * @param <R> type of transformation result
+ */
+public interface QueryTransformer<R> extends QueryVisitor<R> {
+    /**
+     * @return transformer of the same type, which replaces QueryParameter placeholders with values returned by binding
+     */
+    QueryTransformer<R> withBinding(Function<QueryParameter, Object> binding);
+}
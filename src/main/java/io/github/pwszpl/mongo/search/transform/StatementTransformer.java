@@ -0,0 +1,75 @@
+package io.github.pwszpl.mongo.search.transform;
+
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import io.github.pwszpl.mongo.search.ast.QueryStatement;
+import io.github.pwszpl.mongo.search.ast.SortField;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Transforms statement with SELECT, ORDER BY and LIMIT/OFFSET clauses - into Spring Query for CriteriaTransformer,
+ * BasicQuery for DocumentTransformer and into FindQuery for transformers creating Bson filters.
+ */
+public class StatementTransformer {
+    /**
+     * @return Query, BasicQuery or FindQuery, depending on transformer of statement filter
+     */
+    public static Object transform(QueryStatement statement, QueryTransformer<?> transformer){
+        if(transformer instanceof CriteriaTransformer) return toQuery(statement, (CriteriaTransformer) transformer);
+        if(transformer instanceof DocumentTransformer) return toBasicQuery(statement, (DocumentTransformer) transformer);
+        if(transformer instanceof PredicateTransformer){
+            throw new RuntimeException("Statement clauses are not supported in predicate mode.");
+        }
+        Object filter = statement.getFilter() == null ? new BsonDocument() : statement.getFilter().accept(transformer);
+        return toFindQuery(statement, (Bson) filter);
+    }
+
+    public static Query toQuery(QueryStatement statement, CriteriaTransformer transformer){
+        Query query = statement.getFilter() == null ? new Query()
+                : new Query((Criteria) statement.getFilter().accept(transformer));
+        return withClauses(query, statement);
+    }
+
+    public static BasicQuery toBasicQuery(QueryStatement statement, DocumentTransformer transformer){
+        Document filter = statement.getFilter() == null ? new Document() : statement.getFilter().accept(transformer);
+        return withClauses(new BasicQuery(filter), statement);
+    }
+
+    private static <Q extends Query> Q withClauses(Q query, QueryStatement statement){
+        if(!statement.getProjection().isEmpty()){
+            query.fields().include(statement.getProjection().toArray(new String[0]));
+        }
+        if(!statement.getSort().isEmpty()){
+            List<Sort.Order> orders = new ArrayList<>(statement.getSort().size());
+            for(SortField field : statement.getSort()){
+                orders.add(field.isAscending() ? Sort.Order.asc(field.getField()) : Sort.Order.desc(field.getField()));
+            }
+            query.with(Sort.by(orders));
+        }
+        if(statement.getLimit() != null) query.limit(statement.getLimit());
+        if(statement.getSkip() != null) query.skip(statement.getSkip());
+        return query;
+    }
+
+    public static FindQuery toFindQuery(QueryStatement statement, Bson filter){
+        Bson projection = statement.getProjection().isEmpty() ? null : Projections.include(statement.getProjection());
+        Bson sort = null;
+        if(!statement.getSort().isEmpty()){
+            List<Bson> orders = new ArrayList<>(statement.getSort().size());
+            for(SortField field : statement.getSort()){
+                orders.add(field.isAscending() ? Sorts.ascending(field.getField()) : Sorts.descending(field.getField()));
+            }
+            sort = orders.size() == 1 ? orders.get(0) : Sorts.orderBy(orders);
+        }
+        return new FindQuery(filter, projection, sort, statement.getLimit(), statement.getSkip());
+    }
+}
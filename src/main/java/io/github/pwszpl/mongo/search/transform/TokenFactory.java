@@ -21,6 +21,7 @@ public class TokenFactory  {
             case TYPE_FUNCTION: return getCustomToken(kind,image,FunctionsMapping.TYPE);
             case SIZE_FUNCTION: return getCustomToken(kind,image,FunctionsMapping.SIZE);
             case NOR: return getCustomToken(kind,image,FunctionsMapping.NOR);
+            case NOT: return getCustomToken(kind,image,FunctionsMapping.NOT);
             case LIKE: return getCustomToken(kind,image,FunctionsMapping.LIKE);
             case MOD_FUNCTION: return getCustomToken(kind,image,FunctionsMapping.MOD);
             case ALL: return getCustomToken(kind,image,FunctionsMapping.ALL);
@@ -30,7 +31,7 @@ public class TokenFactory  {
     }
 
     private static TransformToken getCustomToken(int kind, String image, FunctionsMapping mapping){
-        return new TransformToken(kind,image,mapping.getFiltersFunction(),mapping.getCriteraFunction());
+        return new TransformToken(kind,image,mapping);
     }
 
 }
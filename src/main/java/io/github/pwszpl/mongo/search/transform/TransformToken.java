@@ -3,20 +3,22 @@ package io.github.pwszpl.mongo.search.transform;
 import io.github.pwszpl.mongo.parser.Token;
 
 public class TransformToken extends Token {
-    private String functionBSON;
-    private String functionCriteria;
+    private FunctionsMapping mapping;
 
-    public TransformToken(int kind, String image, String function, String functionCrit) {
+    public TransformToken(int kind, String image, FunctionsMapping mapping) {
         super(kind, image);
-        this.functionBSON = function;
-        this.functionCriteria = functionCrit;
+        this.mapping = mapping;
+    }
+
+    public FunctionsMapping getMapping() {
+        return mapping;
     }
 
     public String getFunctionBSON() {
-        return functionBSON;
+        return mapping.getFiltersFunction();
     }
 
     public String getFunctionCriteria() {
-        return functionCriteria;
+        return mapping.getCriteraFunction();
     }
 }
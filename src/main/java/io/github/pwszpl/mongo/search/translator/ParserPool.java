@@ -0,0 +1,51 @@
+package io.github.pwszpl.mongo.search.translator;
+
+import io.github.pwszpl.mongo.parser.MongoSearchEngineParser;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * Lock free pool of parsers. Threads take parsers from slots selected by thread id, so concurrent threads mostly use
+ * different slots. New parser is created when probed slots are empty and returned parser is dropped when they are full.
+ * Pool doesn't depend on thread locals, so short living threads reuse parsers as well.
+ */
+final class ParserPool {
+    private static final int PROBES = 4;
+
+    private final AtomicReferenceArray<MongoSearchEngineParser> slots;
+    private final int mask;
+    private final Supplier<MongoSearchEngineParser> factory;
+
+    ParserPool(int size, Supplier<MongoSearchEngineParser> factory){
+        int capacity = Integer.highestOneBit(Math.max(PROBES, size - 1) * 2);
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        this.factory = factory;
+    }
+
+    MongoSearchEngineParser borrow(){
+        int start = slot();
+        for(int i=0;i<PROBES;i++){
+            int index = (start + i) & mask;
+            if(slots.get(index) == null) continue;
+            MongoSearchEngineParser parser = slots.getAndSet(index, null);
+            if(parser != null) return parser;
+        }
+        return factory.get();
+    }
+
+    void release(MongoSearchEngineParser parser){
+        // query isn't kept by pooled parser
+        parser.ReInit("");
+        int start = slot();
+        for(int i=0;i<PROBES;i++){
+            if(slots.compareAndSet((start + i) & mask, null, parser)) return;
+        }
+    }
+
+    private int slot(){
+        long id = Thread.currentThread().getId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 40);
+    }
+}
@@ -0,0 +1,125 @@
+package io.github.pwszpl.mongo.search.translator;
+
+import io.github.pwszpl.mongo.parser.MongoSearchEngineParser;
+import io.github.pwszpl.mongo.parser.ParseException;
+import io.github.pwszpl.mongo.search.ast.LikeMode;
+import io.github.pwszpl.mongo.search.ast.QueryNode;
+import io.github.pwszpl.mongo.search.limits.QueryLimits;
+import io.github.pwszpl.mongo.search.metrics.TranslationListener;
+import io.github.pwszpl.mongo.search.transform.QueryTransformer;
+
+/**
+ * Thread safe translator, which can be shared by whole application instead of creating parser for each query.
+ * Parsers are reused from lock free pool and reinitialised with each query, all of them use the same
+ * transformer, LIKE mode, limits and listener.
+ */
+public class QueryTranslator<R> {
+    private final QueryTransformer<R> transformer;
+    private final ParserPool parsers;
+
+    private QueryTranslator(Builder<R> builder){
+        this.transformer = builder.transformer;
+        LikeMode likeMode = builder.likeMode;
+        QueryLimits limits = builder.limits;
+        TranslationListener listener = builder.listener;
+        this.parsers = new ParserPool(builder.poolSize, () -> {
+            MongoSearchEngineParser parser = new MongoSearchEngineParser("");
+            parser.setTransformer(transformer);
+            parser.setLikeMode(likeMode);
+            parser.setQueryLimits(limits);
+            parser.setTranslationListener(listener);
+            return parser;
+        });
+    }
+
+    public static <R> QueryTranslator<R> of(QueryTransformer<R> transformer){
+        return builder(transformer).build();
+    }
+
+    public static <R> Builder<R> builder(QueryTransformer<R> transformer){
+        return new Builder<>(transformer);
+    }
+
+    /**
+     * @return query translated with transformer of translator, the same as result of parse() method
+     */
+    @SuppressWarnings("unchecked")
+    public R translate(CharSequence query) throws ParseException {
+        MongoSearchEngineParser parser = parsers.borrow();
+        try {
+            parser.ReInit(query);
+            return (R) parser.parse();
+        } finally {
+            parsers.release(parser);
+        }
+    }
+
+    /**
+     * @return query tree, which can be transformed with any QueryTransformer
+     */
+    public QueryNode parseTree(CharSequence query) throws ParseException {
+        MongoSearchEngineParser parser = parsers.borrow();
+        try {
+            parser.ReInit(query);
+            return parser.parseTree();
+        } finally {
+            parsers.release(parser);
+        }
+    }
+
+    /**
+     * @return query with SELECT, ORDER BY and LIMIT/OFFSET clauses translated like by parseStatement() method
+     */
+    public Object translateStatement(CharSequence query) throws ParseException {
+        MongoSearchEngineParser parser = parsers.borrow();
+        try {
+            parser.ReInit(query);
+            return parser.parseStatement();
+        } finally {
+            parsers.release(parser);
+        }
+    }
+
+    public QueryTransformer<R> getTransformer() {
+        return transformer;
+    }
+
+    public static final class Builder<R> {
+        private final QueryTransformer<R> transformer;
+        private LikeMode likeMode = LikeMode.REGEX;
+        private QueryLimits limits = QueryLimits.NONE;
+        private TranslationListener listener = TranslationListener.NOOP;
+        private int poolSize = Runtime.getRuntime().availableProcessors() * 2;
+
+        private Builder(QueryTransformer<R> transformer){
+            this.transformer = transformer;
+        }
+
+        public Builder<R> likeMode(LikeMode likeMode){
+            this.likeMode = likeMode;
+            return this;
+        }
+
+        public Builder<R> limits(QueryLimits limits){
+            this.limits = limits;
+            return this;
+        }
+
+        public Builder<R> listener(TranslationListener listener){
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * Sets number of pooled parsers, twice the number of processors by default.
+         */
+        public Builder<R> poolSize(int poolSize){
+            this.poolSize = poolSize;
+            return this;
+        }
+
+        public QueryTranslator<R> build(){
+            return new QueryTranslator<>(this);
+        }
+    }
+}
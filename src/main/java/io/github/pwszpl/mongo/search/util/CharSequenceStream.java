@@ -0,0 +1,238 @@
+package io.github.pwszpl.mongo.search.util;
+
+import io.github.pwszpl.mongo.parser.SimpleCharStream;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Character stream of generated token manager reading query directly from CharSequence (String, StringBuilder, CharBuffer)
+ * by offsets, without copying it into stream buffers. Instance can be reset with another query and reused,
+ * nothing is allocated on reset unless query contains more lines than any previous one.
+ * Images of keywords and operators typed in lower or upper case are shared constants, only remaining token images are copied.
+ */
+public class CharSequenceStream extends SimpleCharStream {
+    private static final String[][] keywords = keywordsByLength("IN", "NIN", "ALL", "LIKE", "MATCHES", "EXISTS", "TYPE", "SIZE", "MOD",
+            "AND", "OR", "NOR", "NOT", "TRUE", "FALSE", "SELECT", "WHERE", "ASC", "DESC", "LIMIT", "OFFSET",
+            "&&", "||", "!", "<>", "!=", "^=");
+    private static final IOException END_OF_INPUT = new EndOfInput();
+
+    private CharSequence input = "";
+    private int end;
+    private int position;
+    private int tokenBegin;
+    // offset following furthest character read for current token, end + 1 when end of input was reached
+    private int readLimit;
+    // offsets of first characters of second and following lines
+    private int[] lineStarts = new int[0];
+    private int lineCount;
+
+    public CharSequenceStream(){
+        super(new StringReader(""), 1, 1, 1);
+    }
+
+    public CharSequenceStream(CharSequence input){
+        this();
+        reset(input);
+    }
+
+    /**
+     * Starts reading of new query from its first character.
+     */
+    public void reset(CharSequence input){
+        this.input = input;
+        this.end = input.length();
+        this.position = 0;
+        this.tokenBegin = 0;
+        this.readLimit = 0;
+        this.lineCount = 0;
+        for(int i=0;i<end;i++){
+            char c = input.charAt(i);
+            if(c == '\n' || (c == '\r' && (i + 1 == end || input.charAt(i + 1) != '\n'))){
+                if(lineCount == lineStarts.length) lineStarts = Arrays.copyOf(lineStarts, Math.max(8, lineCount * 2));
+                lineStarts[lineCount++] = i + 1;
+            }
+        }
+    }
+
+    /**
+     * Moves reading position to given offset of current query, token manager has to be reinitialised afterwards.
+     */
+    public void seek(int offset){
+        this.position = offset;
+        this.tokenBegin = offset;
+        this.readLimit = offset;
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        if(position >= end){
+            readLimit = end + 1;
+            throw END_OF_INPUT;
+        }
+        char c = input.charAt(position++);
+        if(position > readLimit) readLimit = position;
+        return c;
+    }
+
+    @Override
+    public char BeginToken() throws IOException {
+        // as in SimpleCharStream, EOF token is placed at last character of input
+        tokenBegin = position < end ? position : position - 1;
+        readLimit = position;
+        return readChar();
+    }
+
+    /**
+     * @return offset of first character of last token
+     */
+    public int getBeginOffset() {
+        return tokenBegin;
+    }
+
+    /**
+     * @return offset following furthest character examined while matching last token, including characters read ahead
+     * and backed up. Token can change only when one of these characters is changed.
+     */
+    public int getReadLimit() {
+        return readLimit;
+    }
+
+    @Override
+    public void backup(int amount) {
+        position -= amount;
+    }
+
+    @Override
+    public String GetImage() {
+        int length = position - tokenBegin;
+        if(length < keywords.length){
+            for(String keyword : keywords[length]){
+                if(matches(keyword)) return keyword;
+            }
+        }
+        return input.subSequence(tokenBegin, position).toString();
+    }
+
+    @Override
+    public char[] GetSuffix(int len) {
+        char[] suffix = new char[len];
+        for(int i=0;i<len;i++){
+            suffix[i] = input.charAt(position - len + i);
+        }
+        return suffix;
+    }
+
+    @Override
+    public void Done() {
+        input = "";
+        end = 0;
+    }
+
+    @Override
+    public int getBeginLine() {
+        return lineOf(tokenBegin);
+    }
+
+    @Override
+    public int getBeginColumn() {
+        return columnOf(tokenBegin);
+    }
+
+    @Override
+    public int getEndLine() {
+        return lineOf(Math.max(position - 1, tokenBegin));
+    }
+
+    @Override
+    public int getEndColumn() {
+        return columnOf(Math.max(position - 1, tokenBegin));
+    }
+
+    @Override
+    @Deprecated
+    public int getLine() {
+        return getEndLine();
+    }
+
+    @Override
+    @Deprecated
+    public int getColumn() {
+        return getEndColumn();
+    }
+
+    private boolean matches(String keyword){
+        for(int i=0;i<keyword.length();i++){
+            if(input.charAt(tokenBegin + i) != keyword.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return line of character at given offset of current query
+     */
+    public int lineOf(int offset){
+        if(offset < 0) return 0;
+        int index = Arrays.binarySearch(lineStarts, 0, lineCount, offset);
+        return (index >= 0 ? index + 1 : -index - 1) + 1;
+    }
+
+    /**
+     * @return column of character at given offset of current query
+     */
+    public int columnOf(int offset){
+        if(offset < 0) return 0;
+        int line = lineOf(offset);
+        return offset - (line == 1 ? 0 : lineStarts[line - 2]) + 1;
+    }
+
+    /**
+     * @return offset of character at given line and column of current query
+     */
+    public int offsetOf(int line, int column){
+        return (line <= 1 ? 0 : lineStarts[line - 2]) + column - 1;
+    }
+
+    /**
+     * @return length of current query
+     */
+    public int length(){
+        return end;
+    }
+
+    /**
+     * @return characters of current query between given offsets, end offset is limited to query length
+     */
+    public CharSequence subSequence(int begin, int end){
+        return input.subSequence(begin, Math.min(end, this.end));
+    }
+
+    private static String[][] keywordsByLength(String... words){
+        int maxLength = 0;
+        for(String word : words) maxLength = Math.max(maxLength, word.length());
+        String[][] result = new String[maxLength + 1][0];
+        for(String word : words){
+            String lower = word.toLowerCase(Locale.ROOT);
+            String[] variants = lower.equals(word) ? new String[]{word} : new String[]{lower, word};
+            for(String variant : variants){
+                String[] list = result[variant.length()];
+                list = Arrays.copyOf(list, list.length + 1);
+                list[list.length - 1] = variant;
+                result[variant.length()] = list;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Signals end of input to token manager. Shared instance without stack trace, as it's thrown once for each query.
+     */
+    private static class EndOfInput extends IOException {
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package io.github.pwszpl.mongo.search.util;
+
+/**
+ * Translation of SQL LIKE patterns (% - any sequence of characters, _ - single character, \ - escapes next character)
+ * to regular expressions.
+ */
+public class LikePatterns {
+    private static final char ESCAPE = '\\';
+    private static final String REGEX_METACHARACTERS = "\\.[]{}()*+?^$|";
+
+    /**
+     * @return regular expression matching whole value, anchored at start unless pattern starts with %
+     * and at end unless pattern ends with %
+     */
+    public static String toRegex(String pattern){
+        StringBuilder regex = new StringBuilder(pattern.length() + 8);
+        int begin = 0;
+        int end = pattern.length();
+        while(begin < end && pattern.charAt(begin) == '%') begin++;
+        if(begin > 0 && begin == end) return "";
+        while(end > begin && pattern.charAt(end - 1) == '%' && !isEscaped(pattern, end - 1)) end--;
+        boolean anyEnding = end < pattern.length();
+        if(begin == 0) regex.append('^');
+        for(int i=begin;i<end;i++){
+            char c = pattern.charAt(i);
+            if(c == ESCAPE && i + 1 < end){
+                appendLiteral(regex, pattern.charAt(++i));
+            } else if(c == '%'){
+                regex.append(".*");
+                while(i + 1 < end && pattern.charAt(i + 1) == '%') i++;
+            } else if(c == '_'){
+                regex.append('.');
+            } else {
+                appendLiteral(regex, c);
+            }
+        }
+        if(!anyEnding) regex.append('$');
+        return regex.toString();
+    }
+
+    /**
+     * @return true if pattern contains unescaped % or _
+     */
+    public static boolean hasWildcards(String pattern){
+        for(int i=0;i<pattern.length();i++){
+            char c = pattern.charAt(i);
+            if(c == ESCAPE) i++;
+            else if(c == '%' || c == '_') return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return literal text of pattern up to first wildcard, with escapes removed
+     */
+    public static String literalPrefix(String pattern){
+        StringBuilder prefix = new StringBuilder(pattern.length());
+        for(int i=0;i<pattern.length();i++){
+            char c = pattern.charAt(i);
+            if(c == ESCAPE && i + 1 < pattern.length()) c = pattern.charAt(++i);
+            else if(c == '%' || c == '_') break;
+            prefix.append(c);
+        }
+        return prefix.toString();
+    }
+
+    /**
+     * @return smallest string greater than all strings starting with given prefix, or null if there is none
+     * or it cannot be computed safely (prefix ending with surrogate)
+     */
+    public static String prefixUpperBound(String prefix){
+        int end = prefix.length();
+        while(end > 0 && prefix.charAt(end - 1) == Character.MAX_VALUE) end--;
+        if(end == 0) return null;
+        char last = prefix.charAt(end - 1);
+        if(Character.isSurrogate(last) || Character.isSurrogate((char) (last + 1))) return null;
+        return prefix.substring(0, end - 1) + (char) (last + 1);
+    }
+
+    /**
+     * @return true if character at given index is preceded by odd number of escape characters
+     */
+    private static boolean isEscaped(String pattern, int index){
+        int escapes = 0;
+        for(int i=index-1;i>=0 && pattern.charAt(i) == ESCAPE;i--) escapes++;
+        return escapes % 2 == 1;
+    }
+
+    private static void appendLiteral(StringBuilder regex, char c){
+        if(REGEX_METACHARACTERS.indexOf(c) >= 0) regex.append(ESCAPE);
+        regex.append(c);
+    }
+}
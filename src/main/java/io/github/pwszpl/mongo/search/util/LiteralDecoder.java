@@ -0,0 +1,203 @@
+package io.github.pwszpl.mongo.search.util;
+
+import org.bson.types.Decimal128;
+
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.util.Date;
+
+/**
+ * Decodes number and date literals directly from characters of token image, without intermediate strings.
+ * Integers are decoded as Integer, Long when they don't fit in int and Decimal128 when they don't fit in long.
+ * Real numbers are decoded as Double, or Decimal128 when they have more significant digits than double can hold.
+ * Small integral values are shared constants.
+ */
+public class LiteralDecoder {
+    private static final int CACHE_LOW = -128;
+    private static final int CACHE_HIGH = 1024;
+    private static final Integer[] INTEGERS = new Integer[CACHE_HIGH - CACHE_LOW];
+    private static final Double[] DOUBLES = new Double[CACHE_HIGH - CACHE_LOW];
+    // powers of ten exactly representable as double
+    private static final double[] POWERS_OF_TEN = new double[23];
+    private static final int DOUBLE_DIGITS = 17;
+    private static final int FAST_PATH_DIGITS = 15;
+    private static final int DECIMAL128_DIGITS = 34;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+    static {
+        for(int i=0;i<INTEGERS.length;i++){
+            INTEGERS[i] = i + CACHE_LOW;
+            DOUBLES[i] = (double) (i + CACHE_LOW);
+        }
+        POWERS_OF_TEN[0] = 1;
+        for(int i=1;i<POWERS_OF_TEN.length;i++) POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+    }
+
+    /**
+     * @return Integer, Long or Decimal128 value of unsigned integer literal
+     */
+    public static Number decodeInteger(CharSequence image){
+        int end = image.length();
+        long value = 0;
+        for(int i=0;i<end;i++){
+            int digit = digit(image, i);
+            if(value > (Long.MAX_VALUE - digit) / 10) return decodeLarge(image);
+            value = value * 10 + digit;
+        }
+        if(value <= Integer.MAX_VALUE) return integer((int) value);
+        return value;
+    }
+
+    /**
+     * @return Double value of real number literal with optional sign, or Decimal128 when it has more than 17 significant digits
+     */
+    public static Number decodeReal(CharSequence image){
+        int end = image.length();
+        int i = 0;
+        boolean negative = image.charAt(0) == '-';
+        if(negative) i++;
+        long mantissa = 0;
+        int significantDigits = 0;
+        int scale = 0;
+        boolean fraction = false;
+        for(;i<end;i++){
+            char c = image.charAt(i);
+            if(c == '.'){
+                fraction = true;
+                continue;
+            }
+            int digit = digit(image, i);
+            if(significantDigits == 0 && digit == 0){
+                if(fraction) scale++;
+                continue;
+            }
+            if(++significantDigits > FAST_PATH_DIGITS){
+                return significantDigits(image, i) > DOUBLE_DIGITS ? decodeLarge(image) : Double.valueOf(image.toString());
+            }
+            mantissa = mantissa * 10 + digit;
+            if(fraction) scale++;
+        }
+        if(scale >= POWERS_OF_TEN.length) return Double.valueOf(image.toString());
+        if(mantissa == 0) return negative ? -0.0 : DOUBLES[-CACHE_LOW];
+        if(scale == 0 && mantissa < CACHE_HIGH && (!negative || mantissa <= -CACHE_LOW)){
+            return DOUBLES[(int) (negative ? -mantissa : mantissa) - CACHE_LOW];
+        }
+        // mantissa below 2^53 divided by exact power of ten is correctly rounded
+        double value = mantissa / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    /**
+     * @return midnight UTC of yyyy-MM-dd date literal
+     */
+    public static Date decodeDate(CharSequence image){
+        if(image.length() != 10) throw unparsable(image);
+        return new Date(epochDay(image) * MILLIS_PER_DAY);
+    }
+
+    /**
+     * @return instant of yyyy-MM-ddTHH:mm:ss[.fraction][Z|+HH:mm|-HH:mm] timestamp literal, UTC when offset is not given.
+     * Fraction is truncated to milliseconds.
+     */
+    public static Date decodeTimestamp(CharSequence image){
+        int end = image.length();
+        if(end < 19 || Character.toUpperCase(image.charAt(10)) != 'T'
+                || image.charAt(13) != ':' || image.charAt(16) != ':') throw unparsable(image);
+        int hour = number(image, 11, 2);
+        int minute = number(image, 14, 2);
+        int second = number(image, 17, 2);
+        if(hour > 23 || minute > 59 || second > 59) throw unparsable(image);
+        long millis = epochDay(image) * MILLIS_PER_DAY + ((hour * 60L + minute) * 60 + second) * 1000;
+        int i = 19;
+        if(i < end && image.charAt(i) == '.'){
+            int fractionEnd = ++i;
+            while(fractionEnd < end && Character.isDigit(image.charAt(fractionEnd))) fractionEnd++;
+            if(fractionEnd == i || fractionEnd - i > 9) throw unparsable(image);
+            int fractionMillis = 0;
+            for(int digit=0;digit<3;digit++){
+                fractionMillis = fractionMillis * 10 + (i + digit < fractionEnd ? digit(image, i + digit) : 0);
+            }
+            millis += fractionMillis;
+            i = fractionEnd;
+        }
+        if(i < end){
+            char offset = Character.toUpperCase(image.charAt(i));
+            if(offset == 'Z' && i + 1 == end) return new Date(millis);
+            if((offset != '+' && offset != '-') || i + 6 != end || image.charAt(i + 3) != ':') throw unparsable(image);
+            int offsetHours = number(image, i + 1, 2);
+            int offsetMinutes = number(image, i + 4, 2);
+            if(offsetHours > 18 || offsetMinutes > 59 || (offsetHours == 18 && offsetMinutes > 0)) throw unparsable(image);
+            long offsetMillis = (offsetHours * 60L + offsetMinutes) * 60_000;
+            millis += offset == '+' ? -offsetMillis : offsetMillis;
+        }
+        return new Date(millis);
+    }
+
+    /**
+     * @return shared instance for small values
+     */
+    public static Integer integer(int value){
+        return value >= CACHE_LOW && value < CACHE_HIGH ? INTEGERS[value - CACHE_LOW] : Integer.valueOf(value);
+    }
+
+    private static Number decodeLarge(CharSequence image){
+        BigDecimal value = new BigDecimal(image.toString());
+        if(value.precision() > DECIMAL128_DIGITS) return value.doubleValue();
+        return new Decimal128(value);
+    }
+
+    // significant digits of literal having more than fast path digits before given index, without trailing zeros
+    private static int significantDigits(CharSequence image, int from){
+        int count = FAST_PATH_DIGITS;
+        int significant = count;
+        for(int i=from;i<image.length();i++){
+            char c = image.charAt(i);
+            if(c == '.') continue;
+            count++;
+            if(c != '0') significant = count;
+        }
+        return significant;
+    }
+
+    private static long epochDay(CharSequence image){
+        if(image.charAt(4) != '-' || image.charAt(7) != '-') throw unparsable(image);
+        int year = number(image, 0, 4);
+        int month = number(image, 5, 2);
+        int day = number(image, 8, 2);
+        if(month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) throw unparsable(image);
+        // days from civil date, proleptic Gregorian calendar
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097L + dayOfEra - 719_468;
+    }
+
+    private static int daysInMonth(int year, int month){
+        if(month == 2 && year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) return 29;
+        return DAYS_IN_MONTH[month - 1];
+    }
+
+    private static int number(CharSequence image, int begin, int length){
+        if(begin + length > image.length()) throw unparsable(image);
+        int value = 0;
+        for(int i=begin;i<begin + length;i++){
+            char c = image.charAt(i);
+            if(c < '0' || c > '9') throw unparsable(image);
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static int digit(CharSequence image, int index){
+        char c = image.charAt(index);
+        if(c < '0' || c > '9') throw new NumberFormatException(String.format("For input string: \"%s\"", image));
+        return c - '0';
+    }
+
+    private static DateTimeException unparsable(CharSequence image){
+        return new DateTimeException(String.format("Text '%s' could not be parsed as date", image));
+    }
+}
@@ -0,0 +1,183 @@
+package io.github.pwszpl.mongo.search.util;
+
+import io.github.pwszpl.mongo.search.transform.FunctionsMapping;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Dispatch table calling methods of Filters/Criteria class for given FunctionsMapping.
+ * Appropriate overload is looked up only once for each shape (runtime classes) of arguments and then
+ * called through precomputed MethodHandle. Shapes matching more than one overload, which can't be ordered
+ * by specificity, are resolved on each call with ReflectionUtil.
+ * Instances are thread safe.
+ */
+public class MethodDispatcher {
+    private static final MethodHandle AMBIGUOUS = MethodHandles.constant(Object.class, null);
+    private static final MethodHandle APPLY_MAPPER;
+    static {
+        try {
+            APPLY_MAPPER = MethodHandles.publicLookup().findVirtual(Function.class, "apply", MethodType.methodType(Object.class, Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Map<String, List<Method>> methods;
+    private final Map<FunctionsMapping, ShapeTable> tables = new EnumMap<>(FunctionsMapping.class);
+
+    /**
+     * @param target class which public methods are called
+     * @param methodName function giving name of target class method for each mapping
+     */
+    public MethodDispatcher(Class<?> target, Function<FunctionsMapping, String> methodName){
+        this.methods = Arrays.stream(target.getDeclaredMethods())
+                .filter(m -> Modifier.isPublic(m.getModifiers()))
+                .collect(Collectors.groupingBy(Method::getName));
+        // tables are created eagerly, so map is never modified after construction
+        for(FunctionsMapping mapping : FunctionsMapping.values()){
+            tables.put(mapping, new ShapeTable(methodName.apply(mapping)));
+        }
+    }
+
+    /**
+     * Calls method mapped for function with given arguments. For instance methods first argument is the receiver.
+     */
+    public Object call(FunctionsMapping mapping, List<Object> params){
+        Object[] args = params.toArray();
+        ShapeTable table = tables.get(mapping);
+        MethodHandle handle = table.find(args);
+        if(handle == null){
+            handle = table.resolve(args);
+        }
+        if(handle == AMBIGUOUS){
+            return ReflectionUtil.findAppropriateMethodAndCall(table.methodName, params, methods);
+        }
+        try {
+            return (Object) handle.invokeExact(args);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Copy on write list of argument shapes resolved for single method name.
+     */
+    private class ShapeTable {
+        private final String methodName;
+        private volatile Entry[] entries = new Entry[0];
+
+        ShapeTable(String methodName){
+            this.methodName = methodName;
+        }
+
+        MethodHandle find(Object[] args){
+            for(Entry entry : entries){
+                if(entry.matches(args)) return entry.handle;
+            }
+            return null;
+        }
+
+        synchronized MethodHandle resolve(Object[] args){
+            MethodHandle handle = find(args);
+            if(handle != null) return handle;
+
+            Class<?>[] shape = new Class<?>[args.length];
+            for(int i=0;i<args.length;i++){
+                shape[i] = args[i] == null ? null : args[i].getClass();
+            }
+            handle = createHandle(methodName, shape);
+            Entry[] extended = Arrays.copyOf(entries, entries.length + 1);
+            extended[entries.length] = new Entry(shape, handle);
+            entries = extended;
+            return handle;
+        }
+    }
+
+    private static class Entry {
+        private final Class<?>[] shape;
+        private final MethodHandle handle;
+
+        Entry(Class<?>[] shape, MethodHandle handle){
+            this.shape = shape;
+            this.handle = handle;
+        }
+
+        boolean matches(Object[] args){
+            if(args.length != shape.length) return false;
+            for(int i=0;i<args.length;i++){
+                Class<?> argClass = args[i] == null ? null : args[i].getClass();
+                if(argClass != shape[i]) return false;
+            }
+            return true;
+        }
+    }
+
+    private MethodHandle createHandle(String methodName, Class<?>[] shape){
+        List<Method> candidates = new ArrayList<>();
+        for(Method m : methods.getOrDefault(methodName, new ArrayList<>())){
+            if(ReflectionUtil.isValidCandidate(m, shape)) candidates.add(m);
+        }
+        if(candidates.isEmpty()){
+            throw new RuntimeException("Couldn't find acceptable transformation for input object.");
+        }
+        Method method = mostSpecific(candidates);
+        if(method == null) return AMBIGUOUS;
+
+        try {
+            MethodHandle handle = MethodHandles.publicLookup().unreflect(method).asFixedArity();
+            handle = handle.asType(handle.type().generic());
+            int offset = ReflectionUtil.isMethodStatic(method) ? 0 : 1;
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            for(int i=0;i<parameterTypes.length;i++){
+                Function mapper = ReflectionUtil.getMapper(shape[i + offset], parameterTypes[i]);
+                if(mapper != null){
+                    handle = MethodHandles.filterArguments(handle, i + offset, APPLY_MAPPER.bindTo(mapper));
+                }
+            }
+            return handle.asSpreader(Object[].class, shape.length)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return candidate which parameters are assignable to parameters of all other candidates, or null if there is none
+     */
+    private static Method mostSpecific(List<Method> candidates){
+        for(Method m : candidates){
+            boolean specific = true;
+            for(Method other : candidates){
+                if(m != other && !isMoreSpecific(m, other)){
+                    specific = false;
+                    break;
+                }
+            }
+            if(specific) return m;
+        }
+        return null;
+    }
+
+    private static boolean isMoreSpecific(Method m, Method other){
+        Class<?>[] params = m.getParameterTypes();
+        Class<?>[] otherParams = other.getParameterTypes();
+        if(params.length != otherParams.length) return false;
+        for(int i=0;i<params.length;i++){
+            if(!otherParams[i].isAssignableFrom(params[i])) return false;
+        }
+        return true;
+    }
+}
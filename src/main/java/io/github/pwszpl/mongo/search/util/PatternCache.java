@@ -0,0 +1,59 @@
+package io.github.pwszpl.mongo.search.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Bounded cache of compiled regular expressions, least recently used pattern is evicted when cache is full.
+ */
+public class PatternCache {
+    private final Map<Key, Pattern> patterns;
+
+    public PatternCache(int maxSize){
+        this.patterns = new LinkedHashMap<Key, Pattern>(16, 0.75f, true){
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Pattern> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public synchronized Pattern compile(String regex, int flags){
+        Key key = new Key(regex, flags);
+        Pattern pattern = patterns.get(key);
+        if(pattern == null){
+            pattern = Pattern.compile(regex, flags);
+            patterns.put(key, pattern);
+        }
+        return pattern;
+    }
+
+    public synchronized int size(){
+        return patterns.size();
+    }
+
+    private static final class Key {
+        private final String regex;
+        private final int flags;
+
+        private Key(String regex, int flags){
+            this.regex = regex;
+            this.flags = flags;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return flags == key.flags && regex.equals(key.regex);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(regex, flags);
+        }
+    }
+}
@@ -15,7 +15,8 @@ import static io.github.pwszpl.mongo.parser.MongoSearchEngineParserConstants.NOT
 
 public class ReflectionUtil {
     private static final Map<Class<?>, Class<?>> primitiveMap = new HashMap<>();
-    private static final Map<String, Function> mappers = new HashMap<>();
+    // target class -> (source class -> mapping function)
+    private static final Map<Class<?>, Map<Class<?>, Function>> mappers = new HashMap<>();
     static {
         primitiveMap.put(boolean.class, Boolean.class);
         primitiveMap.put(byte.class, Byte.class);
@@ -26,16 +27,23 @@ public class ReflectionUtil {
         primitiveMap.put(long.class, Long.class);
         primitiveMap.put(short.class, Short.class);
 
-        mappers.put(getMappersKey(Integer.class,Long.class), x -> Integer.toUnsignedLong((int)x));
-        mappers.put(getMappersKey(Integer.class,long.class), x -> Integer.toUnsignedLong((int)x));
+        addMapper(Integer.class, Long.class, x -> ((Integer) x).longValue());
+        addMapper(Integer.class, long.class, x -> ((Integer) x).longValue());
     }
-;
 
+    private static void addMapper(Class<?> source, Class<?> target, Function mapper){
+        mappers.computeIfAbsent(target, k -> new HashMap<>()).put(source, mapper);
+    }
+
+    /**
+     * Looks up method matching parameters on each call. Used by MethodDispatcher for overloads which can't be resolved once.
+     */
     public static Object findAppropriateMethodAndCall(String methodName, List<Object> params, Map<String,List<Method>> methods){
         List<Method> mList = methods.get(methodName);
+        Class<?>[] shape = getShape(params);
         Method method = null;
         for(Method m : mList){
-            boolean valid = isValidCandidate(m,params);
+            boolean valid = isValidCandidate(m,shape);
             if(valid) {
                 method = m;
                 break;
@@ -47,18 +55,25 @@ public class ReflectionUtil {
         return invokeMethod(method,params);
     }
 
+    private static Class<?>[] getShape(List<Object> params){
+        Class<?>[] shape = new Class<?>[params.size()];
+        for(int i=0;i<shape.length;i++){
+            shape[i] = params.get(i) == null ? null : params.get(i).getClass();
+        }
+        return shape;
+    }
+
     private static List<Object> castParamsIfNeeded(Method method, List<Object> params) {
         List<Object> nList = new ArrayList<>();
         Class<?>[] varList = method.getParameterTypes();
         for(int i=0;i<varList.length;i++){
-            Class sourceClass = varList[i];
-            Class targetClass = params.get(i).getClass();
-            Function mappingFunction = mappers.get(getMappersKey(sourceClass,targetClass));
+            Object param = params.get(i);
+            Function mappingFunction = param == null ? null : getMapper(param.getClass(), varList[i]);
             Object newObj = null;
             if(mappingFunction != null){
-                newObj = mappingFunction.apply(params.get(i));
+                newObj = mappingFunction.apply(param);
             } else {
-                newObj = params.get(i);
+                newObj = param;
             }
             nList.add(newObj);
         }
@@ -81,8 +96,7 @@ public class ReflectionUtil {
         }
 
         try {
-            List params2 = castParamsIfNeeded(m,invokingParams);
-            return m.invoke(invokingObject,invokingParams.toArray());
+            return m.invoke(invokingObject,castParamsIfNeeded(m,invokingParams).toArray());
         } catch (IllegalAccessException e) {
             throw new RuntimeException(e);
         } catch (InvocationTargetException e) {
@@ -90,40 +104,50 @@ public class ReflectionUtil {
         }
     }
 
-    private static boolean isValidCandidate(Method m, List<Object> params) {
+    /**
+     * @param shape classes of arguments (null for null argument), for instance methods first class is receiver class
+     */
+    public static boolean isValidCandidate(Method m, Class<?>[] shape) {
         if(isMethodStatic(m)){
-            if(m.getParameterCount() != params.size()) return false;
+            if(m.getParameterCount() != shape.length) return false;
 
-            boolean areParametersCompatible = checkParametersCompatibility(m,params);
+            boolean areParametersCompatible = checkParametersCompatibility(m,shape,0);
             if(!areParametersCompatible) return false;
         } else {
-            if(!m.getDeclaringClass().isAssignableFrom(params.get(0).getClass())) return false;
-            if(m.getParameterCount() != params.size()-1) return false;
+            if(shape.length == 0 || shape[0] == null || !m.getDeclaringClass().isAssignableFrom(shape[0])) return false;
+            if(m.getParameterCount() != shape.length-1) return false;
 
-            boolean areParametersCompatible = checkParametersCompatibility(m,params.subList(1, params.size()));
+            boolean areParametersCompatible = checkParametersCompatibility(m,shape,1);
             if(!areParametersCompatible) return false;
         }
 
         return true;
     }
 
-    private static boolean checkParametersCompatibility(Method m, List<Object> params){
+    private static boolean checkParametersCompatibility(Method m, Class<?>[] shape, int offset){
         Class<?>[] varList = m.getParameterTypes();
-        boolean compatibility = true;
         for(int i=0; i< varList.length;i++){
-            Class targetClass = varList[i];
-            Class sourceClass = params.get(i).getClass();
-            if(targetClass.isAssignableFrom(sourceClass)) continue;
-            if(targetClass.isPrimitive() && primitiveMap.get(targetClass).equals(sourceClass)) continue;
-            if(mappers.get(getMappersKey(sourceClass,targetClass)) != null) continue;
-            compatibility = false;
-            if(!compatibility) break;
+            if(!isCompatible(varList[i], shape[i + offset])) return false;
         }
-        return compatibility;
+        return true;
+    }
+
+    /**
+     * @param source class of argument, null when argument is null
+     */
+    public static boolean isCompatible(Class<?> target, Class<?> source){
+        if(source == null) return !target.isPrimitive();
+        if(target.isAssignableFrom(source)) return true;
+        if(target.isPrimitive() && primitiveMap.get(target).equals(source)) return true;
+        return getMapper(source, target) != null;
     }
 
-    private static String getMappersKey(Class source, Class target){
-        return source.getName() + "->" + target.getName();
+    /**
+     * @return function converting argument of source class to target class, or null if there is none
+     */
+    public static Function getMapper(Class<?> source, Class<?> target){
+        Map<Class<?>, Function> targetMappers = mappers.get(target);
+        return targetMappers == null ? null : targetMappers.get(source);
     }
 
     public static boolean isMethodStatic(Method m){
@@ -6,10 +6,17 @@ import java.util.Arrays;
 
 public class StringUtil {
     public static Token unescape(Token token ) {
-        if(token.image.startsWith("'")) return new Token(token.kind,token.image.substring(1,token.image.length()-1));
+        if(token.image.startsWith("'")) return new Token(token.kind,unquote(token.image));
         else return token;
     }
 
+    /**
+     * @return content of string literal image without enclosing quotes
+     */
+    public static String unquote(String image){
+        return image.substring(1,image.length()-1);
+    }
+
     public static boolean isStringInList(String s, String... comp){
         return Arrays.asList(comp).contains(s);
     }
@@ -0,0 +1,90 @@
+package io.github.pwszpl.mongo.search.validation;
+
+import io.github.pwszpl.mongo.parser.MongoSearchEngineParserConstants;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Error found by query validation - position and text of offending token, token kinds expected there for syntax errors.
+ * Expected token images and message are built only when they are requested.
+ */
+public final class QueryDiagnostic {
+    private final int offset;
+    private final int line;
+    private final int column;
+    private final String offendingText;
+    // kinds of tokens expected at offending token, null when error isn't syntax error
+    private final int[] expectedKinds;
+    private String message;
+
+    private QueryDiagnostic(int offset, int line, int column, String offendingText, int[] expectedKinds, String message){
+        this.offset = offset;
+        this.line = line;
+        this.column = column;
+        this.offendingText = offendingText;
+        this.expectedKinds = expectedKinds;
+        this.message = message;
+    }
+
+    /**
+     * @return diagnostic of token not matching grammar, offending text is empty at end of query
+     */
+    public static QueryDiagnostic syntaxError(int offset, int line, int column, String offendingText, int[] expectedKinds){
+        return new QueryDiagnostic(offset, line, column, offendingText, expectedKinds, null);
+    }
+
+    /**
+     * @return diagnostic of characters not forming any token, invalid literal value or exceeded query limit
+     */
+    public static QueryDiagnostic error(int offset, int line, int column, String offendingText, String message){
+        return new QueryDiagnostic(offset, line, column, offendingText, null, message);
+    }
+
+    public boolean isSyntaxError() {
+        return expectedKinds != null;
+    }
+
+    /**
+     * @return offset of first offending character in query
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    public String getOffendingText() {
+        return offendingText;
+    }
+
+    /**
+     * @return images of tokens expected instead of offending text, e.g. "(" or &lt;OBJ_FIELD&gt;, empty when error isn't syntax error
+     */
+    public List<String> getExpected() {
+        if(expectedKinds == null) return Collections.emptyList();
+        List<String> expected = new ArrayList<>(expectedKinds.length);
+        for(int kind : expectedKinds) expected.add(MongoSearchEngineParserConstants.tokenImage[kind]);
+        return expected;
+    }
+
+    public String getMessage() {
+        if(message == null){
+            message = String.format("Encountered \"%s\" at line %d, column %d. Was expecting one of: %s",
+                    offendingText.isEmpty() ? "<EOF>" : offendingText, line, column, String.join(", ", getExpected()));
+        }
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return getMessage();
+    }
+}
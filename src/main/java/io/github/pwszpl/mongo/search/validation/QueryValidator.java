@@ -0,0 +1,47 @@
+package io.github.pwszpl.mongo.search.validation;
+
+import io.github.pwszpl.mongo.parser.MongoSearchEngineParser;
+import io.github.pwszpl.mongo.search.ast.LikeMode;
+import io.github.pwszpl.mongo.search.limits.QueryLimits;
+
+/**
+ * Checks queries without translating them, e.g. for syntax highlighting or request validation. Queries are parsed
+ * with the same grammar, LIKE mode and limits as translated queries, but no Bson or Criteria objects are created and
+ * syntax errors are reported without building exception messages and stack traces.
+ * <p>
+ * Validator is thread safe, each thread reuses its own parser.
+ */
+public class QueryValidator {
+    private final LikeMode likeMode;
+    private final QueryLimits limits;
+    private final ThreadLocal<MongoSearchEngineParser> parsers = ThreadLocal.withInitial(this::newParser);
+
+    public QueryValidator(){
+        this(LikeMode.REGEX, QueryLimits.NONE);
+    }
+
+    public QueryValidator(LikeMode likeMode, QueryLimits limits){
+        this.likeMode = likeMode;
+        this.limits = limits;
+    }
+
+    /**
+     * @return first error of query, null when query is valid
+     */
+    public QueryDiagnostic validate(CharSequence query){
+        MongoSearchEngineParser parser = parsers.get();
+        parser.ReInit(query);
+        return parser.validate();
+    }
+
+    public boolean isValid(CharSequence query){
+        return validate(query) == null;
+    }
+
+    private MongoSearchEngineParser newParser(){
+        MongoSearchEngineParser parser = MongoSearchEngineParser.forValidation();
+        parser.setLikeMode(likeMode);
+        parser.setQueryLimits(limits);
+        return parser;
+    }
+}
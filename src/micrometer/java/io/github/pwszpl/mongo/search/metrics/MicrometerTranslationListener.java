@@ -0,0 +1,76 @@
+package io.github.pwszpl.mongo.search.metrics;
+
+import io.github.pwszpl.mongo.search.transform.FunctionsMapping;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes translation metrics to Micrometer registry:
+ * <ul>
+ *     <li>mongo.query.translation - timer of each phase (tag phase: lexing, parsing, transform)</li>
+ *     <li>mongo.query.nodes - distribution of query tree sizes</li>
+ *     <li>mongo.query.operators - counter of operators (tag operator)</li>
+ *     <li>mongo.query.in.size - distribution of IN/NIN/ALL list sizes</li>
+ *     <li>mongo.query.errors - counter of failed translations (tag type: exception class)</li>
+ * </ul>
+ */
+public class MicrometerTranslationListener implements TranslationListener {
+    private final MeterRegistry registry;
+    private final Timer lexing;
+    private final Timer parsing;
+    private final Timer transform;
+    private final DistributionSummary nodes;
+    private final DistributionSummary inListSizes;
+    private final Map<FunctionsMapping, Counter> operators = new EnumMap<>(FunctionsMapping.class);
+
+    public MicrometerTranslationListener(MeterRegistry registry){
+        this.registry = registry;
+        this.lexing = phaseTimer(registry, "lexing");
+        this.parsing = phaseTimer(registry, "parsing");
+        this.transform = phaseTimer(registry, "transform");
+        this.nodes = DistributionSummary.builder("mongo.query.nodes")
+                .description("Number of nodes in translated query tree")
+                .register(registry);
+        this.inListSizes = DistributionSummary.builder("mongo.query.in.size")
+                .description("Number of values in IN/NIN/ALL lists")
+                .register(registry);
+        for(FunctionsMapping operator : FunctionsMapping.values()){
+            operators.put(operator, Counter.builder("mongo.query.operators")
+                    .description("Number of operators in translated queries")
+                    .tag("operator", operator.name())
+                    .register(registry));
+        }
+    }
+
+    @Override
+    public void onTranslated(TranslationMetrics metrics) {
+        lexing.record(metrics.getLexingNanos(), TimeUnit.NANOSECONDS);
+        parsing.record(metrics.getParsingNanos(), TimeUnit.NANOSECONDS);
+        transform.record(metrics.getTransformNanos(), TimeUnit.NANOSECONDS);
+        nodes.record(metrics.getNodeCount());
+        for(Map.Entry<FunctionsMapping, Integer> entry : metrics.getOperatorCounts().entrySet()){
+            operators.get(entry.getKey()).increment(entry.getValue());
+        }
+        for(Integer size : metrics.getInListSizes()){
+            inListSizes.record(size);
+        }
+    }
+
+    @Override
+    public void onError(Throwable error) {
+        registry.counter("mongo.query.errors", "type", error.getClass().getSimpleName()).increment();
+    }
+
+    private static Timer phaseTimer(MeterRegistry registry, String phase){
+        return Timer.builder("mongo.query.translation")
+                .description("Time of query translation phase")
+                .tag("phase", phase)
+                .register(registry);
+    }
+}
@@ -1,28 +1,114 @@
 package io.github.pwszpl.mongo.parser;
 
+import com.mongodb.MongoClientSettings;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Collation;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Sorts;
+import io.github.pwszpl.mongo.search.ast.ComparisonNode;
+import io.github.pwszpl.mongo.search.ast.ExistsNode;
+import io.github.pwszpl.mongo.search.ast.LikeMode;
+import io.github.pwszpl.mongo.search.ast.LogicalNode;
+import io.github.pwszpl.mongo.search.ast.NotNode;
+import io.github.pwszpl.mongo.search.ast.QueryNode;
+import io.github.pwszpl.mongo.search.ast.QueryStatement;
+import io.github.pwszpl.mongo.search.ast.SortField;
+import io.github.pwszpl.mongo.search.batch.BatchTranslator;
+import io.github.pwszpl.mongo.search.batch.TranslationResult;
+import io.github.pwszpl.mongo.search.cache.CacheStatistics;
+import io.github.pwszpl.mongo.search.cache.TranslationCache;
+import io.github.pwszpl.mongo.search.index.IndexAdvice;
+import io.github.pwszpl.mongo.search.index.IndexCatalog;
+import io.github.pwszpl.mongo.search.index.IndexDefinition;
+import io.github.pwszpl.mongo.search.limits.QueryLimitExceededException;
+import io.github.pwszpl.mongo.search.limits.QueryLimits;
+import io.github.pwszpl.mongo.search.metrics.TranslationListener;
+import io.github.pwszpl.mongo.search.metrics.TranslationMetrics;
+import io.github.pwszpl.mongo.search.optimizer.QueryOptimizer;
+import io.github.pwszpl.mongo.search.pagination.InvalidContinuationTokenException;
+import io.github.pwszpl.mongo.search.pagination.KeysetPagination;
+import io.github.pwszpl.mongo.search.processor.CompiledQuery;
+import io.github.pwszpl.mongo.search.processor.CompiledQueryProcessor;
+import io.github.pwszpl.mongo.search.serialization.QueryCatalog;
+import io.github.pwszpl.mongo.search.serialization.QuerySerializationException;
+import io.github.pwszpl.mongo.search.serialization.QuerySerializer;
+import io.github.pwszpl.mongo.search.session.ParsingSession;
+import io.github.pwszpl.mongo.search.session.SessionResult;
+import io.github.pwszpl.mongo.search.transform.BsonDocumentTransformer;
+import io.github.pwszpl.mongo.search.transform.CriteriaTransformer;
+import io.github.pwszpl.mongo.search.transform.DocumentTransformer;
+import io.github.pwszpl.mongo.search.transform.FiltersTransformer;
+import io.github.pwszpl.mongo.search.transform.FindQuery;
+import io.github.pwszpl.mongo.search.transform.FunctionsMapping;
+import io.github.pwszpl.mongo.search.transform.PreparedQuery;
+import io.github.pwszpl.mongo.search.transform.QueryParameter;
+import io.github.pwszpl.mongo.search.validation.QueryDiagnostic;
+import io.github.pwszpl.mongo.search.validation.QueryValidator;
 import io.github.pwszpl.mongo.util.TestBuilder;
+import org.bson.BsonDocument;
 import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.UuidRepresentation;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.conversions.Bson;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.BasicQuery;
 import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
 import org.testcontainers.containers.MongoDBContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.utility.DockerImageName;
 
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.StringReader;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.DateTimeException;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 class MongoSearchEngineParserTest {
+    @CompiledQuery
+    static final String COMPILED_QUERY = "stringField = 'testString' and (numField in (1 2 3) or dateField > 2022-01-01T10:00:00)";
+    // characters which can't be copied into Javadoc of generated class as they are
+    @CompiledQuery
+    static final String ESCAPED_QUERY = "path = 'C:\\users\\x' and note = '*/ @see <b>&\\u002a/'";
+
     private static MongoSearchEngineParser parser;
 
     private static MongoCollection<Document> collection;
@@ -104,6 +190,55 @@ class MongoSearchEngineParserTest {
                 .assertCriteriaResult(new Criteria("stringField").is("?1"));
     }
 
+    @Test
+    void shouldBindPreparedQueryParameters() throws ParseException {
+        TestBuilder.build("stringField=?0 and numField>?1")
+                .assertPreparedBsonResult(Filters.and(Filters.eq("stringField","a"),Filters.gt("numField",10)),"a",10)
+                .assertPreparedCriteriaResult(new Criteria().andOperator(Criteria.where("stringField").is("a"),Criteria.where("numField").gt(10)),"a",10);
+
+        TestBuilder.build("stringField in (?0 'c') and arrayField all (?1)")
+                .assertPreparedBsonResult(Filters.and(
+                        Filters.in("stringField",new String[] {"a","b","c"}),
+                        Filters.all("arrayField",new Integer[] {1,2})),
+                        Arrays.asList("a","b"),new Integer[] {1,2})
+                .assertPreparedCriteriaResult(new Criteria().andOperator(
+                        Criteria.where("stringField").in(new String[] {"a","b","c"}),
+                        Criteria.where("arrayField").all(new Integer[] {1,2})),
+                        Arrays.asList("a","b"),new Integer[] {1,2});
+
+        TestBuilder.build("x.y matches (c=?0)")
+                .assertPreparedBsonResult(Filters.elemMatch("x.y",Filters.eq("c","b")),"b")
+                .assertPreparedCriteriaResult(Criteria.where("x.y").elemMatch(Criteria.where("c").is("b")),"b");
+
+        PreparedQuery prepared = MongoSearchEngineParser.prepare("numField=?0");
+        Map<Integer,Object> values = new HashMap<>();
+        values.put(0,5);
+        Assertions.assertEquals(Filters.eq("numField",5).toBsonDocument().toJson(),((Bson)prepared.bind(values)).toBsonDocument().toJson());
+        Assertions.assertEquals(Filters.eq("numField",7).toBsonDocument().toJson(),((Bson)prepared.bind(7)).toBsonDocument().toJson());
+        Assertions.assertThrows(RuntimeException.class, () -> prepared.bind());
+
+        // index out of int range is still a string literal when query isn't prepared
+        TestBuilder.build("stringField=?99999999999")
+                .assertBsonResult(Filters.eq("stringField","?99999999999"));
+        Assertions.assertTrue(new QueryValidator().isValid("stringField=?99999999999"));
+        Assertions.assertThrows(RuntimeException.class, () -> MongoSearchEngineParser.prepare("stringField=?99999999999").bind("a"));
+    }
+
+    @Test
+    void shouldTransformQueryTreeWithEachTransformer() throws ParseException {
+        QueryNode tree = new MongoSearchEngineParser(new StringReader("x.y=1 and not(exists(x.z) = true)")).parseTree();
+        Assertions.assertEquals(new LogicalNode(FunctionsMapping.AND, Arrays.asList(
+                new ComparisonNode(FunctionsMapping.EQ,"x.y",1),
+                new NotNode(new ExistsNode("x.z",true)))), tree);
+
+        Assertions.assertEquals(
+                Filters.and(Filters.eq("x.y",1),Filters.not(Filters.exists("x.z"))).toBsonDocument().toJson(),
+                tree.accept(new FiltersTransformer()).toBsonDocument().toJson());
+        Assertions.assertEquals(
+                new Criteria().andOperator(Criteria.where("x.y").is(1),Criteria.where("x.z").not().exists(true)).getCriteriaObject().toJson(),
+                tree.accept(new CriteriaTransformer()).getCriteriaObject().toJson());
+    }
+
     @Test
     void shouldEvaluateDates(){
         collection.insertOne(new Document("dateField", Date.from(Instant.parse("2022-01-01T00:00:00.00Z"))));
@@ -137,6 +272,38 @@ class MongoSearchEngineParserTest {
                 .assertBsonDbResult(0)
                 .assertCriteriaResult( Criteria.where("numField").is(-10.0));
     }
+
+    @Test
+    void shouldDecodeNumberAndDateLiterals() throws ParseException {
+        collection.insertOne(new Document("numField", 3_000_000_000L));
+        collection.insertOne(new Document("dateField", Date.from(Instant.parse("2022-01-01T09:30:00.250Z"))));
+
+        TestBuilder.build("numField = 3000000000")
+                .assertBsonResult(Filters.eq("numField", 3_000_000_000L))
+                .assertBsonDbResult(1)
+                .assertCriteriaResult(Criteria.where("numField").is(3_000_000_000L));
+        TestBuilder.build("dateField = 2022-01-01T10:30:00.250+01:00")
+                .assertBsonResult(Filters.eq("dateField", Date.from(Instant.parse("2022-01-01T09:30:00.250Z"))))
+                .assertBsonDbResult(1);
+
+        Assertions.assertSame(literal("numField = 7"), literal("numField = 7"));
+        Assertions.assertEquals(Double.valueOf(0.1), literal("numField = 0.1"));
+        Assertions.assertEquals(Double.valueOf(-12.5), literal("numField = -12.5"));
+        Assertions.assertEquals(Double.valueOf(-0.0), literal("numField = -0"));
+        Assertions.assertEquals(Double.valueOf(123456.78901234567), literal("numField = 123456.78901234567"));
+        Assertions.assertEquals(Decimal128.parse("99999999999999999999"), literal("numField = 99999999999999999999"));
+        Assertions.assertEquals(Decimal128.parse("0.1234567890123456789"), literal("numField = 0.1234567890123456789"));
+        Assertions.assertEquals(Date.from(Instant.parse("2024-02-29T00:00:00Z")), literal("dateField = 2024-02-29"));
+        Assertions.assertEquals(Date.from(Instant.parse("2022-01-01T10:00:00.123Z")), literal("dateField = 2022-01-01T10:00:00.123456789Z"));
+        Assertions.assertEquals(Date.from(Instant.parse("2022-01-01T13:30:00Z")), literal("dateField = 2022-01-01T10:00:00-03:30"));
+        Assertions.assertThrows(DateTimeException.class, () -> literal("dateField = 2023-02-29"));
+        Assertions.assertThrows(DateTimeException.class, () -> literal("dateField = 2022-01-01T24:00:00"));
+        Assertions.assertThrows(RuntimeException.class, () -> new MongoSearchEngineParser("size(x) = 3000000000").parseTree());
+    }
+
+    private static Object literal(String query) throws ParseException {
+        return ((ComparisonNode) new MongoSearchEngineParser(query).parseTree()).getValue();
+    }
     @Test
     void shouldEvaluteExistsFunction(){
         collection.insertOne(new Document("stringField","testString").append("numField",100));
@@ -188,6 +355,34 @@ class MongoSearchEngineParserTest {
                 .assertCriteriaResult(new Criteria("stringField").regex("testString.*"));
     }
 
+    @Test
+    void shouldTranslateSqlLikePattern(){
+        collection.insertOne(new Document("stringField","testString").append("numField",100));
+        collection.insertOne(new Document("stringField","testString").append("numField",20));
+        collection.insertOne(new Document("stringField","testString3").append("numField",0));
+        collection.insertOne(new Document("stringField","test_String.").append("numField",0));
+
+        TestBuilder.build("stringField like 'testString%'").withLikeMode(LikeMode.SQL)
+                .assertBsonResult(Filters.regex("stringField","^testString"))
+                .assertBsonDbResult(3)
+                .assertCriteriaResult(new Criteria("stringField").regex("^testString"));
+        TestBuilder.build("stringField like 'test\\_%.'").withLikeMode(LikeMode.SQL)
+                .assertBsonResult(Filters.regex("stringField","^test_.*\\.$"))
+                .assertBsonDbResult(1);
+        TestBuilder.build("stringField like '%String_'").withLikeMode(LikeMode.SQL)
+                .assertBsonResult(Filters.regex("stringField","String.$"))
+                .assertBsonDbResult(2);
+        TestBuilder.build("stringField like 'testString'").withLikeMode(LikeMode.SQL)
+                .assertBsonResult(Filters.eq("stringField","testString"))
+                .assertBsonDbResult(2);
+        TestBuilder.build("stringField like 'testS%3'").withLikeMode(LikeMode.SQL_WITH_PREFIX_RANGE)
+                .assertBsonResult(Filters.and(Filters.regex("stringField","^testS.*3$"),
+                        new Document("stringField",new Document("$gte","testS").append("$lt","testT"))))
+                .assertBsonDbResult(1)
+                .assertCriteriaResult(new Criteria().andOperator(Criteria.where("stringField").regex("^testS.*3$"),
+                        Criteria.where("stringField").gte("testS").lt("testT")));
+    }
+
     @Test
     void shouldEvaluateModFunction(){
         collection.insertOne(new Document("stringField","testString").append("numField",100));
@@ -323,26 +518,651 @@ class MongoSearchEngineParserTest {
                         )
                 );
     }
+    @Test
+    void shouldFlattenOperatorChains(){
+        collection.insertOne(new Document("stringField","testString").append("numField",100));
+        collection.insertOne(new Document("stringField","testString").append("numField",20));
+        collection.insertOne(new Document("stringField","testString3").append("numField",0));
+
+        TestBuilder.build("numField=100 or numField=20 or (numField=0 or numField=1)")
+                .assertBsonResult(Filters.or(Filters.eq("numField",100),Filters.eq("numField",20),Filters.eq("numField",0),Filters.eq("numField",1)))
+                .assertBsonDbResult(3)
+                .assertCriteriaResult(new Criteria().orOperator(Criteria.where("numField").is(100),Criteria.where("numField").is(20),
+                        Criteria.where("numField").is(0),Criteria.where("numField").is(1)));
+
+        TestBuilder.build("stringField='testString' and (numField>0 and numField<50) and exists(numField) = true")
+                .assertBsonResult(Filters.and(Filters.eq("stringField","testString"),Filters.gt("numField",0),Filters.lt("numField",50),Filters.exists("numField")))
+                .assertBsonDbResult(1)
+                .assertCriteriaResult(new Criteria().andOperator(Criteria.where("stringField").is("testString"),Criteria.where("numField").gt(0),
+                        Criteria.where("numField").lt(50),Criteria.where("numField").exists(true)));
+
+        TestBuilder.build("numField=100 nor numField=20 nor numField=1")
+                .assertBsonResult(Filters.nor(Filters.eq("numField",100),Filters.eq("numField",20),Filters.eq("numField",1)))
+                .assertBsonDbResult(1)
+                .assertCriteriaResult(new Criteria().norOperator(Criteria.where("numField").is(100),Criteria.where("numField").is(20),Criteria.where("numField").is(1)));
+    }
+
+    @Test
+    void shouldOptimizeQuery(){
+        collection.insertOne(new Document("stringField","testString").append("numField",100));
+        collection.insertOne(new Document("stringField","testString2").append("numField",20));
+        collection.insertOne(new Document("stringField","testString3").append("numField",0));
+
+        TestBuilder.build("numField>0 and numField<50 and numField>=10 and numField<=200")
+                .assertOptimizedBsonResult(new Document("numField",new Document("$gte",10).append("$lt",50)))
+                .assertOptimizedDbResult(1)
+                .assertOptimizedCriteriaResult(Criteria.where("numField").gte(10).lt(50));
+
+        TestBuilder.build("stringField='testString' or stringField='testString2' or stringField in ('testString' 'testString4')")
+                .assertOptimizedBsonResult(Filters.in("stringField","testString","testString2","testString4"))
+                .assertOptimizedDbResult(2);
+
+        TestBuilder.build("numField=20 and (numField=20 or stringField='testString') and numField>10")
+                .assertOptimizedBsonResult(Filters.eq("numField",20))
+                .assertOptimizedDbResult(1);
+
+        TestBuilder.build("numField=1 and numField=2").assertUnsatisfiable();
+        TestBuilder.build("numField>50 and numField<10").assertUnsatisfiable();
+        TestBuilder.build("numField=5 and stringField='a' and numField>=10.5").assertUnsatisfiable();
+        TestBuilder.build("exists(numField)=true and exists(numField)=false").assertUnsatisfiable();
+        TestBuilder.build("(numField=1 and numField=2) or numField=100")
+                .assertOptimizedBsonResult(Filters.eq("numField",100))
+                .assertOptimizedDbResult(1);
+    }
+
+    @Test
+    void shouldReuseParserForCharSequenceInput() throws ParseException {
+        MongoSearchEngineParser reused = new MongoSearchEngineParser("");
+        List<CharSequence> queries = Arrays.asList("stringField='testString' AND numField>1",
+                new StringBuilder("exists(numField) = true\n or numField in (1 2.5 'x')"),
+                CharBuffer.wrap("[numField <= 2022-01-01T10:00:00]").subSequence(1, 32));
+        for(CharSequence query : queries){
+            reused.ReInit(query);
+            Bson expected = (Bson) new MongoSearchEngineParser(new StringReader(query.toString())).parse();
+            Assertions.assertEquals(expected.toBsonDocument().toJson(), ((Bson) reused.parse()).toBsonDocument().toJson());
+        }
+
+        reused.ReInit("numField > 1 and\n numField = = 2");
+        ParseException error = Assertions.assertThrows(ParseException.class, reused::parse);
+        Assertions.assertEquals(2, error.currentToken.next.beginLine);
+        Assertions.assertEquals(13, error.currentToken.next.beginColumn);
+    }
+
+    @Test
+    void shouldReportTranslationMetrics() throws ParseException {
+        List<TranslationMetrics> translated = new ArrayList<>();
+        List<Throwable> errors = new ArrayList<>();
+        TranslationListener listener = new TranslationListener() {
+            @Override
+            public void onTranslated(TranslationMetrics metrics) {
+                translated.add(metrics);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                errors.add(error);
+            }
+        };
+        MongoSearchEngineParser parser = new MongoSearchEngineParser("numField > 1 and (x in (1 2 3) or y = 'a' or not(exists(z) = true))");
+        parser.setTranslationListener(listener);
+        Bson result = (Bson) parser.parse();
+        Assertions.assertEquals(Filters.and(Filters.gt("numField", 1), Filters.or(Filters.in("x", 1, 2, 3), Filters.eq("y", "a"),
+                Filters.not(Filters.exists("z", true)))).toBsonDocument().toJson(), result.toBsonDocument().toJson());
+
+        Assertions.assertEquals(1, translated.size());
+        TranslationMetrics metrics = translated.get(0);
+        Assertions.assertEquals(7, metrics.getNodeCount());
+        Map<FunctionsMapping, Integer> operators = new HashMap<>();
+        operators.put(FunctionsMapping.AND, 1);
+        operators.put(FunctionsMapping.OR, 1);
+        operators.put(FunctionsMapping.GT, 1);
+        operators.put(FunctionsMapping.IN, 1);
+        operators.put(FunctionsMapping.EQ, 1);
+        operators.put(FunctionsMapping.NOT, 1);
+        operators.put(FunctionsMapping.EXISTS, 1);
+        Assertions.assertEquals(operators, metrics.getOperatorCounts());
+        Assertions.assertEquals(Arrays.asList(3), metrics.getInListSizes());
+        Assertions.assertTrue(metrics.getLexingNanos() > 0 && metrics.getParsingNanos() > 0 && metrics.getTransformNanos() > 0);
+
+        parser.ReInit("numField = = 1");
+        Assertions.assertThrows(ParseException.class, parser::parse);
+        parser.ReInit("numField = #");
+        Assertions.assertThrows(TokenMgrError.class, parser::parse);
+        Assertions.assertEquals(1, translated.size());
+        Assertions.assertEquals(2, errors.size());
+        Assertions.assertTrue(errors.get(0) instanceof ParseException);
+        Assertions.assertTrue(errors.get(1) instanceof TokenMgrError);
+    }
+
+    @Test
+    void shouldEnforceQueryLimits() throws ParseException {
+        QueryLimits limits = QueryLimits.builder().maxDepth(2).maxNodes(5).maxListSize(3).maxLiteralLength(10)
+                .maxLikeWildcards(2).anchoredLikeRequired(true).build();
+        Map<String, QueryLimitExceededException.Limit> exceeding = new HashMap<>();
+        exceeding.put("((((x = 1))))", QueryLimitExceededException.Limit.DEPTH);
+        exceeding.put("a = 1 or b = 2 or c = 3 or d = 4 or e = 5", QueryLimitExceededException.Limit.NODES);
+        exceeding.put("x in (1 2 3 4 5 6)", QueryLimitExceededException.Limit.LIST_SIZE);
+        exceeding.put("x = 'abcdefghijkl'", QueryLimitExceededException.Limit.LITERAL_LENGTH);
+        exceeding.put("x like '^a.*b.*'", QueryLimitExceededException.Limit.LIKE_WILDCARDS);
+        exceeding.put("x like 'ab'", QueryLimitExceededException.Limit.LIKE_ANCHOR);
+        for(Map.Entry<String, QueryLimitExceededException.Limit> entry : exceeding.entrySet()){
+            MongoSearchEngineParser parser = new MongoSearchEngineParser(entry.getKey());
+            parser.setQueryLimits(limits);
+            QueryLimitExceededException error = Assertions.assertThrows(QueryLimitExceededException.class, parser::parse, entry.getKey());
+            Assertions.assertEquals(entry.getValue(), error.getLimit());
+        }
+        // SQL patterns starting with any wildcard aren't anchored
+        for(String pattern : Arrays.asList("'%abc'", "'_abc%'")){
+            MongoSearchEngineParser sqlParser = new MongoSearchEngineParser("x like " + pattern);
+            sqlParser.setLikeMode(LikeMode.SQL);
+            sqlParser.setQueryLimits(limits);
+            QueryLimitExceededException error = Assertions.assertThrows(QueryLimitExceededException.class, sqlParser::parse, pattern);
+            Assertions.assertEquals(QueryLimitExceededException.Limit.LIKE_ANCHOR, error.getLimit());
+        }
+        MongoSearchEngineParser sqlParser = new MongoSearchEngineParser("x like 'a_c%'");
+        sqlParser.setLikeMode(LikeMode.SQL);
+        sqlParser.setQueryLimits(limits);
+        Assertions.assertNotNull(sqlParser.parse());
+
+        MongoSearchEngineParser parser = new MongoSearchEngineParser("((x = 1)) and y in (1 2 3) and z like '^ab.'");
+        parser.setQueryLimits(limits);
+        Assertions.assertEquals(Filters.and(Filters.eq("x", 1), Filters.in("y", 1, 2, 3), Filters.regex("z", "^ab.")).toBsonDocument().toJson(),
+                ((Bson) parser.parse()).toBsonDocument().toJson());
+
+        StringBuilder longQuery = new StringBuilder("x = 0");
+        for(int i=1;i<100000;i++) longQuery.append(" or x = ").append(i);
+        parser.ReInit(longQuery);
+        parser.setQueryLimits(QueryLimits.builder().timeout(Duration.ofNanos(1)).build());
+        QueryLimitExceededException timeout = Assertions.assertThrows(QueryLimitExceededException.class, parser::parse);
+        Assertions.assertEquals(QueryLimitExceededException.Limit.TIMEOUT, timeout.getLimit());
+        // aborted at first node
+        Assertions.assertEquals(5, timeout.getToken().beginColumn);
+    }
+
+    @Test
+    void shouldAdviseIndexes() throws ParseException {
+        IndexCatalog catalog = new IndexCatalog().register("products",
+                new IndexDefinition("category_price", Indexes.compoundIndex(Indexes.ascending("category"), Indexes.ascending("price"))),
+                new IndexDefinition("category_date_price", Indexes.compoundIndex(Indexes.ascending("category"), Indexes.descending("date"), Indexes.ascending("price"))),
+                new IndexDefinition("name_hashed", Indexes.hashed("name")),
+                new IndexDefinition("sku", Indexes.ascending("sku")).withPartialFilter(new MongoSearchEngineParser("exists(sku) = true").parseTree()));
+
+        IndexAdvice advice = catalog.advise("products", new MongoSearchEngineParser("category = 'a' and price > 10").parseTree());
+        Assertions.assertFalse(advice.isCollectionScan());
+        Assertions.assertEquals(Arrays.asList("category_price", "category_date_price"),
+                advice.getCandidates().stream().map(candidate -> candidate.getIndex().getName()).collect(Collectors.toList()));
+        Assertions.assertEquals(new Document("category", 1).append("price", 1), advice.getHint());
+
+        advice = catalog.advise("products", new MongoSearchEngineParser("category = 'a' and price > 10").parseTree(), Sorts.descending("date"), null);
+        Assertions.assertEquals("category_date_price", advice.getHintIndex().getName());
+        Assertions.assertTrue(advice.getCandidates().get(0).isSortProvided());
+
+        Assertions.assertEquals("name_hashed", catalog.advise("products", new MongoSearchEngineParser("name = 'x'").parseTree()).getHintIndex().getName());
+        Assertions.assertTrue(catalog.advise("products", new MongoSearchEngineParser("name like '^x'").parseTree()).isCollectionScan());
+        Assertions.assertEquals("sku", catalog.advise("products", new MongoSearchEngineParser("sku = 'x'").parseTree()).getHintIndex().getName());
+        Assertions.assertTrue(catalog.advise("products", new MongoSearchEngineParser("price > 10 and not(exists(category) = true)").parseTree()).isCollectionScan());
+        Assertions.assertTrue(catalog.advise("products", new MongoSearchEngineParser("category = 'a'").parseTree(), null,
+                Collation.builder().locale("de").build()).isCollectionScan());
+
+        advice = catalog.advise("products", new MongoSearchEngineParser("category = 'a' or sku = 'b'").parseTree());
+        Assertions.assertEquals(2, advice.getBranches().size());
+        Assertions.assertFalse(advice.isCollectionScan());
+        Assertions.assertNull(advice.getHint());
+        Assertions.assertTrue(catalog.advise("products", new MongoSearchEngineParser("category = 'a' or price = 1").parseTree()).isCollectionScan());
+        Assertions.assertFalse(catalog.advise("unknown", new ComparisonNode(FunctionsMapping.EQ, "_id", 1)).isCollectionScan());
+    }
+
+    @Test
+    void shouldUseQueriesCompiledByAnnotationProcessor() throws Exception {
+        MongoSearchEngineParser parser = new MongoSearchEngineParser(COMPILED_QUERY);
+        parser.setBsonDocumentMode();
+        Assertions.assertEquals(((RawBsonDocument) parser.parse()).getByteBuffer().asNIO(),
+                MongoSearchEngineParserTestQueries.COMPILED_QUERY.getByteBuffer().asNIO());
+        parser.ReInit(ESCAPED_QUERY);
+        Assertions.assertEquals(((RawBsonDocument) parser.parse()).getByteBuffer().asNIO(),
+                MongoSearchEngineParserTestQueries.ESCAPED_QUERY.getByteBuffer().asNIO());
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        JavaFileObject source = new SimpleJavaFileObject(URI.create("string:///InvalidQueries.java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return "class InvalidQueries { @io.github.pwszpl.mongo.search.processor.CompiledQuery static final String QUERY = \"x = = 1\"; }";
+            }
+        };
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics,
+                Arrays.asList("-proc:only", "-classpath",
+                        Paths.get(CompiledQuery.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString()), null, Collections.singletonList(source));
+        task.setProcessors(Collections.singletonList(new CompiledQueryProcessor()));
+        Assertions.assertFalse(task.call());
+        Assertions.assertEquals(1, diagnostics.getDiagnostics().size());
+        Assertions.assertEquals(Diagnostic.Kind.ERROR, diagnostics.getDiagnostics().get(0).getKind());
+        Assertions.assertTrue(diagnostics.getDiagnostics().get(0).getMessage(null).startsWith("Invalid query 'x = = 1'"));
+    }
+
+    @Test
+    void shouldReparseEditedQueryIncrementally() throws ParseException {
+        ParsingSession<Bson> session = new ParsingSession<>(new FiltersTransformer());
+        SessionResult<Bson> result = session.setQuery("stringField = 'a' and numField > 2 or numField in (1 2 3)");
+        Assertions.assertTrue(result.isValid());
+        Assertions.assertEquals(3, result.getParsedConditions());
+
+        result = session.edit(33, 1, "20");
+        Assertions.assertEquals("stringField = 'a' and numField > 20 or numField in (1 2 3)", session.getQuery());
+        Assertions.assertEquals(1, result.getLexedTokens());
+        Assertions.assertEquals(1, result.getParsedConditions());
+        Assertions.assertEquals(new MongoSearchEngineParser(session.getQuery()).parse(), result.getFilter());
+
+        result = session.edit(22, 8, "=");
+        Assertions.assertFalse(result.isValid());
+        Assertions.assertEquals(22, result.getErrorOffset());
+        Assertions.assertEquals(Assertions.assertThrows(ParseException.class, () -> new MongoSearchEngineParser(session.getQuery()).parse()).getMessage(),
+                result.getError().getMessage());
+
+        // typing query character by character gives the same result as parsing it from scratch
+        String query = "(numField > 1 and stringField like 'a.*') nor not(exists(x) = true) and dateField >= 2022-01-01T10:00:00";
+        session.setQuery("");
+        for(int i=0;i<query.length();i++){
+            result = session.edit(i, 0, query.substring(i, i + 1));
+            MongoSearchEngineParser parser = new MongoSearchEngineParser(session.getQuery());
+            try {
+                Assertions.assertEquals(parser.parse(), result.getFilter());
+            } catch (ParseException | TokenMgrError e) {
+                Assertions.assertEquals(e.getMessage(), result.getError().getMessage());
+            }
+        }
+        Assertions.assertTrue(result.isValid());
+    }
+
+    @Test
+    void shouldLoadSerializedQueriesWithoutParsing() throws Exception {
+        MongoSearchEngineParser parser = new MongoSearchEngineParser("");
+        parser.setLikeMode(LikeMode.SQL_WITH_PREFIX_RANGE);
+        Map<String, QueryNode> queries = new LinkedHashMap<>();
+        String[] sources = {
+                "stringField = 'testString' and (numField in (1 2 3000000000) or dateField > 2022-01-01T10:00:00.5+01:00)",
+                "stringField like 'test%' nor not(exists(numField) = true) nor numField = 99999999999999999999",
+                "arr matches (a = ?0 and b = 'x') or size(arr) = 3 or mod(numField, 4) = 1 or type(x) = 'string' or y = -1.25",
+                "stringField = 'caf\u00e9' and stringField <> 'na\u00efve'"
+        };
+        for(int i=0;i<sources.length;i++){
+            parser.ReInit(sources[i]);
+            queries.put("query" + i, parser.parseTree());
+        }
+        queries.put("optimized", new QueryOptimizer().optimize(new MongoSearchEngineParser("numField > 1 and numField <= 5").parseTree()).getRoot());
+
+        for(QueryNode query : queries.values()){
+            byte[] bytes = QuerySerializer.serialize(query);
+            Assertions.assertEquals(query, QuerySerializer.deserialize(bytes));
+            Assertions.assertEquals(query.accept(new BsonDocumentTransformer()), QuerySerializer.deserialize(bytes).accept(new BsonDocumentTransformer()));
+        }
+
+        Path file = Files.createTempFile("queries", ".catalog");
+        try {
+            QueryCatalog.write(file, queries);
+            QueryCatalog catalog = QueryCatalog.open(file);
+            Assertions.assertEquals(queries.keySet(), catalog.getNames());
+            Assertions.assertEquals(queries, catalog.getAll());
+            Assertions.assertSame(catalog.get("query0"), catalog.get("query0"));
+            Assertions.assertNull(catalog.get("unknown"));
+        } finally {
+            Files.delete(file);
+        }
+
+        byte[] bytes = QuerySerializer.serialize(queries.get("query0"));
+        bytes[3] = QuerySerializer.FORMAT_VERSION + 1;
+        Assertions.assertThrows(QuerySerializationException.class, () -> QuerySerializer.deserialize(bytes));
+        Assertions.assertThrows(QuerySerializationException.class,
+                () -> QuerySerializer.deserialize(Arrays.copyOf(QuerySerializer.serialize(queries.get("query1")), 20)));
+        Assertions.assertThrows(QuerySerializationException.class,
+                () -> QueryCatalog.of(ByteBuffer.wrap(Arrays.copyOf(QueryCatalog.serialize(queries), 30))));
+
+        // corrupted lengths of children list, IN list, string and catalogue are rejected before allocation
+        byte version = QuerySerializer.FORMAT_VERSION;
+        byte[][] corrupted = {
+                {'M', 'S', 'Q', version, 1, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07},
+                {'M', 'S', 'Q', version, 4, 0, 0, 1, 'x', (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07},
+                {'M', 'S', 'Q', version, 2, 0, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07},
+                // negative operator and string length, string argument of mod
+                {'M', 'S', 'Q', version, 1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x01, 0},
+                {'M', 'S', 'Q', version, 2, 0, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x01},
+                {'M', 'S', 'Q', version, 8, 0, 1, 'x', 1, 0, 1, 'a', 2, 2}
+        };
+        for(byte[] data : corrupted){
+            Assertions.assertThrows(QuerySerializationException.class, () -> QuerySerializer.deserialize(data));
+        }
+        byte[] deepNot = new byte[100_000];
+        System.arraycopy(new byte[]{'M', 'S', 'Q', version}, 0, deepNot, 0, 4);
+        Arrays.fill(deepNot, 4, deepNot.length, (byte) 11);
+        Assertions.assertThrows(QuerySerializationException.class, () -> QuerySerializer.deserialize(deepNot));
+        QueryNode deepTree = new ComparisonNode(FunctionsMapping.EQ, "x", 1);
+        for(int i=0;i<QuerySerializer.MAX_DEPTH;i++) deepTree = new NotNode(deepTree);
+        Assertions.assertEquals(deepTree, QuerySerializer.deserialize(QuerySerializer.serialize(deepTree)));
+        QueryNode tooDeepTree = new NotNode(deepTree);
+        Assertions.assertThrows(QuerySerializationException.class, () -> QuerySerializer.serialize(tooDeepTree));
+        // offset and length overflowing int
+        Assertions.assertThrows(QuerySerializationException.class,
+                () -> QueryCatalog.of(ByteBuffer.wrap(new byte[]{'M', 'S', 'Q', 'C', version, 0, 0, 0, 1, 0, 0, 0, 1, 'a', 0x7F, 0, 0, 0, 0x7F, 0, 0, 0})));
+        Assertions.assertThrows(QuerySerializationException.class,
+                () -> QueryCatalog.of(ByteBuffer.wrap(new byte[]{'M', 'S', 'Q', 'C', version, 0x7F, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF})));
+        Assertions.assertThrows(QuerySerializationException.class,
+                () -> QueryCatalog.of(ByteBuffer.wrap(new byte[]{'M', 'S', 'Q', 'C', version, 0, 0, 0, 1, 0x7F, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0, 0, 0, 0, 0, 0, 0, 0})));
+    }
+
+    @Test
+    void shouldTranslateStatementClauses() throws ParseException {
+        String statement = "select stringField, numField where stringField = 'a' and numField > 2 order by numField desc, dateField limit 20 offset 40";
+        MongoSearchEngineParser parser = new MongoSearchEngineParser(statement);
+        FindQuery find = (FindQuery) parser.parseStatement();
+        Assertions.assertEquals(Filters.and(Filters.eq("stringField", "a"), Filters.gt("numField", 2)).toBsonDocument(), find.getFilter().toBsonDocument());
+        Assertions.assertEquals(Document.parse("{stringField: 1, numField: 1}"), Document.parse(find.getProjection().toBsonDocument().toJson()));
+        Assertions.assertEquals(Document.parse("{numField: -1, dateField: 1}"), Document.parse(find.getSort().toBsonDocument().toJson()));
+        Assertions.assertEquals(20, find.getLimit());
+        Assertions.assertEquals(40, find.getSkip());
+
+        parser.ReInit(statement);
+        parser.setCriteraMode();
+        Query query = (Query) parser.parseStatement();
+        Assertions.assertEquals(new Query(new Criteria().andOperator(Criteria.where("stringField").is("a"), Criteria.where("numField").gt(2))).getQueryObject(), query.getQueryObject());
+        Assertions.assertEquals(Document.parse("{stringField: 1, numField: 1}"), query.getFieldsObject());
+        Assertions.assertEquals(Document.parse("{numField: -1, dateField: 1}"), query.getSortObject());
+        Assertions.assertEquals(20, query.getLimit());
+        Assertions.assertEquals(40, query.getSkip());
+
+        parser.ReInit("numField = 1 limit 5");
+        parser.setBSONMode();
+        find = (FindQuery) parser.parseStatement();
+        Assertions.assertNull(find.getProjection());
+        Assertions.assertNull(find.getSort());
+        Assertions.assertNull(find.getSkip());
+        Assertions.assertEquals(5, find.getLimit());
+
+        parser.ReInit("ORDER BY numField ASC");
+        QueryStatement tree = parser.parseStatementTree();
+        Assertions.assertNull(tree.getFilter());
+        Assertions.assertEquals(Collections.singletonList(new SortField("numField", true)), tree.getSort());
+        parser.ReInit("order by numField");
+        Assertions.assertEquals(new BsonDocument(), ((FindQuery) parser.parseStatement()).getFilter());
+
+        Assertions.assertThrows(ParseException.class, () -> new MongoSearchEngineParser("numField = 1 limit 5").parse());
+        Assertions.assertThrows(ParseException.class, () -> new MongoSearchEngineParser("limit 5 order by numField").parseStatement());
+        Assertions.assertThrows(RuntimeException.class, () -> new MongoSearchEngineParser("limit 3000000000").parseStatement());
+        MongoSearchEngineParser predicateParser = new MongoSearchEngineParser("numField = 1 limit 5");
+        predicateParser.setPredicateMode();
+        Assertions.assertThrows(RuntimeException.class, predicateParser::parseStatement);
+
+        // keywords of clauses are still field names
+        Assertions.assertEquals(Filters.eq("limit", 5).toBsonDocument(), ((Bson) new MongoSearchEngineParser("limit = 5").parse()).toBsonDocument());
+        Assertions.assertEquals(Filters.eq("desc", "x").toBsonDocument(), ((Bson) new MongoSearchEngineParser("desc = 'x'").parse()).toBsonDocument());
+        Assertions.assertEquals(Filters.and(Filters.gt("offset", 10), Filters.exists("where"), Filters.eq("select", 1)).toBsonDocument(),
+                ((Bson) new MongoSearchEngineParser("offset > 10 and exists(where) = true and select = 1").parse()).toBsonDocument());
+        parser.ReInit("select = 1 limit 5");
+        tree = parser.parseStatementTree();
+        Assertions.assertEquals(new ComparisonNode(FunctionsMapping.EQ, "select", 1), tree.getFilter());
+        Assertions.assertEquals(5, tree.getLimit());
+        parser.ReInit("select limit, asc where desc = 'x' order by offset desc, asc limit 5");
+        tree = parser.parseStatementTree();
+        Assertions.assertEquals(Arrays.asList("limit", "asc"), tree.getProjection());
+        Assertions.assertEquals(new ComparisonNode(FunctionsMapping.EQ, "desc", "x"), tree.getFilter());
+        Assertions.assertEquals(Arrays.asList(new SortField("offset", false), new SortField("asc", true)), tree.getSort());
+    }
+
+    @Test
+    void shouldCreateKeysetSeekFilter() throws ParseException {
+        QueryStatement statement = new MongoSearchEngineParser("stringField = 'a' order by numField, dateField desc").parseStatementTree();
+        KeysetPagination pagination = new KeysetPagination(statement.getSort());
+        Assertions.assertEquals(Document.parse("{numField: 1, dateField: -1, _id: 1}"), Document.parse(pagination.getSort().toBsonDocument().toJson()));
+        Assertions.assertEquals(Document.parse("{numField: 1, dateField: -1, _id: 1}"), new Query().with(pagination.getSpringSort()).getSortObject());
+
+        Date date = Date.from(Instant.parse("2022-01-01T00:00:00.00Z"));
+        ObjectId id = new ObjectId();
+        String token = pagination.continuationToken(new Document("_id", id).append("numField", 5).append("dateField", date));
+        Assertions.assertEquals(token, pagination.continuationToken(5, date, id));
+
+        Bson filter = statement.getFilter().accept(new FiltersTransformer());
+        Assertions.assertSame(filter, pagination.seek(filter, null));
+        Assertions.assertEquals(Filters.and(filter, Filters.or(
+                Filters.gt("numField", 5),
+                Filters.and(Filters.eq("numField", 5), Filters.lt("dateField", date)),
+                Filters.and(Filters.eq("numField", 5), Filters.eq("dateField", date), Filters.gt("_id", id)))).toBsonDocument(),
+                pagination.seek(filter, token).toBsonDocument());
+
+        Criteria criteria = statement.getFilter().accept(new CriteriaTransformer());
+        Assertions.assertEquals(new Criteria().andOperator(criteria, new Criteria().orOperator(
+                Criteria.where("numField").gt(5),
+                new Criteria().andOperator(Criteria.where("numField").is(5), Criteria.where("dateField").lt(date)),
+                new Criteria().andOperator(Criteria.where("numField").is(5), Criteria.where("dateField").is(date), Criteria.where("_id").gt(id)))).getCriteriaObject(),
+                pagination.seek(criteria, token).getCriteriaObject());
+
+        KeysetPagination byId = new KeysetPagination(Collections.singletonList(new SortField("_id", false)));
+        Assertions.assertEquals(Filters.and(filter, Filters.lt("_id", id)).toBsonDocument(),
+                byId.seek(filter, byId.continuationToken(id)).toBsonDocument());
+        Assertions.assertThrows(InvalidContinuationTokenException.class, () -> byId.seek(filter, token));
+        Assertions.assertThrows(InvalidContinuationTokenException.class, () -> pagination.seek(filter, "not a token"));
+        Assertions.assertThrows(InvalidContinuationTokenException.class, () -> pagination.seek(filter, token.substring(0, 20)));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> pagination.continuationToken(new Document("_id", id)));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> byId.continuationToken(new Document("$ne", 1)));
+
+        // UUID values, e.g. UUID _id, round trip through token
+        UUID uuid = UUID.randomUUID();
+        CodecRegistry uuidRegistry = CodecRegistries.withUuidRepresentation(MongoClientSettings.getDefaultCodecRegistry(), UuidRepresentation.STANDARD);
+        KeysetPagination byUuid = new KeysetPagination(Arrays.asList(new SortField("stringField", true), new SortField("numField", false)));
+        Assertions.assertEquals(Filters.and(filter, Filters.or(
+                Filters.gt("stringField", "x"),
+                Filters.and(Filters.eq("stringField", "x"), Filters.lt("numField", 3)),
+                Filters.and(Filters.eq("stringField", "x"), Filters.eq("numField", 3), Filters.gt("_id", uuid)))).toBsonDocument(BsonDocument.class, uuidRegistry),
+                byUuid.seek(filter, byUuid.continuationToken("x", 3, uuid)).toBsonDocument(BsonDocument.class, uuidRegistry));
+
+        // forged tokens with operator documents or patterns are rejected
+        for(String values : Arrays.asList("[{$ne: null}]", "[{$regex: 'a'}]", "[{\"$regularExpression\": {\"pattern\": \"a\", \"options\": \"\"}}]", "[[1, 2]]")){
+            byte[] bytes = RawBsonDocument.parse("{s: ['_id DESC'], v: " + values + "}").getByteBuffer().array();
+            String forged = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+            Assertions.assertThrows(InvalidContinuationTokenException.class, () -> byId.seek(filter, forged), values);
+        }
+    }
+
+    @Test
+    void shouldValidateQueriesWithoutTranslation() throws Exception {
+        QueryValidator validator = new QueryValidator();
+        Assertions.assertNull(validator.validate("stringField = 'a' and (numField > 2 or size(arr) = 3)"));
+
+        QueryDiagnostic diagnostic = validator.validate("stringField = 'a' and\n numField ! 2");
+        Assertions.assertTrue(diagnostic.isSyntaxError());
+        Assertions.assertEquals(32, diagnostic.getOffset());
+        Assertions.assertEquals(2, diagnostic.getLine());
+        Assertions.assertEquals(11, diagnostic.getColumn());
+        Assertions.assertEquals("!", diagnostic.getOffendingText());
+        Assertions.assertTrue(diagnostic.getExpected().containsAll(Arrays.asList("\"=\"", "\"IN\"", "\"LIKE\"")));
+
+        diagnostic = validator.validate("numField = 1 and");
+        Assertions.assertEquals(16, diagnostic.getOffset());
+        Assertions.assertEquals("", diagnostic.getOffendingText());
+        Assertions.assertTrue(diagnostic.getExpected().contains("<OBJ_FIELD>"));
+
+        diagnostic = validator.validate("numField = 1 and stringField = 'abc");
+        Assertions.assertFalse(diagnostic.isSyntaxError());
+        Assertions.assertEquals(31, diagnostic.getOffset());
+        Assertions.assertEquals("'abc", diagnostic.getOffendingText());
+
+        diagnostic = validator.validate("numField = 1 or dateField > 2022-02-30");
+        Assertions.assertEquals(28, diagnostic.getOffset());
+        Assertions.assertEquals("2022-02-30", diagnostic.getOffendingText());
+        Assertions.assertEquals("Text '2022-02-30' could not be parsed as date", diagnostic.getMessage());
+
+        QueryValidator limited = new QueryValidator(LikeMode.REGEX, QueryLimits.builder().maxListSize(2).build());
+        Assertions.assertNotNull(limited.validate("numField in (1 2 3)"));
+
+        List<String> queries = new ArrayList<>();
+        for(int i=0;i<2000;i++) queries.add(i % 2 == 0 ? "numField = " + i + " and stringField = 'x'" : "numField = " + i + " and");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<QueryDiagnostic>> results = new ArrayList<>();
+            for(String query : queries) results.add(executor.submit(() -> validator.validate(query)));
+            for(int i=0;i<queries.size();i++){
+                QueryDiagnostic result = results.get(i).get();
+                if(i % 2 == 0) Assertions.assertNull(result);
+                else Assertions.assertEquals(queries.get(i).length(), result.getOffset());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void shouldTranslateQueriesOfCachedShape() throws ParseException {
+        TranslationCache<Bson> cache = new TranslationCache<>(new FiltersTransformer(), 2);
+        String[] queries = {
+                "stringField = 'a' and numField in (1 2.5 'x') and dateField > 2022-01-01T10:00:00Z",
+                "stringField = 'b' and numField in (3 4 'y') and dateField > 2021-06-01",
+                "stringField = 'c' and size(arr) = 3 and type(x) = 'string' and y like 'a.*'",
+                "stringField = 'd' and size(arr) = 3 and type(x) = 'string' and y like 'a.*'",
+                "stringField='e'   and numField in (5 6 'z') and\ndateField > 2021-06-01"
+        };
+        for(String query : queries){
+            Assertions.assertEquals(((Bson) new MongoSearchEngineParser(query).parse()).toBsonDocument(), cache.translate(query).toBsonDocument());
+        }
+        CacheStatistics statistics = cache.getStatistics();
+        Assertions.assertEquals(3, statistics.getHits());
+        Assertions.assertEquals(2, statistics.getMisses());
+        Assertions.assertEquals(2, statistics.getSize());
+
+        // literals of functions are part of shape
+        cache.translate("stringField = 'f' and size(arr) = 4 and type(x) = 'string' and y like 'a.*'");
+        Assertions.assertEquals(3, cache.getStatistics().getMisses());
+        Assertions.assertEquals(1, cache.getStatistics().getEvictions());
+        cache.translate("numField = ?0");
+        Assertions.assertEquals(1, cache.getStatistics().getBypasses());
+
+        Assertions.assertThrows(ParseException.class, () -> cache.translate("numField = 1 and"));
+        Assertions.assertThrows(DateTimeException.class, () -> cache.translate("numField = 2022-02-30"));
+        ParseException error = Assertions.assertThrows(ParseException.class, () -> cache.translate("numField  =  = 2022-02-30"));
+        Assertions.assertEquals(14, error.currentToken.next.beginColumn);
+    }
+
+    @Test
+    void shouldTranslateToCriteriaDocument() throws ParseException {
+        String[] queries = {
+                "stringField = 'a'",
+                "numField > 1 and numField <= 5.5 and x != 2022-01-01",
+                "a = 1 or b < 2 or (c >= 3 and not(d = 4))",
+                "a = 1 nor b = 2",
+                "numField in (1 2 'x') and y nin (3) and z all ('a' 'b')",
+                "exists(x.y) = true and type(t) = 'string' and size(arr) = 3 and mod(n, 4) = 1",
+                "not(exists(x) = false) and not(type(t) = 'int') and not(size(arr) = 2) and not(mod(n, 2) = 0)",
+                "name like 'ab.*' and not(other like '^x')",
+                "arr matches (a = 1 and b = 'x') and arr2 matches (c = 2)",
+                "dateField > 2021-06-01 and ts < 2022-01-01T10:00:00Z"
+        };
+        DocumentTransformer documents = new DocumentTransformer();
+        CriteriaTransformer criteria = new CriteriaTransformer();
+        for(String query : queries){
+            QueryNode tree = new MongoSearchEngineParser(query).parseTree();
+            Assertions.assertEquals(tree.accept(criteria).getCriteriaObject().toJson(), tree.accept(documents).toJson(), query);
+            QueryNode optimized = new QueryOptimizer().optimize(tree).getRoot();
+            Assertions.assertEquals(optimized.accept(criteria).getCriteriaObject().toJson(), optimized.accept(documents).toJson(), query);
+        }
+        for(LikeMode mode : LikeMode.values()){
+            MongoSearchEngineParser parser = new MongoSearchEngineParser("name like 'a_b%' and other like 'x%'");
+            parser.setLikeMode(mode);
+            QueryNode tree = parser.parseTree();
+            Assertions.assertEquals(tree.accept(criteria).getCriteriaObject().toJson(), tree.accept(documents).toJson(), mode.name());
+        }
+        QueryNode parameters = new MongoSearchEngineParser("numField = ?0 and x in (?1 2)").parseTree();
+        Assertions.assertEquals(
+                parameters.accept(criteria.withBinding(QueryParameter.bindingOf(5, "a"))).getCriteriaObject().toJson(),
+                parameters.accept(documents.withBinding(QueryParameter.bindingOf(5, "a"))).toJson());
+
+        MongoSearchEngineParser parser = new MongoSearchEngineParser("numField = 1 and stringField = 'a'");
+        parser.setDocumentMode();
+        Assertions.assertEquals(Document.parse("{$and: [{numField: 1}, {stringField: 'a'}]}"), Document.parse(((Document) parser.parse()).toJson()));
+        parser.ReInit("select stringField where numField > 2 order by numField desc limit 20 offset 40");
+        BasicQuery query = (BasicQuery) parser.parseStatement();
+        Assertions.assertEquals(new Document("numField", new Document("$gt", 2)), query.getQueryObject());
+        Assertions.assertEquals(Document.parse("{stringField: 1}"), query.getFieldsObject());
+        Assertions.assertEquals(Document.parse("{numField: -1}"), query.getSortObject());
+        Assertions.assertEquals(20, query.getLimit());
+        Assertions.assertEquals(40, query.getSkip());
+        parser.ReInit("order by numField");
+        Assertions.assertEquals(new Document(), ((BasicQuery) parser.parseStatement()).getQueryObject());
+    }
+
+    @Test
+    void shouldTranslateBatch(){
+        List<String> queries = new ArrayList<>();
+        for(int i=0;i<1000;i++){
+            queries.add(i % 100 == 7 ? "numField = = " + i : "numField = " + i + " and stringField like 'test.*'");
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for(BatchTranslator<Bson> translator : Arrays.asList(new BatchTranslator<>(new FiltersTransformer()), new BatchTranslator<>(new FiltersTransformer(), executor))){
+                List<TranslationResult<Bson>> results = translator.translate(queries.stream());
+                Assertions.assertEquals(queries.size(), results.size());
+                for(int i=0;i<results.size();i++){
+                    TranslationResult<Bson> result = results.get(i);
+                    Assertions.assertEquals(i, result.getIndex());
+                    Assertions.assertEquals(queries.get(i), result.getQuery());
+                    if(i % 100 == 7){
+                        Assertions.assertFalse(result.isSuccessful());
+                        Assertions.assertTrue(result.getError() instanceof ParseException);
+                    } else {
+                        Assertions.assertEquals(Filters.and(Filters.eq("numField", i), Filters.regex("stringField", "test.*")).toBsonDocument().toJson(),
+                                result.getResult().toBsonDocument().toJson());
+                    }
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // null and too deep queries fail alone, depth limit is applied to each query
+        StringBuilder deep = new StringBuilder();
+        for(int i=0;i<100_000;i++) deep.append('(');
+        deep.append("numField = 1");
+        for(int i=0;i<100_000;i++) deep.append(')');
+        List<TranslationResult<Bson>> results = new BatchTranslator<>(new FiltersTransformer())
+                .translate(Arrays.asList("numField = 1", null, deep.toString(), "numField = 2"));
+        Assertions.assertTrue(results.get(0).isSuccessful());
+        Assertions.assertTrue(results.get(1).getError() instanceof NullPointerException);
+        Assertions.assertTrue(results.get(2).getError() instanceof StackOverflowError);
+        Assertions.assertTrue(results.get(3).isSuccessful());
+        BatchTranslator<Bson> limited = new BatchTranslator<>(new FiltersTransformer(), LikeMode.SQL,
+                QueryLimits.builder().maxDepth(10).build(), null);
+        results = limited.translate(Arrays.asList(deep.toString(), "name like 'a%'"));
+        Assertions.assertTrue(results.get(0).getError() instanceof QueryLimitExceededException);
+        Assertions.assertEquals(Filters.regex("name", "^a").toBsonDocument().toJson(), results.get(1).getResult().toBsonDocument().toJson());
+    }
+
+    @Test
+    void shouldParseVeryLongOperatorChain() throws ParseException {
+        StringBuilder query = new StringBuilder("numField=0");
+        for(int i=1;i<50000;i++){
+            query.append(" or numField=").append(i);
+        }
+
+        QueryNode tree = new MongoSearchEngineParser(new StringReader(query.toString())).parseTree();
+        Assertions.assertEquals(50000,((LogicalNode) tree).getChildren().size());
+        Assertions.assertEquals(50000,tree.accept(new FiltersTransformer()).toBsonDocument().getArray("$or").size());
+        Assertions.assertEquals(50000,tree.accept(new BsonDocumentTransformer()).getArray("$or").size());
+        Assertions.assertEquals(50000,((List) tree.accept(new CriteriaTransformer()).getCriteriaObject().get("$or")).size());
+    }
+
     @Test
     void shouldKeepLogicalPrecedence(){
         TestBuilder.build("x.y='z' or x.y='y' and x.z=99 or x.z=1200").assertBsonResult(
                 Filters.or(
-                        Filters.or(
-                                Filters.eq("x.y","z"),
-                                Filters.and(
-                                        Filters.eq("x.y","y"),
-                                        Filters.eq("x.z",99)
-                                )
+                        Filters.eq("x.y","z"),
+                        Filters.and(
+                                Filters.eq("x.y","y"),
+                                Filters.eq("x.z",99)
                         ),
                         Filters.eq("x.z",1200))
         ).assertCriteriaResult(
                 new Criteria().orOperator(
-                        new Criteria().orOperator(
-                                Criteria.where("x.y").is("z"),
-                                new Criteria().andOperator(
-                                        Criteria.where("x.y").is("y"),
-                                        Criteria.where("x.z").is(99)
-                                )
+                        Criteria.where("x.y").is("z"),
+                        new Criteria().andOperator(
+                                Criteria.where("x.y").is("y"),
+                                Criteria.where("x.z").is(99)
                         ),
                         Criteria.where("x.z").is(1200)
                 )
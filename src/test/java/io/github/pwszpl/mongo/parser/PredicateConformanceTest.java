@@ -0,0 +1,100 @@
+package io.github.pwszpl.mongo.parser;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import io.github.pwszpl.mongo.search.ast.QueryNode;
+import io.github.pwszpl.mongo.search.transform.FiltersTransformer;
+import io.github.pwszpl.mongo.search.transform.PredicateTransformer;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Checks that in-memory predicates match the same documents as MongoDB server.
+ */
+class PredicateConformanceTest {
+    private static final List<Document> documents = Arrays.asList(
+            new Document("_id",1).append("n",5).append("s","abc").append("tags",Arrays.asList("red","blue")).append("flag",true),
+            new Document("_id",2).append("n",5.0).append("s","abd").append("tags",Arrays.asList("red")).append("flag",false),
+            new Document("_id",3).append("n",7L).append("s","b").append("tags","red"),
+            new Document("_id",4).append("n",new Decimal128(new BigDecimal("10.5"))).append("s",10),
+            new Document("_id",5).append("n",null).append("a",new Document("b",1)),
+            new Document("_id",6).append("n",Arrays.asList(1,20)).append("a",new Document("b",Arrays.asList(2,3))),
+            new Document("_id",7).append("n","5").append("a",Arrays.asList(new Document("b",1),new Document("c",2))),
+            new Document("_id",8).append("items",Arrays.asList(new Document("sku","x").append("qty",5),new Document("sku","y").append("qty",15))),
+            new Document("_id",9).append("items",Arrays.asList(new Document("sku","x").append("qty",25))),
+            new Document("_id",10).append("d",Date.from(Instant.parse("2021-05-01T00:00:00Z"))).append("tags",Arrays.asList(Arrays.asList("red"),"green")),
+            new Document("_id",11).append("d",Date.from(Instant.parse("2019-05-01T00:00:00Z"))).append("n",-3.7),
+            new Document("_id",12).append("n",Double.NaN).append("s","ABC"),
+            new Document("_id",13)
+    );
+
+    private static MongoCollection<Document> collection;
+
+    @Container
+    static final MongoDBContainer mongo = new MongoDBContainer(DockerImageName.parse("mongo:4.4"));
+
+    @BeforeAll
+    static void setUpData(){
+        mongo.start();
+        MongoClient mongoClient = MongoClients.create(mongo.getConnectionString());
+        collection = mongoClient.getDatabase("test").getCollection("conformanceCollection");
+        collection.insertMany(documents);
+    }
+
+    @AfterAll
+    static void tearDown(){
+        mongo.stop();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "n = 5", "n != 5", "n > 5", "n >= 5", "n < 10", "n <= 7.0", "n > 0 and n < 6", "n < 'z'",
+            "s = 'abc'", "s > 'abc'", "s like '^ab'", "s like 'b'", "s like '^[A-Z]+$'",
+            "tags = 'red'", "tags in ('blue' 'green')", "tags nin ('red')", "tags all ('red' 'blue')",
+            "size(tags) = 2", "size(tags) = 1", "not(size(tags) = 2)",
+            "exists(n) = true", "exists(n) = false", "exists(a.b) = true", "not(exists(a.c) = true)",
+            "a.b = 1", "a.b >= 2", "a.0.b = 1", "items.qty > 10", "items.sku = 'y'", "items.0.qty = 5",
+            "items matches (sku = 'x' and qty = 25)", "items matches (sku = 'x' and qty = 15)",
+            "type(n) = 'double'", "type(n) = 'number'", "type(n) = 'string'", "type(tags) = 'array'", "type(s) = 'int'",
+            "mod(n,2) = 1", "mod(n,3) = 0", "not(mod(n,5) = 0)",
+            "d > 2020-01-01", "d <= 2021-05-01T00:00:00", "exists(flag) = true",
+            "n = 5 or s = 'b'", "n = 5 nor s = 'b'", "(n > 1 or exists(a) = true) and s != 'abc'"
+    })
+    void shouldMatchLikeServer(String query) throws ParseException {
+        QueryNode tree = new MongoSearchEngineParser(new StringReader(query)).parseTree();
+
+        List<Object> expected = new ArrayList<>();
+        collection.find(tree.accept(new FiltersTransformer())).sort(new Document("_id",1)).forEach(d -> expected.add(d.get("_id")));
+
+        PredicateTransformer transformer = new PredicateTransformer();
+        Predicate<BsonDocument> predicate = tree.accept(transformer);
+        Predicate<Document> documentPredicate = transformer.toDocumentPredicate(tree);
+        List<Object> bsonResult = new ArrayList<>();
+        List<Object> documentResult = new ArrayList<>();
+        for(Document document : documents){
+            if(predicate.test(document.toBsonDocument())) bsonResult.add(document.get("_id"));
+            if(documentPredicate.test(document)) documentResult.add(document.get("_id"));
+        }
+        Assertions.assertEquals(expected, bsonResult, query);
+        Assertions.assertEquals(expected, documentResult, query);
+    }
+}
@@ -0,0 +1,105 @@
+package io.github.pwszpl.mongo.parser;
+
+import io.github.pwszpl.mongo.search.ast.LikeMode;
+import io.github.pwszpl.mongo.search.transform.BsonDocumentTransformer;
+import io.github.pwszpl.mongo.search.transform.CriteriaTransformer;
+import io.github.pwszpl.mongo.search.transform.FiltersTransformer;
+import io.github.pwszpl.mongo.search.translator.QueryTranslator;
+import org.bson.BsonDocument;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Translates queries with translators shared by many threads and checks results against parsers used by single thread.
+ */
+class QueryTranslatorStressTest {
+    private static final int THREADS = 32;
+    private static final int ROUNDS = 300;
+
+    private static final String[] QUERIES = {
+            "stringField = 'a%d' and numField > %d",
+            "numField in (%d 2 3) or stringField like 'x%d%%'",
+            "a.b matches (c = %d and d = 'e') nor size(arr) = %d",
+            "not(exists(field%d) = true) and dateField >= 2022-01-%02dT10:00:00Z",
+            "(x = %d or y = 1.5) and (z <> 'w' or mod(v, 4) = %d)",
+            "numField = %d and",
+            "stringField = 'unterminated %d"
+    };
+
+    @Test
+    void shouldTranslateConcurrently() throws Exception {
+        QueryTranslator<Bson> filters = QueryTranslator.builder(new FiltersTransformer()).likeMode(LikeMode.SQL).poolSize(4).build();
+        QueryTranslator<Criteria> criteria = QueryTranslator.builder(new CriteriaTransformer()).likeMode(LikeMode.SQL).build();
+        QueryTranslator<BsonDocument> documents = QueryTranslator.builder(new BsonDocumentTransformer()).likeMode(LikeMode.SQL).build();
+
+        List<String> queries = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        for(int i=0;i<ROUNDS;i++){
+            String query = String.format(QUERIES[i % QUERIES.length], i % 28 + 1, i);
+            queries.add(query);
+            expected.add(translate(query, 0) + "|" + translate(query, 1) + "|" + translate(query, 2));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<List<String>>> results = new ArrayList<>();
+            for(int thread=0;thread<THREADS;thread++){
+                int offset = thread;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    List<String> translated = new ArrayList<>(queries.size());
+                    for(int i=0;i<queries.size();i++){
+                        String query = queries.get((i + offset) % queries.size());
+                        translated.add(result(() -> filters.translate(query)) + "|" + result(() -> criteria.translate(query))
+                                + "|" + result(() -> documents.translate(query)));
+                    }
+                    return translated;
+                }));
+            }
+            start.countDown();
+            for(int thread=0;thread<THREADS;thread++){
+                List<String> translated = results.get(thread).get(60, TimeUnit.SECONDS);
+                for(int i=0;i<translated.size();i++){
+                    Assertions.assertEquals(expected.get((i + thread) % queries.size()), translated.get(i));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String translate(String query, int mode){
+        return result(() -> {
+            MongoSearchEngineParser parser = new MongoSearchEngineParser(query);
+            parser.setLikeMode(LikeMode.SQL);
+            if(mode == 1) parser.setCriteraMode();
+            if(mode == 2) parser.setBsonDocumentMode();
+            return parser.parse();
+        });
+    }
+
+    private static String result(Translation translation){
+        try {
+            Object result = translation.translate();
+            if(result instanceof Criteria) return ((Criteria) result).getCriteriaObject().toJson();
+            return ((Bson) result).toBsonDocument().toJson();
+        } catch (ParseException | TokenMgrError | RuntimeException e) {
+            return e.getClass().getName() + ": " + e.getMessage();
+        }
+    }
+
+    private interface Translation {
+        Object translate() throws ParseException;
+    }
+}
@@ -0,0 +1,137 @@
+package io.github.pwszpl.mongo.parser;
+
+import com.mongodb.client.MongoClients;
+import io.github.pwszpl.mongo.search.spring.SearchMongoRepositoryFactory;
+import io.github.pwszpl.mongo.search.spring.SearchQuery;
+import io.github.pwszpl.mongo.search.spring.SearchTemplate;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.repository.Repository;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Spring Data integration - repository methods annotated with SearchQuery and SearchTemplate.
+ */
+class SearchRepositoryTest {
+    @Container
+    static final MongoDBContainer mongo = new MongoDBContainer(DockerImageName.parse("mongo:4.4"));
+
+    private static MongoTemplate template;
+
+    @BeforeAll
+    static void setUp(){
+        mongo.start();
+        template = new MongoTemplate(MongoClients.create(mongo.getConnectionString()), "test");
+    }
+
+    @AfterAll
+    static void tearDown(){
+        mongo.stop();
+    }
+
+    @AfterEach
+    void cleanUp(){
+        template.dropCollection(Product.class);
+    }
+
+    @Test
+    void shouldExecuteSearchQueryMethods(){
+        template.insertAll(Arrays.asList(Product.of("a", "books", 10), Product.of("b", "books", 30),
+                Product.of("c", "books", 20), Product.of("d", "games", 15)));
+        ProductRepository repository = new SearchMongoRepositoryFactory(template).getRepository(ProductRepository.class);
+
+        Assertions.assertEquals(Arrays.asList("c", "a"), names(repository.findCheaperThan("books", 25, Sort.by(Sort.Direction.DESC, "price"))));
+        Assertions.assertEquals(Arrays.asList("a", "d"), names(repository.findInCategories(Arrays.asList("books", "games"), 15)));
+        Assertions.assertEquals(3, repository.countInCategory("books"));
+        Assertions.assertTrue(repository.existsInCategory("games"));
+        Assertions.assertEquals(1, repository.findByName("b").size());
+        repository.deleteInCategory("games");
+        Assertions.assertFalse(repository.existsInCategory("games"));
+    }
+
+    @Test
+    void shouldFailOnInvalidQueryWhenRepositoryIsCreated(){
+        SearchMongoRepositoryFactory factory = new SearchMongoRepositoryFactory(template);
+        RuntimeException syntaxError = Assertions.assertThrows(RuntimeException.class, () -> factory.getRepository(InvalidSyntaxRepository.class));
+        Assertions.assertTrue(syntaxError.getMessage().contains("Invalid search query 'category = = ?0'"), syntaxError.getMessage());
+        RuntimeException parameterError = Assertions.assertThrows(RuntimeException.class, () -> factory.getRepository(MissingParameterRepository.class));
+        Assertions.assertTrue(parameterError.getMessage().contains("uses parameter ?1"), parameterError.getMessage());
+    }
+
+    @Test
+    void shouldExecuteDeclaredTemplateQueries(){
+        template.insertAll(Arrays.asList(Product.of("a", "books", 10), Product.of("b", "books", 30)));
+        SearchTemplate searchTemplate = new SearchTemplate(template).declare("cheap", "category = ?0 and price < ?1", 2);
+
+        Assertions.assertEquals(Arrays.asList("a"), names(searchTemplate.find("cheap", Product.class, "books", 20)));
+        Assertions.assertEquals(2, searchTemplate.count("cheap", Product.class, "books", 50));
+        Assertions.assertThrows(RuntimeException.class, () -> searchTemplate.declare("invalid", "price < ?2", 2));
+    }
+
+    private static List<String> names(List<Product> products){
+        return products.stream().map(Product::getName).collect(Collectors.toList());
+    }
+
+    interface ProductRepository extends Repository<Product, String> {
+        @SearchQuery("category = ?0 and price < ?1")
+        List<Product> findCheaperThan(String category, int price, Sort sort);
+
+        @SearchQuery("category in (?0) and price <= ?1")
+        List<Product> findInCategories(List<String> categories, int price);
+
+        @SearchQuery(value = "category = ?0", count = true)
+        long countInCategory(String category);
+
+        @SearchQuery(value = "category = ?0", exists = true)
+        boolean existsInCategory(String category);
+
+        @SearchQuery(value = "category = ?0", delete = true)
+        void deleteInCategory(String category);
+
+        List<Product> findByName(String name);
+    }
+
+    interface InvalidSyntaxRepository extends Repository<Product, String> {
+        @SearchQuery("category = = ?0")
+        List<Product> find(String category);
+    }
+
+    interface MissingParameterRepository extends Repository<Product, String> {
+        @SearchQuery("category = ?0 and price < ?1")
+        List<Product> find(String category);
+    }
+
+    @Document("products")
+    static class Product {
+        @Id
+        private String id;
+        private String name;
+        private String category;
+        private int price;
+
+        static Product of(String name, String category, int price){
+            Product product = new Product();
+            product.name = name;
+            product.category = category;
+            product.price = price;
+            return product;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+}
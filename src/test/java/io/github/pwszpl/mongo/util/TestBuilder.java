@@ -3,7 +3,16 @@ package io.github.pwszpl.mongo.util;
 import com.mongodb.client.MongoCollection;
 import io.github.pwszpl.mongo.parser.MongoSearchEngineParser;
 import io.github.pwszpl.mongo.parser.ParseException;
+import io.github.pwszpl.mongo.search.ast.LikeMode;
+import io.github.pwszpl.mongo.search.optimizer.OptimizedQuery;
+import io.github.pwszpl.mongo.search.optimizer.QueryOptimizer;
+import io.github.pwszpl.mongo.search.transform.BsonDocumentTransformer;
+import io.github.pwszpl.mongo.search.transform.CriteriaTransformer;
+import io.github.pwszpl.mongo.search.transform.FiltersTransformer;
+import io.github.pwszpl.mongo.search.transform.PreparedQuery;
 import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
 import org.bson.conversions.Bson;
 import org.junit.jupiter.api.Assertions;
 import org.springframework.data.mongodb.core.query.Criteria;
@@ -14,6 +23,7 @@ import java.util.List;
 
 public class TestBuilder {
     String query;
+    LikeMode likeMode = LikeMode.REGEX;
     static MongoCollection<Document> collection;
 
     private TestBuilder(String q){
@@ -24,23 +34,41 @@ public class TestBuilder {
         return new TestBuilder(q);
     }
 
+    public TestBuilder withLikeMode(LikeMode mode){
+        likeMode = mode;
+        return this;
+    }
+
     public static void setCollection(MongoCollection<Document> c){
         collection = c;
     }
 
     public TestBuilder assertBsonResult(Bson expected){
-        MongoSearchEngineParser parser = new MongoSearchEngineParser(new StringReader(query));
+        MongoSearchEngineParser parser = parser();
         try {
             Bson result = (Bson) parser.parse();
             Assertions.assertEquals(expected.toBsonDocument().toJson(),result.toBsonDocument().toJson());
         } catch (ParseException e) {
             throw new RuntimeException(e);
         }
+        return assertBsonDocumentResult(expected);
+    }
+
+    public TestBuilder assertBsonDocumentResult(Bson expected){
+        MongoSearchEngineParser parser = parser();
+        parser.setBsonDocumentMode();
+        try {
+            RawBsonDocument result = (RawBsonDocument) parser.parse();
+            RawBsonDocument expectedDocument = new RawBsonDocument(expected.toBsonDocument(), new BsonDocumentCodec());
+            Assertions.assertEquals(expectedDocument.getByteBuffer().asNIO(),result.getByteBuffer().asNIO());
+        } catch (ParseException e) {
+            throw new RuntimeException(e);
+        }
         return this;
     }
 
     public TestBuilder assertCriteriaResult(Criteria expected){
-        MongoSearchEngineParser parser = new MongoSearchEngineParser(new StringReader(query));
+        MongoSearchEngineParser parser = parser();
         parser.setCriteraMode();
         try {
             Criteria c = (Criteria)parser.parse();
@@ -51,8 +79,71 @@ public class TestBuilder {
         return this;
     }
 
+    public TestBuilder assertPreparedBsonResult(Bson expected, Object... values){
+        try {
+            PreparedQuery prepared = MongoSearchEngineParser.prepare(query);
+            Bson result = (Bson) prepared.bind(values);
+            Assertions.assertEquals(expected.toBsonDocument().toJson(),result.toBsonDocument().toJson());
+        } catch (ParseException e) {
+            throw new RuntimeException(e);
+        }
+        return this;
+    }
+
+    public TestBuilder assertPreparedCriteriaResult(Criteria expected, Object... values){
+        MongoSearchEngineParser parser = parser();
+        parser.setCriteraMode();
+        try {
+            PreparedQuery prepared = parser.prepare();
+            Criteria c = (Criteria) prepared.bind(values);
+            Assertions.assertEquals(expected.getCriteriaObject().toBsonDocument().toJson(),c.getCriteriaObject().toBsonDocument().toJson());
+        } catch (ParseException e) {
+            throw new RuntimeException(e);
+        }
+        return this;
+    }
+
+    public TestBuilder assertOptimizedBsonResult(Bson expected){
+        OptimizedQuery optimized = optimize();
+        Assertions.assertFalse(optimized.isUnsatisfiable());
+        Bson result = optimized.getRoot().accept(new FiltersTransformer());
+        Assertions.assertEquals(expected.toBsonDocument().toJson(),result.toBsonDocument().toJson());
+        RawBsonDocument expectedDocument = new RawBsonDocument(expected.toBsonDocument(), new BsonDocumentCodec());
+        RawBsonDocument document = (RawBsonDocument) optimized.getRoot().accept(new BsonDocumentTransformer());
+        Assertions.assertEquals(expectedDocument.getByteBuffer().asNIO(),document.getByteBuffer().asNIO());
+        return this;
+    }
+
+    public TestBuilder assertOptimizedCriteriaResult(Criteria expected){
+        Criteria c = optimize().getRoot().accept(new CriteriaTransformer());
+        Assertions.assertEquals(expected.getCriteriaObject().toBsonDocument().toJson(),c.getCriteriaObject().toBsonDocument().toJson());
+        return this;
+    }
+
+    public TestBuilder assertUnsatisfiable(){
+        Assertions.assertTrue(optimize().isUnsatisfiable());
+        return this;
+    }
+
+    public TestBuilder assertOptimizedDbResult(int expectedDbCount){
+        Bson result = optimize().getRoot().accept(new FiltersTransformer());
+        List<Document> list = new ArrayList<>();
+        collection.find(result).forEach(e -> list.add(e));
+        Assertions.assertEquals(expectedDbCount,list.size());
+        return this;
+    }
+
+    private OptimizedQuery optimize(){
+        MongoSearchEngineParser parser = parser();
+        try {
+            return new QueryOptimizer().optimize(parser.parseTree());
+        } catch (ParseException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     public TestBuilder assertBsonDbResult(int expectedDbCount){
-        MongoSearchEngineParser parser = new MongoSearchEngineParser(new StringReader(query));
+        MongoSearchEngineParser parser = parser();
         Bson result = null;
         try {
             result = (Bson) parser.parse();
@@ -65,4 +156,10 @@ public class TestBuilder {
         Assertions.assertEquals(expectedDbCount,list.size());
         return this;
     }
+
+    private MongoSearchEngineParser parser(){
+        MongoSearchEngineParser parser = new MongoSearchEngineParser(new StringReader(query));
+        parser.setLikeMode(likeMode);
+        return parser;
+    }
 }